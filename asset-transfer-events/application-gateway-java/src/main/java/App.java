@@ -4,37 +4,43 @@
  * SPDX-License-Identifier: Apache-2.0
  */
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonParser;
-import io.grpc.Status;
 import org.hyperledger.fabric.client.ChaincodeEvent;
-import org.hyperledger.fabric.client.CloseableIterator;
 import org.hyperledger.fabric.client.CommitException;
 import org.hyperledger.fabric.client.CommitStatusException;
 import org.hyperledger.fabric.client.Contract;
 import org.hyperledger.fabric.client.EndorseException;
+import org.hyperledger.fabric.client.FileCheckpointer;
 import org.hyperledger.fabric.client.Gateway;
-import org.hyperledger.fabric.client.GatewayRuntimeException;
 import org.hyperledger.fabric.client.Hash;
 import org.hyperledger.fabric.client.Network;
 import org.hyperledger.fabric.client.SubmitException;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 public final class App implements AutoCloseable {
     private static final String channelName = "mychannel";
     private static final String chaincodeName = "events";
+    // Checkpoint of the last chaincode event handled by the listener, from which listening resumes on the next run.
+    private static final Path checkpointFile = Paths.get("checkpoint.json");
+    private static final int maxEventBatchSize = 100;
+    private static final Duration maxEventBatchDelay = Duration.ofMillis(100);
 
     private final Network network;
     private final Contract contract;
     private final String assetId = "asset" + Instant.now().toEpochMilli();
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
     private final ExecutorService executor = Executors.newCachedThreadPool();
+    private Future<Void> eventListening;
 
     public static void main(final String[] args) throws Exception {
         var grpcChannel = Connections.newGrpcConnection();
@@ -60,9 +66,11 @@ public final class App implements AutoCloseable {
         contract = network.getContract(chaincodeName);
     }
 
-    public void run() throws EndorseException, SubmitException, CommitStatusException, CommitException {
+    public void run() throws EndorseException, SubmitException, CommitStatusException, CommitException, IOException,
+            InterruptedException {
         // Listen for events emitted by subsequent transactions, stopping when the try-with-resources block exits
-        try (var eventSession = startChaincodeEventListening()) {
+        try (var checkpointer = new FileCheckpointer(checkpointFile);
+             var eventSession = startChaincodeEventListening(checkpointer)) {
             var firstBlockNumber = createAsset();
             updateAsset();
             transferAsset();
@@ -71,37 +79,49 @@ public final class App implements AutoCloseable {
             // Replay events from the block containing the first transaction
             replayChaincodeEvents(firstBlockNumber);
         }
+
+        // Closing the consumer waits for it to finish, so any failure while listening is now available
+        checkChaincodeEventListening();
     }
 
-    private CloseableIterator<ChaincodeEvent> startChaincodeEventListening() {
+    private ChaincodeEventConsumer startChaincodeEventListening(final FileCheckpointer checkpointer) {
         System.out.println("\n*** Start chaincode event listening");
+        checkpointer.getBlockNumber().ifPresent(blockNumber ->
+                System.out.println("\n*** Resuming from checkpoint in block " + blockNumber));
+
+        var consumer = ChaincodeEventConsumer.newBuilder(network, chaincodeName)
+                .checkpointer(checkpointer)
+                .maxBatchSize(maxEventBatchSize)
+                .maxBatchDelay(maxEventBatchDelay)
+                .handler(this::handleEvents)
+                .build();
+        eventListening = executor.submit(() -> {
+            consumer.run();
+            return null;
+        });
 
-        var eventIter = network.getChaincodeEvents(chaincodeName);
-        executor.execute(() -> readEvents(eventIter));
-
-        return eventIter;
+        return consumer;
     }
 
-    private void readEvents(final CloseableIterator<ChaincodeEvent> eventIter) {
+    private void checkChaincodeEventListening() throws InterruptedException {
         try {
-            eventIter.forEachRemaining(event -> {
-                var payload = prettyJson(event.getPayload());
-                System.out.println("\n<-- Chaincode event received: " + event.getEventName() + " - " + payload);
-            });
-        } catch (GatewayRuntimeException e) {
-            if (e.getStatus().getCode() != Status.Code.CANCELLED) {
-                throw e;
-            }
+            eventListening.get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("chaincode event listening failed", e.getCause());
         }
     }
 
-    private String prettyJson(final byte[] json) {
-        return prettyJson(new String(json, StandardCharsets.UTF_8));
+    private void handleEvents(final List<ChaincodeEvent> events) {
+        for (var event : events) {
+            System.out.println("\n<-- Chaincode event received: " + event.getEventName() + " - " + payloadString(event));
+        }
     }
 
-    private String prettyJson(final String json) {
-        var parsedJson = JsonParser.parseString(json);
-        return gson.toJson(parsedJson);
+    /**
+     * The event payload is the JSON emitted by the chaincode, so it is decoded as a string without being parsed.
+     */
+    private static String payloadString(final ChaincodeEvent event) {
+        return new String(event.getPayload(), StandardCharsets.UTF_8);
     }
 
     private long createAsset() throws EndorseException, SubmitException, CommitStatusException {
@@ -157,8 +177,7 @@ public final class App implements AutoCloseable {
         try (var eventIter = request.getEvents()) {
             while (eventIter.hasNext()) {
                 var event = eventIter.next();
-                var payload = prettyJson(event.getPayload());
-                System.out.println("\n<-- Chaincode event replayed: " + event.getEventName() + " - " + payload);
+                System.out.println("\n<-- Chaincode event replayed: " + event.getEventName() + " - " + payloadString(event));
 
                 if (event.getEventName().equals("DeleteAsset")) {
                     // Reached the last submitted transaction so break to close the iterator and stop listening for events
@@ -0,0 +1,272 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import io.grpc.Status;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.client.Checkpointer;
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.client.GatewayRuntimeException;
+import org.hyperledger.fabric.client.Network;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads chaincode events and passes them to a handler in batches. A batch is handled once it reaches a maximum number
+ * of events, or once its first event has waited for a maximum delay, whichever comes first.
+ * <p>Events are received on a background thread into a bounded buffer, so reading from the peer overlaps with
+ * handling of the previous batch, and stops while the buffer is full. The checkpointer is updated only after a batch
+ * has been handled successfully, so each event is handled at least once: after a failure or restart, listening resumes
+ * from the first event of the last batch that was not handled.</p>
+ */
+public final class ChaincodeEventConsumer implements AutoCloseable {
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final CloseableIterator<ChaincodeEvent> events;
+    private final Checkpointer checkpointer;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final Handler handler;
+    private final BlockingQueue<ChaincodeEvent> buffer;
+    private final Thread reader;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile Thread runner;
+    private volatile boolean readerDone;
+    private volatile RuntimeException readFailure;
+
+    /**
+     * Handles batches of chaincode events.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * Handle a batch of events. If an exception is thrown, the events are not checkpointed.
+         * @param events Events in the order they were emitted.
+         * @throws Exception if the events could not be handled.
+         */
+        void handle(List<ChaincodeEvent> events) throws Exception;
+    }
+
+    private ChaincodeEventConsumer(final Builder builder) {
+        var request = builder.network.newChaincodeEventsRequest(builder.chaincodeName);
+        builder.startBlock.ifPresent(request::startBlock); // Used only if there is no checkpoint block number
+        if (builder.checkpointer != null) {
+            request.checkpoint(builder.checkpointer);
+        }
+
+        this.events = request.build().getEvents();
+        this.checkpointer = builder.checkpointer;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxBatchDelayNanos = builder.maxBatchDelay.toNanos();
+        this.handler = builder.handler;
+        this.buffer = new ArrayBlockingQueue<>(builder.bufferSize);
+        this.reader = new Thread(this::readEvents, "chaincode-event-reader");
+        this.reader.setDaemon(true);
+    }
+
+    /**
+     * Create a builder for a consumer of events emitted by a chaincode.
+     * @param network Network on which the chaincode is deployed.
+     * @param chaincodeName Chaincode name.
+     * @return A builder.
+     */
+    public static Builder newBuilder(final Network network, final String chaincodeName) {
+        return new Builder(network, chaincodeName);
+    }
+
+    /**
+     * Receive and handle events until the consumer is closed, returning once any events already received have been
+     * handled. If handling a batch fails, the exception is thrown and no more events are handled.
+     * @throws Exception if the handler fails, or receiving events fails for a reason other than the consumer being
+     * closed.
+     */
+    public void run() throws Exception {
+        runner = Thread.currentThread();
+        reader.start();
+        try {
+            handleEvents();
+        } finally {
+            stopped.countDown();
+        }
+
+        if (readFailure != null) {
+            throw readFailure;
+        }
+    }
+
+    private void handleEvents() throws Exception {
+        var batch = new ArrayList<ChaincodeEvent>(maxBatchSize);
+        var deadline = 0L;
+        while (true) {
+            var event = batch.isEmpty()
+                    ? buffer.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)
+                    : buffer.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (event != null) {
+                if (batch.isEmpty()) {
+                    deadline = System.nanoTime() + maxBatchDelayNanos;
+                }
+                batch.add(event);
+                buffer.drainTo(batch, maxBatchSize - batch.size());
+            }
+
+            var isEnd = event == null && readerDone && buffer.isEmpty();
+            if (batch.size() >= maxBatchSize || (!batch.isEmpty() && (isEnd || System.nanoTime() - deadline >= 0))) {
+                handle(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+
+            if (isEnd) {
+                return;
+            }
+        }
+    }
+
+    private void handle(final List<ChaincodeEvent> batch) throws Exception {
+        handler.handle(batch);
+        if (checkpointer != null) {
+            checkpointer.checkpointChaincodeEvent(batch.get(batch.size() - 1));
+        }
+    }
+
+    private void readEvents() {
+        try {
+            while (events.hasNext()) {
+                buffer.put(events.next());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (GatewayRuntimeException e) {
+            if (e.getStatus().getCode() != Status.Code.CANCELLED) {
+                readFailure = e;
+            }
+        } catch (RuntimeException e) {
+            readFailure = e;
+        } finally {
+            readerDone = true;
+        }
+    }
+
+    /**
+     * Stop receiving events. If the consumer is running on another thread, wait until it has handled any events already
+     * received, so that the checkpointer can safely be closed afterwards.
+     */
+    @Override
+    public void close() {
+        events.close();
+        reader.interrupt();
+
+        var runningThread = runner;
+        if (runningThread != null && runningThread != Thread.currentThread()) {
+            try {
+                stopped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Builder used to create a {@link ChaincodeEventConsumer}.
+     */
+    public static final class Builder {
+        private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+        private static final Duration DEFAULT_MAX_BATCH_DELAY = Duration.ofMillis(500);
+        private static final int DEFAULT_BUFFER_SIZE = 10_000;
+
+        private final Network network;
+        private final String chaincodeName;
+        private Checkpointer checkpointer;
+        private OptionalLong startBlock = OptionalLong.empty();
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        private Duration maxBatchDelay = DEFAULT_MAX_BATCH_DELAY;
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+        private Handler handler;
+
+        private Builder(final Network network, final String chaincodeName) {
+            this.network = network;
+            this.chaincodeName = chaincodeName;
+        }
+
+        /**
+         * Checkpointer recording the last handled event, from which listening resumes. If not set, listening starts
+         * from the start block, or the next committed block.
+         * @param checkpointer A checkpointer.
+         * @return This builder.
+         */
+        public Builder checkpointer(final Checkpointer checkpointer) {
+            this.checkpointer = checkpointer;
+            return this;
+        }
+
+        /**
+         * Block from which to start listening if there is no checkpoint.
+         * @param startBlock A block number.
+         * @return This builder.
+         */
+        public Builder startBlock(final long startBlock) {
+            this.startBlock = OptionalLong.of(startBlock);
+            return this;
+        }
+
+        /**
+         * Maximum number of events passed to the handler at once. The default is 100.
+         * @param maxBatchSize An event count.
+         * @return This builder.
+         */
+        public Builder maxBatchSize(final int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Maximum time that a received event waits for more events before its batch is handled. The default is 500
+         * milliseconds.
+         * @param maxBatchDelay A duration.
+         * @return This builder.
+         */
+        public Builder maxBatchDelay(final Duration maxBatchDelay) {
+            this.maxBatchDelay = maxBatchDelay;
+            return this;
+        }
+
+        /**
+         * Maximum number of received events waiting to be handled. The default is 10000.
+         * @param bufferSize An event count.
+         * @return This builder.
+         */
+        public Builder bufferSize(final int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Handler for each batch of events.
+         * @param handler A handler.
+         * @return This builder.
+         */
+        public Builder handler(final Handler handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        /**
+         * Start receiving events. Events are not handled until {@link ChaincodeEventConsumer#run()} is called.
+         * @return A consumer.
+         */
+        public ChaincodeEventConsumer build() {
+            if (handler == null) {
+                throw new IllegalStateException("Handler not set");
+            }
+            return new ChaincodeEventConsumer(this);
+        }
+    }
+}
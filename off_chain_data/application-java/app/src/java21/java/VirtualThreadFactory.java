@@ -0,0 +1,29 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads. Compiled only by the Java 21 build variant, and loaded by {@link Threads}.
+ */
+public final class VirtualThreadFactory implements ThreadFactory {
+    private final ThreadFactory factory;
+
+    /**
+     * Create a factory.
+     * @param name Thread name, or name prefix if numbered.
+     * @param numbered Whether to append a sequence number, starting from 1, to the name.
+     */
+    public VirtualThreadFactory(final String name, final boolean numbered) {
+        var builder = Thread.ofVirtual();
+        this.factory = (numbered ? builder.name(name, 1) : builder.name(name)).factory();
+    }
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+        return factory.newThread(runnable);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import blockarchive.BlockFileReader;
+import org.hyperledger.fabric.client.InMemoryCheckpointer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import parser.BlockParser;
+import parser.SyntheticBlocks;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures end-to-end ingestion from a block archive file, as used by the listener when {@code BLOCK_ARCHIVE} is set:
+ * reading memory-mapped blocks, parsing them and processing their transactions. Writes are discarded, so the result
+ * reflects the cost of the listener itself rather than any off-chain store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArchiveReplayBenchmark {
+    private static final Store NO_OP_STORE = (blockNumber, transactionId, writes) -> { };
+
+    @Param({"1000"})
+    private int blockCount;
+
+    @Param({"100"})
+    private int transactionsPerBlock;
+
+    @Param({"4"})
+    private int writesPerTransaction;
+
+    @Param({"512"})
+    private int valueSize;
+
+    private Path archive;
+
+    /**
+     * Write the archive file.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Setup
+    public void setup() throws IOException {
+        archive = Files.createTempFile("blocks", ".archive");
+        try (var out = new BufferedOutputStream(Files.newOutputStream(archive))) {
+            for (long i = 0; i < blockCount; i++) {
+                SyntheticBlocks.newBlock(i, transactionsPerBlock, writesPerTransaction, valueSize).writeDelimitedTo(out);
+            }
+        }
+    }
+
+    /**
+     * Read and process every block in the archive.
+     * @return Last checkpointed block number.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Benchmark
+    public long replay() throws IOException {
+        var checkpointer = new InMemoryCheckpointer();
+        try (var blocks = new BlockFileReader(archive, 0)) {
+            blocks.forEachRemaining(block -> new BlockProcessor(BlockParser.parseBlock(block), checkpointer, NO_OP_STORE).process());
+        }
+        return checkpointer.getBlockNumber().orElse(0);
+    }
+
+    /**
+     * Delete the archive file.
+     * @throws IOException if an I/O error occurs.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(archive);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import parser.BlockParser;
+import parser.SyntheticBlocks;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of resuming processing part way through a large block, either by searching the block for the
+ * checkpointed transaction ID or by jumping directly to the checkpointed transaction index. The checkpoint is close to
+ * the end of the block, so only a few transactions remain to be stored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResumeBenchmark {
+    private static final long BLOCK_NUMBER = 1;
+    private static final Store NO_OP_STORE = (blockNumber, transactionId, writes) -> { };
+
+    @Param({"5000"})
+    private int transactionCount;
+
+    @Param({"10"})
+    private int remainingTransactions;
+
+    @Param({"4"})
+    private int writesPerTransaction;
+
+    @Param({"512"})
+    private int valueSize;
+
+    private org.hyperledger.fabric.protos.common.Block block;
+    private int checkpointIndex;
+    private String checkpointTransactionId;
+
+    /**
+     * Create the block to be processed.
+     */
+    @Setup
+    public void setup() {
+        block = SyntheticBlocks.newBlock(BLOCK_NUMBER, transactionCount, writesPerTransaction, valueSize);
+        checkpointIndex = transactionCount - remainingTransactions - 1;
+        checkpointTransactionId = String.format("%016x%08x", BLOCK_NUMBER, checkpointIndex);
+    }
+
+    /**
+     * Resume by searching for the checkpointed transaction ID.
+     * @return Next transaction index checkpointed.
+     */
+    @Benchmark
+    public int resumeById() {
+        return resume(OptionalInt.empty());
+    }
+
+    /**
+     * Resume from the checkpointed transaction index.
+     * @return Next transaction index checkpointed.
+     */
+    @Benchmark
+    public int resumeByIndex() {
+        return resume(OptionalInt.of(checkpointIndex));
+    }
+
+    private int resume(final OptionalInt transactionIndex) {
+        var checkpointer = new FixedCheckpointer(checkpointTransactionId, transactionIndex);
+        new BlockProcessor(BlockParser.parseBlock(block), checkpointer, NO_OP_STORE).process();
+        return checkpointer.lastTransactionIndex;
+    }
+
+    /**
+     * Checkpointer positioned at a transaction within the benchmark block, which records only the last checkpointed
+     * transaction index.
+     */
+    private static final class FixedCheckpointer implements IndexedCheckpointer {
+        private final String transactionId;
+        private final OptionalInt transactionIndex;
+        private int lastTransactionIndex = -1;
+
+        FixedCheckpointer(final String transactionId, final OptionalInt transactionIndex) {
+            this.transactionId = transactionId;
+            this.transactionIndex = transactionIndex;
+        }
+
+        @Override
+        public void checkpointBlock(final long blockNumber) {
+            // Block completion is not recorded
+        }
+
+        @Override
+        public void checkpointTransaction(final long blockNumber, final String id) {
+            lastTransactionIndex = -1;
+        }
+
+        @Override
+        public void checkpointTransaction(final long blockNumber, final int index, final String id) {
+            lastTransactionIndex = index;
+        }
+
+        @Override
+        public void checkpointChaincodeEvent(final ChaincodeEvent event) {
+            // Chaincode events are not used
+        }
+
+        @Override
+        public OptionalLong getBlockNumber() {
+            return OptionalLong.of(BLOCK_NUMBER);
+        }
+
+        @Override
+        public Optional<String> getTransactionId() {
+            return Optional.of(transactionId);
+        }
+
+        @Override
+        public OptionalInt getTransactionIndex() {
+            return transactionIndex;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.protobuf.ByteString;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of ingesting transactions into the append-only log store and the embedded key-value store. Each
+ * transaction updates a number of keys drawn in turn from a fixed key space, so the key-value store repeatedly
+ * overwrites existing keys as it would when following a live ledger.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StoreIngestBenchmark {
+    private static final long MEMTABLE_BYTES = 16L * 1024 * 1024;
+
+    @Param({"log", "kv"})
+    private String storeType;
+
+    @Param({"10000", "1000000"})
+    private int keyCount;
+
+    @Param({"4"})
+    private int writesPerTransaction;
+
+    @Param({"512"})
+    private int valueSize;
+
+    private Path directory;
+    private Store store;
+    private List<Write> writes;
+    private int nextKey;
+
+    /**
+     * Create an empty store and the writes to be applied.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("store-benchmark");
+        store = "kv".equals(storeType)
+                ? new KeyValueStore(directory.resolve("store.db"), MEMTABLE_BYTES, false)
+                : new LogStore(directory.resolve("store.log"));
+
+        var value = ByteString.copyFromUtf8("x".repeat(valueSize));
+        writes = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            var write = KVWrite.newBuilder()
+                    .setKey(String.format("asset%09d", i))
+                    .setValue(value)
+                    .build();
+            writes.add(new Write("mychannel", "basic", write));
+        }
+    }
+
+    /**
+     * Store the writes for one transaction.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Benchmark
+    public void storeTransaction() throws IOException {
+        var start = nextKey;
+        nextKey = (nextKey + writesPerTransaction) % (keyCount - writesPerTransaction);
+        store.store(1, "txid", writes.subList(start, start + writesPerTransaction));
+    }
+
+    /**
+     * Close the store and delete its files.
+     * @throws Exception if an error occurs.
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        if (store instanceof AutoCloseable) {
+            ((AutoCloseable) store).close();
+        }
+
+        try (var files = Files.walk(directory)) {
+            for (var file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.gson.JsonParser;
+import com.google.protobuf.ByteString;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares replaying stored writes from the JSON lines log with replaying them from the segmented binary log, both for
+ * the whole store and from a block near the end of the store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StoreReplayBenchmark {
+    private static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    @Param({"1000"})
+    private int blockCount;
+
+    @Param({"100"})
+    private int writesPerBlock;
+
+    @Param({"512"})
+    private int valueSize;
+
+    private Path directory;
+    private Path logFile;
+    private SegmentedLogStore segmentStore;
+
+    /**
+     * Populate both stores with the same writes.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("store-benchmark");
+        logFile = directory.resolve("store.log");
+        var logStore = new LogStore(logFile);
+        segmentStore = new SegmentedLogStore(directory.resolve("store.segments"), SEGMENT_BYTES, false);
+
+        var value = ByteString.copyFromUtf8("x".repeat(valueSize));
+        for (int block = 0; block < blockCount; block++) {
+            for (int i = 0; i < writesPerBlock; i++) {
+                var write = KVWrite.newBuilder()
+                        .setKey(String.format("asset%09d", i))
+                        .setValue(value)
+                        .build();
+                var writes = List.of(new Write("mychannel", "basic", write));
+                logStore.store(block, "txid", writes);
+                segmentStore.store(block, "txid", writes);
+            }
+        }
+    }
+
+    /**
+     * Parse every line of the JSON log.
+     * @return Total value length.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Benchmark
+    public long replayJsonLog() throws IOException {
+        long valueBytes = 0;
+        try (var reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+                valueBytes += JsonParser.parseString(line).getAsJsonObject().get("value").getAsString().length();
+            }
+        }
+        return valueBytes;
+    }
+
+    /**
+     * Read every record of the segmented log.
+     * @return Total value length.
+     */
+    @Benchmark
+    public long replaySegmentedLog() {
+        long valueBytes = 0;
+        for (var records = segmentStore.read(0); records.hasNext();) {
+            valueBytes += records.next().getValue().remaining();
+        }
+        return valueBytes;
+    }
+
+    /**
+     * Read the records for the last block of the segmented log, located using the segment index.
+     * @return Total value length.
+     */
+    @Benchmark
+    public long seekSegmentedLog() {
+        long valueBytes = 0;
+        for (var records = segmentStore.read(blockCount - 1); records.hasNext();) {
+            valueBytes += records.next().getValue().remaining();
+        }
+        return valueBytes;
+    }
+
+    /**
+     * Close the stores and delete their files.
+     * @throws IOException if an I/O error occurs.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        segmentStore.close();
+
+        try (var files = Files.walk(directory)) {
+            for (var file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
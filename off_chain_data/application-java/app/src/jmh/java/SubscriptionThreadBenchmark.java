@@ -0,0 +1,165 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares platform threads with virtual threads for many concurrent subscriptions, each of which spends most of its
+ * time blocked waiting for its next event, as the listener's channel receivers, store writers and checkpoint flusher
+ * do. Each operation delivers one event to every subscription and waits for all of them to handle it.
+ * <p>On Linux, the resident memory added by starting the subscriptions and the context switches per operation, summed
+ * over all threads in the process, are printed at the end of each trial. The {@code virtual} thread type requires the
+ * Java 21 build variant.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubscriptionThreadBenchmark {
+    private static final Path PROC_SELF = Paths.get("/proc/self");
+    private static final long BYTES_PER_KIB = 1024;
+
+    @Param({"platform", "virtual"})
+    private String threadType;
+
+    @Param({"100", "1000", "10000"})
+    private int subscriptions;
+
+    @Param({"100"})
+    private long workTokens;
+
+    private ExecutorService executor;
+    private final List<BlockingQueue<CountDownLatch>> queues = new ArrayList<>();
+    private long operationCount;
+    private long startContextSwitches;
+    private long subscriptionBytes;
+
+    /**
+     * Start the subscriptions, each blocked waiting for its first event.
+     * @throws IOException if an I/O error occurs reading process statistics.
+     */
+    @Setup
+    public void setup() throws IOException {
+        var threadFactory = "virtual".equals(threadType)
+                ? Threads.newVirtualThreadFactory("subscription-", true)
+                : Threads.newPlatformThreadFactory("subscription-", true);
+        executor = Executors.newCachedThreadPool(threadFactory);
+
+        var startBytes = readResidentBytes();
+        for (int i = 0; i < subscriptions; i++) {
+            var queue = new ArrayBlockingQueue<CountDownLatch>(1);
+            queues.add(queue);
+            executor.execute(() -> receive(queue));
+        }
+        subscriptionBytes = readResidentBytes() - startBytes;
+        startContextSwitches = readContextSwitches();
+    }
+
+    private void receive(final BlockingQueue<CountDownLatch> queue) {
+        try {
+            while (true) {
+                var event = queue.take();
+                Blackhole.consumeCPU(workTokens);
+                event.countDown();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deliver one event to every subscription and wait until all have handled it.
+     * @throws InterruptedException if the benchmark thread is interrupted.
+     */
+    @Benchmark
+    public void deliverToAll() throws InterruptedException {
+        var event = new CountDownLatch(subscriptions);
+        for (var queue : queues) {
+            queue.put(event);
+        }
+        event.await();
+        operationCount++;
+    }
+
+    /**
+     * Report memory and context switch statistics, and stop the subscriptions.
+     * @throws IOException if an I/O error occurs reading process statistics.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        var contextSwitches = readContextSwitches() - startContextSwitches;
+        executor.shutdownNow();
+
+        if (Files.isDirectory(PROC_SELF)) {
+            System.out.printf("%nResident memory per subscription: %.1f KiB%n", (double) subscriptionBytes / BYTES_PER_KIB / subscriptions);
+            System.out.printf("Context switches per operation: %.1f%n", (double) contextSwitches / Math.max(operationCount, 1));
+        }
+    }
+
+    /**
+     * Resident set size of the process, or zero if not available.
+     */
+    private static long readResidentBytes() {
+        return readStatusValue(PROC_SELF.resolve("status"), "VmRSS:") * BYTES_PER_KIB;
+    }
+
+    /**
+     * Voluntary and involuntary context switches of all live threads in the process, or zero if not available.
+     */
+    private static long readContextSwitches() throws IOException {
+        var tasks = PROC_SELF.resolve("task");
+        if (!Files.isDirectory(tasks)) {
+            return 0;
+        }
+
+        var total = 0L;
+        try (var taskDirs = Files.newDirectoryStream(tasks)) {
+            for (var taskDir : taskDirs) {
+                var status = taskDir.resolve("status");
+                total += readStatusValue(status, "voluntary_ctxt_switches:") + readStatusValue(status, "nonvoluntary_ctxt_switches:");
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Numeric value of a field in a process or thread status file, or zero if not available, such as when the thread
+     * has exited.
+     */
+    private static long readStatusValue(final Path status, final String field) {
+        try {
+            for (var line : Files.readAllLines(status)) {
+                if (line.startsWith(field)) {
+                    return Long.parseLong(line.substring(field.length()).trim().split("\\s+")[0]);
+                }
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.gson.Gson;
+import com.google.protobuf.ByteString;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding writes as {@code store.log} JSON lines with {@link WriteJsonEncoder} against serializing them with
+ * Gson after decoding each value to a String, as the log store did previously. {@code WriteJsonEncoderTest} checks
+ * that both produce identical bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WriteEncodingBenchmark {
+    private static final Gson GSON = new Gson();
+    private static final int WRITE_COUNT = 100;
+
+    @Param({"streaming", "gson"})
+    private String encoder;
+
+    @Param({"512"})
+    private int valueSize;
+
+    private final List<Write> writes = new ArrayList<>();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    /**
+     * Create the writes to be encoded.
+     */
+    @Setup
+    public void setup() {
+        var value = ByteString.copyFromUtf8("{\"ID\":\"asset\",\"Owner\":\"" + "x".repeat(valueSize) + "\"}");
+        for (int i = 0; i < WRITE_COUNT; i++) {
+            writes.add(newWrite(String.format("asset%09d", i), value, false));
+        }
+    }
+
+    private static Write newWrite(final String key, final ByteString value, final boolean isDelete) {
+        var write = KVWrite.newBuilder()
+                .setKey(key)
+                .setValue(value)
+                .setIsDelete(isDelete)
+                .build();
+        return new Write("mychannel", "basic", write);
+    }
+
+    /**
+     * Encode a batch of writes as JSON lines.
+     * @return Encoded size in bytes.
+     * @throws IOException if an I/O error occurs.
+     */
+    @Benchmark
+    public int encodeWrites() throws IOException {
+        out.reset();
+        if ("gson".equals(encoder)) {
+            var writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            for (var write : writes) {
+                GSON.toJson(new StringValueWrite(write), writer);
+                writer.write('\n');
+            }
+            writer.flush();
+        } else {
+            for (var write : writes) {
+                WriteJsonEncoder.encodeLine(write, out);
+            }
+        }
+        return out.size();
+    }
+
+    /**
+     * Previous form of {@link Write}, whose value was decoded to a String and serialized by Gson using reflection.
+     */
+    @SuppressWarnings("unused") // Fields are read by Gson
+    private static final class StringValueWrite {
+        private final String channelName;
+        private final String namespace;
+        private final String key;
+        private final boolean isDelete;
+        private final String value;
+
+        StringValueWrite(final Write write) {
+            this.channelName = write.getChannelName();
+            this.namespace = write.getNamespace();
+            this.key = write.getKey();
+            this.isDelete = write.isDelete();
+            this.value = write.getValueBytes().toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package parser;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Measures the overhead of the lazy caching used by the parser for decoded protobuf messages. The {@link Lazy} holder
+ * is compared with the previous approach of {@link AtomicReference#updateAndGet} with a per-call initializer lambda,
+ * and with a plain read of a reference as a baseline. Cache hits are measured both from a single thread and from
+ * several threads sharing one cache, as happens when transactions are decoded in parallel. A cache miss is compared
+ * with decoding the message directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CachedProtoBenchmark {
+    private static final int SHARED_THREADS = 4;
+
+    /**
+     * Serialized message and caches already holding its decoded value.
+     */
+    @State(Scope.Benchmark)
+    public static class Cache {
+        private ByteString bytes;
+        private AtomicReference<ChannelHeader> atomicReference;
+        private Lazy<ChannelHeader> lazy;
+
+        /**
+         * Create the message and populate the caches.
+         * @throws InvalidProtocolBufferException if the message is invalid.
+         */
+        @Setup
+        public void setup() throws InvalidProtocolBufferException {
+            bytes = ChannelHeader.newBuilder()
+                    .setChannelId("mychannel")
+                    .setTxId("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef")
+                    .build()
+                    .toByteString();
+            atomicReference = new AtomicReference<>(ChannelHeader.parseFrom(bytes));
+            lazy = new Lazy<>(() -> ChannelHeader.parseFrom(bytes));
+            lazy.get();
+        }
+
+        ByteString getBytes() {
+            return bytes;
+        }
+
+        AtomicReference<ChannelHeader> getAtomicReference() {
+            return atomicReference;
+        }
+
+        Lazy<ChannelHeader> getLazy() {
+            return lazy;
+        }
+    }
+
+    /**
+     * Per-thread copy of {@link Cache}, so that threads do not share a cache.
+     */
+    @State(Scope.Thread)
+    public static class ThreadCache extends Cache {
+    }
+
+    /**
+     * Previous parser caching logic, retained for comparison.
+     */
+    private static <T> T updateAndGet(final AtomicReference<T> cache, final Lazy.ProtoCall<T> call)
+            throws InvalidProtocolBufferException {
+        try {
+            return cache.updateAndGet(current -> {
+                if (current != null) {
+                    return current;
+                }
+                try {
+                    return call.call();
+                } catch (InvalidProtocolBufferException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (CompletionException e) {
+            throw (InvalidProtocolBufferException) e.getCause();
+        }
+    }
+
+    /**
+     * Read a populated reference without any caching logic, as a baseline.
+     * @param cache Cache state.
+     * @return Cached value.
+     */
+    @Benchmark
+    public ChannelHeader plainGet(final ThreadCache cache) {
+        return cache.getAtomicReference().get();
+    }
+
+    /**
+     * Read a populated cache using {@link AtomicReference#updateAndGet}.
+     * @param cache Cache state.
+     * @return Cached value.
+     * @throws InvalidProtocolBufferException if the message is invalid.
+     */
+    @Benchmark
+    public ChannelHeader atomicReferenceHit(final ThreadCache cache) throws InvalidProtocolBufferException {
+        return updateAndGet(cache.getAtomicReference(), () -> ChannelHeader.parseFrom(cache.getBytes()));
+    }
+
+    /**
+     * Read a populated cache shared by several threads using {@link AtomicReference#updateAndGet}.
+     * @param cache Cache state.
+     * @return Cached value.
+     * @throws InvalidProtocolBufferException if the message is invalid.
+     */
+    @Benchmark
+    @Threads(SHARED_THREADS)
+    public ChannelHeader atomicReferenceHitShared(final Cache cache) throws InvalidProtocolBufferException {
+        return updateAndGet(cache.getAtomicReference(), () -> ChannelHeader.parseFrom(cache.getBytes()));
+    }
+
+    /**
+     * Populate an empty cache using {@link AtomicReference#updateAndGet}.
+     * @param cache Cache state.
+     * @return Decoded value.
+     * @throws InvalidProtocolBufferException if the message is invalid.
+     */
+    @Benchmark
+    public ChannelHeader atomicReferenceMiss(final ThreadCache cache) throws InvalidProtocolBufferException {
+        return updateAndGet(new AtomicReference<>(), () -> ChannelHeader.parseFrom(cache.getBytes()));
+    }
+
+    /**
+     * Read a populated {@link Lazy} holder.
+     * @param cache Cache state.
+     * @return Cached value.
+     * @throws InvalidProtocolBufferException if the message is invalid.
+     */
+    @Benchmark
+    public ChannelHeader lazyHit(final ThreadCache cache) throws InvalidProtocolBufferException {
+        return cache.getLazy().get();
+    }
+
+    /**
+     * Read a populated {@link Lazy} holder shared by several threads.
+     * @param cache Cache state.
+     * @return Cached value.
+     * @throws InvalidProtocolBufferException if the message is invalid.
+     */
+    @Benchmark
+    @Threads(SHARED_THREADS)
+    public ChannelHeader lazyHitShared(final Cache cache) throws InvalidProtocolBufferException {
+        return cache.getLazy().get();
+    }
+
+    /**
+     * Create and populate a {@link Lazy} holder.
+     * @param cache Cache state.
+     * @return Decoded value.
+     * @throws InvalidProtocolBufferException if the message is invalid.
+     */
+    @Benchmark
+    public ChannelHeader lazyMiss(final ThreadCache cache) throws InvalidProtocolBufferException {
+        var bytes = cache.getBytes();
+        return new Lazy<>(() -> ChannelHeader.parseFrom(bytes)).get();
+    }
+
+    /**
+     * Decode the message directly, without caching.
+     * @param cache Cache state.
+     * @return Decoded value.
+     * @throws InvalidProtocolBufferException if the message is invalid.
+     */
+    @Benchmark
+    public ChannelHeader directParse(final ThreadCache cache) throws InvalidProtocolBufferException {
+        return ChannelHeader.parseFrom(cache.getBytes());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package parser;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares sequential and parallel decoding of all transactions and read/write sets within blocks of varying size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelDecodeBenchmark {
+    @Param({"10", "100", "500", "2000"})
+    private int transactionCount;
+
+    @Param({"4"})
+    private int writesPerTransaction;
+
+    @Param({"512"})
+    private int valueSize;
+
+    private org.hyperledger.fabric.protos.common.Block block;
+    private ParserOptions parallelOptions;
+
+    /**
+     * Create the block to be decoded.
+     */
+    @Setup
+    public void setup() {
+        block = SyntheticBlocks.newBlock(1, transactionCount, writesPerTransaction, valueSize);
+        parallelOptions = ParserOptions.newBuilder()
+                .parallelDecode(ForkJoinPool.commonPool())
+                .build();
+    }
+
+    /**
+     * Decode on the calling thread.
+     * @return Number of writes decoded.
+     * @throws InvalidProtocolBufferException if the block is invalid.
+     */
+    @Benchmark
+    public int sequential() throws InvalidProtocolBufferException {
+        return decodeAll(BlockParser.parseBlock(block));
+    }
+
+    /**
+     * Decode on the common fork/join pool.
+     * @return Number of writes decoded.
+     * @throws InvalidProtocolBufferException if the block is invalid.
+     */
+    @Benchmark
+    public int parallel() throws InvalidProtocolBufferException {
+        return decodeAll(BlockParser.parseBlock(block, parallelOptions));
+    }
+
+    private static int decodeAll(final Block parsedBlock) throws InvalidProtocolBufferException {
+        int writeCount = 0;
+        for (var transaction : parsedBlock.getTransactions()) {
+            transaction.getChannelHeader();
+            for (var readWriteSet : transaction.getNamespaceReadWriteSets()) {
+                writeCount += readWriteSet.getReadWriteSet().getWritesCount();
+            }
+        }
+
+        return writeCount;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package parser;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of decoding synthetic blocks through each level of the parser: {@link ParsedBlock} decoding
+ * its envelopes into {@link ParsedTransaction} instances, {@link ParsedTransactionAction} decoding the chaincode
+ * actions, and {@link ParsedReadWriteSet} decoding the writes for each namespace. Each operation decodes one block, so
+ * the allocation rate per block is reported as {@code gc.alloc.rate.norm} by the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParserBenchmark {
+    @Param({"10", "500"})
+    private int transactionCount;
+
+    @Param({"1", "4"})
+    private int namespaceCount;
+
+    @Param({"4", "16"})
+    private int writesPerTransaction;
+
+    @Param({"64", "4096"})
+    private int valueSize;
+
+    private org.hyperledger.fabric.protos.common.Block block;
+    private ParserOptions filteredOptions;
+
+    /**
+     * Create the block to be decoded.
+     */
+    @Setup
+    public void setup() {
+        block = SyntheticBlocks.newBlock(1, transactionCount, namespaceCount, writesPerTransaction, valueSize);
+        filteredOptions = ParserOptions.newBuilder()
+                .filter(ReadWriteSetFilter.newBuilder()
+                        .includeNamespaces(List.of(SyntheticBlocks.namespace(0)))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Decode only the channel header of each transaction, as when searching a block for a transaction ID.
+     * @param blackhole Consumes decoded values.
+     * @throws InvalidProtocolBufferException if the block is invalid.
+     */
+    @Benchmark
+    public void channelHeaders(final Blackhole blackhole) throws InvalidProtocolBufferException {
+        for (var transaction : BlockParser.parseBlock(block).getTransactions()) {
+            blackhole.consume(transaction.getChannelHeader().getTxId());
+        }
+    }
+
+    /**
+     * Decode every transaction down to its individual writes.
+     * @param blackhole Consumes decoded values.
+     * @throws InvalidProtocolBufferException if the block is invalid.
+     */
+    @Benchmark
+    public void allWrites(final Blackhole blackhole) throws InvalidProtocolBufferException {
+        decodeWrites(BlockParser.parseBlock(block), blackhole);
+    }
+
+    /**
+     * Decode every transaction down to its individual writes, with a filter that includes only the first namespace.
+     * @param blackhole Consumes decoded values.
+     * @throws InvalidProtocolBufferException if the block is invalid.
+     */
+    @Benchmark
+    public void filteredWrites(final Blackhole blackhole) throws InvalidProtocolBufferException {
+        decodeWrites(BlockParser.parseBlock(block, filteredOptions), blackhole);
+    }
+
+    private static void decodeWrites(final Block parsedBlock, final Blackhole blackhole) throws InvalidProtocolBufferException {
+        for (var transaction : parsedBlock.getTransactions()) {
+            blackhole.consume(transaction.getChannelHeader().getTxId());
+            for (var readWriteSet : transaction.getNamespaceReadWriteSets()) {
+                for (var write : readWriteSet.getReadWriteSet().getWritesList()) {
+                    blackhole.consume(write.getKey());
+                    blackhole.consume(write.getValue());
+                }
+            }
+        }
+    }
+}
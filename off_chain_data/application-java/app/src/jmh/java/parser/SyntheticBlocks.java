@@ -0,0 +1,158 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package parser;
+
+import com.google.protobuf.ByteString;
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockData;
+import org.hyperledger.fabric.protos.common.BlockHeader;
+import org.hyperledger.fabric.protos.common.BlockMetadata;
+import org.hyperledger.fabric.protos.common.BlockMetadataIndex;
+import org.hyperledger.fabric.protos.common.ChannelHeader;
+import org.hyperledger.fabric.protos.common.Envelope;
+import org.hyperledger.fabric.protos.common.Header;
+import org.hyperledger.fabric.protos.common.HeaderType;
+import org.hyperledger.fabric.protos.common.Payload;
+import org.hyperledger.fabric.protos.ledger.rwset.NsReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.TxReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVRWSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+import org.hyperledger.fabric.protos.peer.ChaincodeAction;
+import org.hyperledger.fabric.protos.peer.ChaincodeActionPayload;
+import org.hyperledger.fabric.protos.peer.ChaincodeEndorsedAction;
+import org.hyperledger.fabric.protos.peer.ProposalResponsePayload;
+import org.hyperledger.fabric.protos.peer.TransactionAction;
+import org.hyperledger.fabric.protos.peer.TxValidationCode;
+
+import java.util.Arrays;
+
+/**
+ * Generates synthetic blocks of endorser transactions, with the same protobuf structure as blocks delivered by a peer,
+ * for use in benchmarks.
+ */
+public final class SyntheticBlocks {
+    private static final String CHANNEL_NAME = "mychannel";
+    private static final String NAMESPACE = "basic";
+
+    /**
+     * Create a block containing valid endorser transactions, each writing a number of keys in a single namespace.
+     * @param blockNumber Block number.
+     * @param transactionCount Number of transactions in the block.
+     * @param writesPerTransaction Number of keys written by each transaction.
+     * @param valueSize Size in bytes of each written value.
+     * @return A block.
+     */
+    public static Block newBlock(final long blockNumber, final int transactionCount, final int writesPerTransaction, final int valueSize) {
+        return newBlock(blockNumber, transactionCount, 1, writesPerTransaction, valueSize);
+    }
+
+    /**
+     * Create a block containing valid endorser transactions, each writing a number of keys spread in turn across a
+     * number of namespaces.
+     * @param blockNumber Block number.
+     * @param transactionCount Number of transactions in the block.
+     * @param namespaceCount Number of namespaces written by each transaction.
+     * @param writesPerTransaction Number of keys written by each transaction.
+     * @param valueSize Size in bytes of each written value.
+     * @return A block.
+     */
+    public static Block newBlock(final long blockNumber, final int transactionCount, final int namespaceCount,
+                                 final int writesPerTransaction, final int valueSize) {
+        var data = BlockData.newBuilder();
+        for (int i = 0; i < transactionCount; i++) {
+            var transactionId = String.format("%016x%08x", blockNumber, i);
+            data.addData(newEnvelope(transactionId, namespaceCount, writesPerTransaction, valueSize).toByteString());
+        }
+
+        return Block.newBuilder()
+                .setHeader(BlockHeader.newBuilder().setNumber(blockNumber))
+                .setData(data)
+                .setMetadata(newMetadata(transactionCount))
+                .build();
+    }
+
+    /**
+     * Name of a namespace written by synthetic transactions.
+     * @param index Namespace index, from zero.
+     * @return A chaincode name.
+     */
+    public static String namespace(final int index) {
+        return index == 0 ? NAMESPACE : NAMESPACE + index;
+    }
+
+    private static Envelope newEnvelope(final String transactionId, final int namespaceCount, final int writeCount,
+                                        final int valueSize) {
+        var channelHeader = ChannelHeader.newBuilder()
+                .setType(HeaderType.ENDORSER_TRANSACTION_VALUE)
+                .setChannelId(CHANNEL_NAME)
+                .setTxId(transactionId)
+                .build();
+        var payload = Payload.newBuilder()
+                .setHeader(Header.newBuilder().setChannelHeader(channelHeader.toByteString()))
+                .setData(newTransaction(transactionId, namespaceCount, writeCount, valueSize).toByteString())
+                .build();
+
+        return Envelope.newBuilder()
+                .setPayload(payload.toByteString())
+                .build();
+    }
+
+    private static org.hyperledger.fabric.protos.peer.Transaction newTransaction(final String transactionId, final int namespaceCount,
+                                                                                 final int writeCount, final int valueSize) {
+        var kvReadWriteSets = new KVRWSet.Builder[namespaceCount];
+        for (int i = 0; i < namespaceCount; i++) {
+            kvReadWriteSets[i] = KVRWSet.newBuilder();
+        }
+        for (int i = 0; i < writeCount; i++) {
+            kvReadWriteSets[i % namespaceCount].addWrites(KVWrite.newBuilder()
+                    .setKey(transactionId + "-" + i)
+                    .setValue(newValue(valueSize)));
+        }
+
+        var readWriteSet = TxReadWriteSet.newBuilder()
+                .setDataModel(TxReadWriteSet.DataModel.KV);
+        for (int i = 0; i < namespaceCount; i++) {
+            readWriteSet.addNsRwset(NsReadWriteSet.newBuilder()
+                    .setNamespace(namespace(i))
+                    .setRwset(kvReadWriteSets[i].build().toByteString()));
+        }
+
+        var chaincodeAction = ChaincodeAction.newBuilder()
+                .setResults(readWriteSet.build().toByteString())
+                .build();
+        var proposalResponsePayload = ProposalResponsePayload.newBuilder()
+                .setExtension(chaincodeAction.toByteString())
+                .build();
+        var chaincodeActionPayload = ChaincodeActionPayload.newBuilder()
+                .setAction(ChaincodeEndorsedAction.newBuilder().setProposalResponsePayload(proposalResponsePayload.toByteString()))
+                .build();
+
+        return org.hyperledger.fabric.protos.peer.Transaction.newBuilder()
+                .addActions(TransactionAction.newBuilder().setPayload(chaincodeActionPayload.toByteString()))
+                .build();
+    }
+
+    private static ByteString newValue(final int size) {
+        var value = new byte[size];
+        Arrays.fill(value, (byte) 'x');
+        return ByteString.copyFrom(value);
+    }
+
+    private static BlockMetadata newMetadata(final int transactionCount) {
+        var validationCodes = new byte[transactionCount];
+        Arrays.fill(validationCodes, (byte) TxValidationCode.VALID.getNumber());
+
+        var metadata = BlockMetadata.newBuilder();
+        for (var index : BlockMetadataIndex.values()) {
+            metadata.addMetadata(index == BlockMetadataIndex.TRANSACTIONS_FILTER ? ByteString.copyFrom(validationCodes) : ByteString.EMPTY);
+        }
+
+        return metadata.build();
+    }
+
+    private SyntheticBlocks() { }
+}
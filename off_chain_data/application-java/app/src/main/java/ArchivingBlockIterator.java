@@ -0,0 +1,71 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import blockarchive.BlockArchiveWriter;
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.protos.common.Block;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Block iterator that appends every block obtained from an underlying iterator to a block archive, as it is received
+ * and before it is processed. Only blocks from a process start block onwards are returned, so blocks that were
+ * processed before they could be archived can be received again to fill in the archive without being processed twice.
+ */
+public final class ArchivingBlockIterator implements CloseableIterator<Block> {
+    private final CloseableIterator<Block> blocks;
+    private final BlockArchiveWriter writer;
+    private final long processStartBlock;
+    private Block next;
+
+    /**
+     * Create an archiving iterator.
+     * @param blocks Underlying blocks.
+     * @param writer Archive to which all blocks are appended.
+     * @param processStartBlock Number of the first block to return.
+     */
+    public ArchivingBlockIterator(final CloseableIterator<Block> blocks, final BlockArchiveWriter writer, final long processStartBlock) {
+        this.blocks = blocks;
+        this.writer = writer;
+        this.processStartBlock = processStartBlock;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && blocks.hasNext()) {
+            var block = blocks.next();
+            try {
+                writer.append(block);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            if (block.getHeader().getNumber() >= processStartBlock) {
+                next = block;
+            }
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public Block next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        var result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() {
+        blocks.close();
+    }
+}
@@ -9,6 +9,8 @@ import org.hyperledger.fabric.client.CommitException;
 import org.hyperledger.fabric.client.CommitStatusException;
 import org.hyperledger.fabric.client.Contract;
 import org.hyperledger.fabric.client.EndorseException;
+import org.hyperledger.fabric.client.GatewayException;
+import org.hyperledger.fabric.client.Proposal;
 import org.hyperledger.fabric.client.SubmitException;
 
 import java.nio.charset.StandardCharsets;
@@ -23,23 +25,67 @@ public final class AssetTransferBasic {
     }
 
     public void createAsset(final Asset asset) throws EndorseException, CommitException, SubmitException, CommitStatusException {
-        contract.submitTransaction(
-                "CreateAsset",
-                asset.getId(),
-                asset.getColor(),
-                Integer.toString(asset.getSize()),
-                asset.getOwner(),
-                Integer.toString(asset.getAppraisedValue())
-        );
+        newCreateAssetProposal(asset).endorse().submit();
     }
 
     public String transferAsset(final String id, final String newOwner) throws EndorseException, CommitException, SubmitException, CommitStatusException {
-        var resultBytes = contract.submitTransaction("TransferAsset", id, newOwner);
+        var resultBytes = newTransferAssetProposal(id, newOwner).endorse().submit();
         return new String(resultBytes, StandardCharsets.UTF_8);
     }
 
     public void deleteAsset(final String id) throws EndorseException, CommitException, SubmitException, CommitStatusException {
-        contract.submitTransaction("DeleteAsset", id);
+        newDeleteAssetProposal(id).endorse().submit();
+    }
+
+    /**
+     * Proposal to create an asset, allowing the endorse, submit and commit status steps to be performed separately.
+     * @param asset Asset to create.
+     * @return A transaction proposal.
+     */
+    public Proposal newCreateAssetProposal(final Asset asset) {
+        return contract.newProposal("CreateAsset")
+                .addArguments(
+                        asset.getId(),
+                        asset.getColor(),
+                        Integer.toString(asset.getSize()),
+                        asset.getOwner(),
+                        Integer.toString(asset.getAppraisedValue())
+                )
+                .build();
+    }
+
+    /**
+     * Proposal to transfer an asset to a new owner. The transaction result is the previous owner.
+     * @param id Asset ID.
+     * @param newOwner New owner.
+     * @return A transaction proposal.
+     */
+    public Proposal newTransferAssetProposal(final String id, final String newOwner) {
+        return contract.newProposal("TransferAsset")
+                .addArguments(id, newOwner)
+                .build();
+    }
+
+    /**
+     * Proposal to delete an asset.
+     * @param id Asset ID.
+     * @return A transaction proposal.
+     */
+    public Proposal newDeleteAssetProposal(final String id) {
+        return contract.newProposal("DeleteAsset")
+                .addArguments(id)
+                .build();
+    }
+
+    /**
+     * Evaluate a query for an asset, without submitting a transaction.
+     * @param id Asset ID.
+     * @return The asset.
+     * @throws GatewayException if the evaluation fails, including if the asset does not exist.
+     */
+    public Asset readAsset(final String id) throws GatewayException {
+        var resultBytes = contract.evaluateTransaction("ReadAsset", id);
+        return GSON.fromJson(new String(resultBytes, StandardCharsets.UTF_8), Asset.class);
     }
 
     public List<Asset> getAllAssets() throws EndorseException, CommitException, SubmitException, CommitStatusException {
@@ -0,0 +1,195 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.hyperledger.fabric.client.ChaincodeEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkpointer that holds the current position in memory and persists it to a file only periodically, after a number
+ * of blocks have been checkpointed or a time interval has elapsed. The file is replaced atomically by writing and
+ * syncing a temporary file and then renaming it, so a crash never leaves a partially written checkpoint. The file
+ * format is the same as {@link org.hyperledger.fabric.client.FileCheckpointer}, with the addition of the index of the
+ * last processed transaction within its block.
+ * <p>Positions are only ever persisted after they have been passed to this checkpointer, and this checkpointer should
+ * only be passed a position once the corresponding writes have been committed to the off-chain store. The persisted
+ * position can therefore lag behind the store, causing some transactions to be processed again on restart, but can
+ * never get ahead of it.</p>
+ */
+public final class BatchingCheckpointer implements IndexedCheckpointer, AutoCloseable {
+    private static final String BLOCK_NUMBER_KEY = "blockNumber";
+    private static final String TRANSACTION_ID_KEY = "transactionId";
+    private static final String TRANSACTION_INDEX_KEY = "transactionIndex";
+
+    private final Path file;
+    private final Path tempFile;
+    private final int flushBlockCount;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Threads.newThreadFactory("checkpoint-flush"));
+
+    private OptionalLong blockNumber = OptionalLong.empty();
+    private Optional<String> transactionId = Optional.empty();
+    private OptionalInt transactionIndex = OptionalInt.empty();
+    private boolean isDirty;
+    private int unflushedBlockCount;
+    private IOException backgroundFailure;
+
+    /**
+     * Create a checkpointer, loading any existing checkpoint state from the file.
+     * @param file Checkpoint file.
+     * @param flushBlockCount Number of checkpointed blocks after which the position is persisted. Zero persists only
+     *                        on the time interval.
+     * @param flushInterval Maximum time for which a checkpointed position is not persisted.
+     * @throws IOException if an I/O error occurs reading the checkpoint file.
+     */
+    public BatchingCheckpointer(final Path file, final int flushBlockCount, final Duration flushInterval) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.tempFile = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        this.flushBlockCount = flushBlockCount;
+
+        load();
+
+        var intervalMillis = Math.max(flushInterval.toMillis(), 1);
+        scheduler.scheduleWithFixedDelay(this::flushInBackground, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        var json = JsonParser.parseString(Files.readString(file)).getAsJsonObject();
+        if (json.has(BLOCK_NUMBER_KEY)) {
+            blockNumber = OptionalLong.of(json.get(BLOCK_NUMBER_KEY).getAsLong());
+        }
+        if (json.has(TRANSACTION_ID_KEY)) {
+            transactionId = Optional.of(json.get(TRANSACTION_ID_KEY).getAsString());
+        }
+        if (json.has(TRANSACTION_INDEX_KEY)) {
+            transactionIndex = OptionalInt.of(json.get(TRANSACTION_INDEX_KEY).getAsInt());
+        }
+    }
+
+    @Override
+    public synchronized void checkpointBlock(final long blockNumber) throws IOException {
+        update(blockNumber + 1, Optional.empty(), OptionalInt.empty());
+
+        unflushedBlockCount++;
+        if (flushBlockCount > 0 && unflushedBlockCount >= flushBlockCount) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void checkpointTransaction(final long blockNumber, final String transactionId) throws IOException {
+        update(blockNumber, Optional.of(transactionId), OptionalInt.empty());
+    }
+
+    @Override
+    public synchronized void checkpointTransaction(final long blockNumber, final int transactionIndex, final String transactionId)
+            throws IOException {
+        update(blockNumber, Optional.of(transactionId), OptionalInt.of(transactionIndex));
+    }
+
+    @Override
+    public void checkpointChaincodeEvent(final ChaincodeEvent event) throws IOException {
+        checkpointTransaction(event.getBlockNumber(), event.getTransactionId());
+    }
+
+    private void update(final long newBlockNumber, final Optional<String> newTransactionId, final OptionalInt newTransactionIndex)
+            throws IOException {
+        if (backgroundFailure != null) {
+            throw new IOException("Background checkpoint flush failed", backgroundFailure);
+        }
+
+        blockNumber = OptionalLong.of(newBlockNumber);
+        transactionId = newTransactionId;
+        transactionIndex = newTransactionIndex;
+        isDirty = true;
+    }
+
+    @Override
+    public synchronized OptionalLong getBlockNumber() {
+        return blockNumber;
+    }
+
+    @Override
+    public synchronized Optional<String> getTransactionId() {
+        return transactionId;
+    }
+
+    @Override
+    public synchronized OptionalInt getTransactionIndex() {
+        return transactionIndex;
+    }
+
+    /**
+     * Persist the current position, if it has changed since it was last persisted.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void flush() throws IOException {
+        if (!isDirty) {
+            return;
+        }
+
+        var json = new JsonObject();
+        blockNumber.ifPresent(value -> json.addProperty(BLOCK_NUMBER_KEY, value));
+        transactionId.ifPresent(value -> json.addProperty(TRANSACTION_ID_KEY, value));
+        transactionIndex.ifPresent(value -> json.addProperty(TRANSACTION_INDEX_KEY, value));
+
+        try (var channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var data = ByteBuffer.wrap(json.toString().getBytes(StandardCharsets.UTF_8));
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        }
+
+        Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+
+        isDirty = false;
+        unflushedBlockCount = 0;
+    }
+
+    private void syncDirectory() {
+        try (var directory = FileChannel.open(file.getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // Not all platforms allow directories to be synced; the rename is still atomic.
+        }
+    }
+
+    private synchronized void flushInBackground() {
+        try {
+            flush();
+        } catch (IOException e) {
+            backgroundFailure = e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        flush();
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import parser.Block;
+import parser.BlockParser;
+import parser.ParserOptions;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Staged block processing: blocks are fetched from the event stream on the calling thread, parsed concurrently on a
+ * pool of worker threads, and applied on a single thread in strict block order. Parsing of subsequent blocks overlaps
+ * with applying the current block, while checkpoints still only ever advance in block order.
+ * <p>Memory use is bounded by both the number and the total serialized size of blocks received but not yet applied.
+ * When either limit is reached, blocks are no longer pulled from the event stream until the apply stage catches up,
+ * and the pipeline statistics report how far the applied block lags behind the latest received block. The statistics
+ * are published through {@link ListenerMetrics} by passing {@link #getStats()} to it.</p>
+ */
+public final class BlockPipeline implements AutoCloseable {
+    private static final Future<Block> END_OF_BLOCKS = CompletableFuture.completedFuture(null);
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final long PAUSE_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final ExecutorService parseExecutor;
+    private final BlockingQueue<Future<Block>> applyQueue;
+    private final ParserOptions parserOptions;
+    private final Consumer<Block> applier;
+    private final InFlightLimit inFlight;
+    private final PipelineStats stats = new PipelineStats();
+    private volatile Throwable failure;
+
+    /**
+     * Create a pipeline.
+     * @param parseThreads Number of worker threads used to parse blocks.
+     * @param queueSize Maximum number of blocks waiting to be applied, including those still being parsed.
+     * @param maxInFlightBytes Maximum total serialized size of blocks received but not yet applied. Zero places no limit
+     *                         other than the queue size.
+     * @param parserOptions Options used to parse blocks.
+     * @param applier Applies each parsed block, in block order.
+     */
+    public BlockPipeline(final int parseThreads, final int queueSize, final long maxInFlightBytes, final ParserOptions parserOptions,
+                         final Consumer<Block> applier) {
+        this.parseExecutor = Executors.newFixedThreadPool(parseThreads, Threads.newPlatformThreadFactory("block-parser-", true));
+        this.applyQueue = new ArrayBlockingQueue<>(queueSize);
+        this.parserOptions = parserOptions;
+        this.applier = applier;
+        this.inFlight = new InFlightLimit(maxInFlightBytes);
+    }
+
+    /**
+     * Process all blocks from an event stream, returning when the stream ends or throwing if any block fails to be
+     * parsed or applied.
+     * @param blocks Block events.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public void run(final Iterator<org.hyperledger.fabric.protos.common.Block> blocks) throws InterruptedException {
+        var applyThread = Threads.newThreadFactory("block-applier").newThread(this::applyBlocks);
+        applyThread.start();
+
+        try {
+            long fetchStart = System.nanoTime();
+            while (blocks.hasNext()) {
+                var blockProto = blocks.next();
+                stats.recordFetch(blockProto.getHeader().getNumber(), System.nanoTime() - fetchStart);
+
+                acquireInFlight(blockProto.getSerializedSize());
+                enqueue(parseExecutor.submit(() -> parse(blockProto)));
+                fetchStart = System.nanoTime();
+            }
+
+            enqueue(END_OF_BLOCKS);
+            applyThread.join();
+        } finally {
+            applyThread.interrupt();
+        }
+
+        rethrowFailure();
+    }
+
+    /**
+     * Statistics for the pipeline stages.
+     * @return Pipeline statistics.
+     */
+    public PipelineStats getStats() {
+        return stats;
+    }
+
+    private Block parse(final org.hyperledger.fabric.protos.common.Block blockProto) {
+        var start = System.nanoTime();
+        var block = decode(blockProto, parserOptions);
+        stats.recordParse(System.nanoTime() - start);
+        return block;
+    }
+
+    /**
+     * Parse a block and decode everything needed to apply it, so that applying it only does store and checkpoint work.
+     * @param blockProto A received block.
+     * @param parserOptions Options used to parse the block.
+     * @return A fully decoded block.
+     */
+    static Block decode(final org.hyperledger.fabric.protos.common.Block blockProto, final ParserOptions parserOptions) {
+        var block = BlockParser.parseBlock(blockProto, parserOptions);
+
+        try {
+            for (var transaction : block.getTransactions()) {
+                transaction.getChannelHeader();
+                if (!transaction.isValid()) {
+                    continue;
+                }
+
+                for (var readWriteSet : transaction.getNamespaceReadWriteSets()) {
+                    readWriteSet.getReadWriteSet();
+                }
+            }
+        } catch (InvalidProtocolBufferException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return block;
+    }
+
+    /**
+     * Wait until the block fits within the in-flight limit. While waiting, no more blocks are pulled from the event
+     * stream, so gRPC flow control stops the peer from sending more.
+     */
+    private void acquireInFlight(final long size) throws InterruptedException {
+        var pauseStart = System.nanoTime();
+        var lastReport = pauseStart;
+        var isPaused = false;
+        while (!inFlight.tryAcquire(size, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            rethrowFailure();
+            isPaused = true;
+            if (System.nanoTime() - lastReport >= PAUSE_REPORT_INTERVAL_NANOS) {
+                System.out.println("Paused receiving blocks until in-flight blocks are applied: " + stats);
+                lastReport = System.nanoTime();
+            }
+        }
+
+        if (isPaused) {
+            stats.recordPause(System.nanoTime() - pauseStart);
+        }
+        stats.recordInFlightBytes(inFlight.getBytes());
+    }
+
+    private void enqueue(final Future<Block> block) throws InterruptedException {
+        while (!applyQueue.offer(block, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            rethrowFailure();
+        }
+
+        stats.recordQueueDepth(applyQueue.size());
+        rethrowFailure();
+    }
+
+    private void applyBlocks() {
+        try {
+            while (true) {
+                var waitStart = System.nanoTime();
+                var future = applyQueue.take();
+                if (future == END_OF_BLOCKS) {
+                    return;
+                }
+
+                var block = future.get();
+                var applyStart = System.nanoTime();
+                applier.accept(block);
+                stats.recordApply(block.getNumber(), applyStart - waitStart, System.nanoTime() - applyStart);
+
+                inFlight.release(block.toProto().getSerializedSize());
+                stats.recordInFlightBytes(inFlight.getBytes());
+                stats.recordQueueDepth(applyQueue.size());
+            }
+        } catch (ExecutionException e) {
+            failure = e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+    }
+
+    private void rethrowFailure() {
+        var cause = failure;
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause != null) {
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        parseExecutor.shutdownNow();
+    }
+}
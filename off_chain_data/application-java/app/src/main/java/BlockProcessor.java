@@ -13,62 +13,132 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 public final class BlockProcessor {
     private final Block block;
     private final Checkpointer checkpointer;
     private final Store store;
+    private final HashedWriteStore hashedWriteStore;
+    private final ListenerMetrics metrics;
 
     public BlockProcessor(final Block block, final Checkpointer checkpointer, final Store store) {
+        this(block, checkpointer, store, null, new ListenerMetrics());
+    }
+
+    /**
+     * Create a block processor.
+     * @param block A block.
+     * @param checkpointer Checkpointer advanced as transactions and the block are processed.
+     * @param store Store for ledger writes.
+     * @param hashedWriteStore Store for private data collection writes, or {@code null} to ignore them.
+     * @param metrics Processing metrics.
+     */
+    public BlockProcessor(final Block block, final Checkpointer checkpointer, final Store store, final HashedWriteStore hashedWriteStore,
+                          final ListenerMetrics metrics) {
         this.block = block;
         this.checkpointer = checkpointer;
         this.store = store;
+        this.hashedWriteStore = hashedWriteStore;
+        this.metrics = metrics;
     }
 
     public void process() {
+        var startNanos = System.nanoTime();
         var blockNumber = block.getNumber();
-        System.out.println("\nReceived block " + Long.toUnsignedString(blockNumber));
 
         try {
-            var validTransactions = getNewTransactions().stream()
-                    .filter(Transaction::isValid)
-                    .collect(Collectors.toList());
+            var parseStartNanos = System.nanoTime();
+            var transactions = getNewTransactions();
+            metrics.recordParse(parseStartNanos);
 
-            for (var transaction : validTransactions) {
-                new TransactionProcessor(transaction, blockNumber, store).process();
+            for (var transaction : transactions) {
+                if (!transaction.isValid()) {
+                    continue;
+                }
 
-                var transactionId = transaction.getChannelHeader().getTxId();
-                checkpointer.checkpointTransaction(blockNumber, transactionId);
+                new TransactionProcessor(transaction, blockNumber, transaction.getIndex(), store, hashedWriteStore, metrics).process();
+                checkpointTransaction(blockNumber, transaction);
             }
 
+            var checkpointStartNanos = System.nanoTime();
             checkpointer.checkpointBlock(blockNumber);
+            metrics.recordCheckpoint(checkpointStartNanos);
+            metrics.recordFiltered(block.getFilterStats());
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
+
+        metrics.recordBlock(blockNumber, startNanos);
     }
 
-    private List<Transaction> getNewTransactions() throws InvalidProtocolBufferException {
-        var transactions = block.getTransactions();
+    private void checkpointTransaction(final long blockNumber, final Transaction transaction) throws IOException {
+        var transactionId = transaction.getChannelHeader().getTxId();
+        var startNanos = System.nanoTime();
+        if (checkpointer instanceof IndexedCheckpointer) {
+            ((IndexedCheckpointer) checkpointer).checkpointTransaction(blockNumber, transaction.getIndex(), transactionId);
+        } else {
+            checkpointer.checkpointTransaction(blockNumber, transactionId);
+        }
+        metrics.recordCheckpoint(startNanos);
+    }
 
+    private List<Transaction> getNewTransactions() throws InvalidProtocolBufferException {
         var lastTransactionId = checkpointer.getTransactionId();
         if (lastTransactionId.isEmpty()) {
             // No previously processed transactions within this block so all are new
-            return transactions;
+            return block.getTransactions();
         }
 
-        var transactionIds = new ArrayList<>();
-        for (var transaction : transactions) {
-            transactionIds.add(transaction.getChannelHeader().getTxId());
+        var transactions = getTransactionsFromCheckpointIndex(lastTransactionId.get());
+        if (transactions.isPresent()) {
+            return transactions.get();
         }
 
         // Ignore transactions up to the last processed transaction ID
-        var lastProcessedIndex = transactionIds.indexOf(lastTransactionId.get());
-        if (lastProcessedIndex < 0) {
-            throw new IllegalArgumentException("Checkpoint transaction ID " + lastTransactionId + " not found in block "
-                    + Long.toUnsignedString(block.getNumber()) + " containing transactions: " + transactionIds);
+        var allTransactions = block.getTransactions();
+        for (int i = 0; i < allTransactions.size(); i++) {
+            if (allTransactions.get(i).getChannelHeader().getTxId().equals(lastTransactionId.get())) {
+                return allTransactions.subList(i + 1, allTransactions.size());
+            }
+        }
+
+        var transactionIds = new ArrayList<String>();
+        for (var transaction : allTransactions) {
+            transactionIds.add(transaction.getChannelHeader().getTxId());
+        }
+        throw new IllegalArgumentException("Checkpoint transaction ID " + lastTransactionId + " not found in block "
+                + Long.toUnsignedString(block.getNumber()) + " containing transactions: " + transactionIds);
+    }
+
+    /**
+     * Jump directly to the checkpointed transaction index, decoding only the envelopes from that index onwards and only
+     * the channel header of the checkpointed transaction to verify its ID.
+     * @return Transactions following the checkpointed transaction, or empty if the checkpoint has no transaction index
+     * or the transaction at that index does not have the checkpointed ID.
+     */
+    private Optional<List<Transaction>> getTransactionsFromCheckpointIndex(final String lastTransactionId)
+            throws InvalidProtocolBufferException {
+        if (!(checkpointer instanceof IndexedCheckpointer)) {
+            return Optional.empty();
+        }
+
+        var lastTransactionIndex = ((IndexedCheckpointer) checkpointer).getTransactionIndex();
+        if (lastTransactionIndex.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var transactions = block.getTransactions(lastTransactionIndex.getAsInt());
+        if (transactions.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var lastTransaction = transactions.get(0);
+        if (lastTransaction.getIndex() != lastTransactionIndex.getAsInt()
+                || !lastTransaction.getChannelHeader().getTxId().equals(lastTransactionId)) {
+            return Optional.empty();
         }
 
-        return transactions.subList(lastProcessedIndex + 1, transactions.size());
+        return Optional.of(transactions.subList(1, transactions.size()));
     }
 }
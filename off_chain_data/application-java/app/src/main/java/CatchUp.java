@@ -0,0 +1,150 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.hyperledger.fabric.client.Network;
+import parser.Block;
+import parser.ParserOptions;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bulk processing of historical blocks, used when the checkpoint is far behind the head of the chain. The block range
+ * is split into fixed-size windows that are read concurrently, each using its own block events request starting at
+ * the first block of the window and closed once the last block of the window has been received. Each window's blocks
+ * are decoded on the thread reading that window, and all blocks are applied on the calling thread in strict block
+ * order.
+ * <p>Each window buffers a limited number of decoded blocks. A window that gets too far ahead of the block being
+ * applied stops reading from its event stream until the apply stage catches up, so memory use is bounded by the number
+ * of concurrent windows and the per-window buffer size.</p>
+ */
+public final class CatchUp implements AutoCloseable {
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final Network network;
+    private final int concurrency;
+    private final long windowBlocks;
+    private final int bufferSize;
+    private final ParserOptions parserOptions;
+    private final Consumer<Block> applier;
+    private final ExecutorService fetchExecutor;
+
+    /**
+     * Create a catch-up processor.
+     * @param network Network from which blocks are read.
+     * @param concurrency Number of windows read concurrently.
+     * @param windowBlocks Number of blocks in each window.
+     * @param bufferSize Maximum number of decoded blocks buffered for each window.
+     * @param parserOptions Options used to parse blocks.
+     * @param applier Applies each parsed block, in block order.
+     */
+    public CatchUp(final Network network, final int concurrency, final long windowBlocks, final int bufferSize,
+                   final ParserOptions parserOptions, final Consumer<Block> applier) {
+        this.network = network;
+        this.concurrency = concurrency;
+        this.windowBlocks = windowBlocks;
+        this.bufferSize = bufferSize;
+        this.parserOptions = parserOptions;
+        this.applier = applier;
+
+        this.fetchExecutor = Executors.newFixedThreadPool(concurrency, Threads.newNumberedThreadFactory("catch-up-reader-"));
+    }
+
+    /**
+     * Apply all blocks in a range, in block order, returning once the last block in the range has been applied.
+     * @param startBlock First block to apply.
+     * @param endBlock Block after the last block to apply.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public void run(final long startBlock, final long endBlock) throws InterruptedException {
+        var windows = new ArrayDeque<Window>();
+        var nextWindowStart = startBlock;
+
+        try {
+            while (nextWindowStart < endBlock || !windows.isEmpty()) {
+                while (windows.size() < concurrency && nextWindowStart < endBlock) {
+                    var window = new Window(nextWindowStart, Math.min(nextWindowStart + windowBlocks, endBlock));
+                    window.task = fetchExecutor.submit(() -> read(window));
+                    windows.add(window);
+                    nextWindowStart = window.end;
+                }
+
+                var window = windows.remove();
+                for (var blockNumber = window.start; blockNumber < window.end; blockNumber++) {
+                    applier.accept(window.take());
+                }
+                System.out.println("Caught up to block " + Long.toUnsignedString(window.end - 1) + " of "
+                        + Long.toUnsignedString(endBlock - 1));
+            }
+        } finally {
+            windows.forEach(window -> window.task.cancel(true));
+        }
+    }
+
+    private void read(final Window window) {
+        try (var blocks = network.newBlockEventsRequest()
+                .startBlock(window.start)
+                .build()
+                .getEvents()) {
+            for (var blockNumber = window.start; blockNumber < window.end; blockNumber++) {
+                var block = BlockPipeline.decode(blocks.next(), parserOptions);
+                if (block.getNumber() != blockNumber) {
+                    throw new IllegalStateException("Expected block " + Long.toUnsignedString(blockNumber) + " but received block "
+                            + Long.toUnsignedString(block.getNumber()));
+                }
+                window.blocks.put(block);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            window.failure = e;
+        }
+    }
+
+    @Override
+    public void close() {
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Range of blocks read by a single block events request.
+     */
+    private final class Window {
+        private final long start;
+        private final long end;
+        private final BlockingQueue<Block> blocks = new ArrayBlockingQueue<>(bufferSize);
+        private Future<?> task;
+        private volatile Throwable failure;
+
+        Window(final long start, final long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        Block take() throws InterruptedException {
+            while (true) {
+                var block = blocks.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (block != null) {
+                    return block;
+                }
+
+                var cause = failure;
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.protos.common.Block;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Processes the blocks received for one channel as tasks on a worker pool shared with other channels. Blocks are
+ * fetched from the event stream on the calling thread, and processed one at a time in block order by whichever worker
+ * thread is free. No worker thread is held while the channel has no blocks waiting, so idle channels do not consume
+ * workers and busy channels can use every worker. Each task processes a limited number of blocks before yielding its
+ * worker to other channels.
+ * <p>The number of blocks received but not yet processed is bounded. When the limit is reached, blocks are no longer
+ * pulled from the event stream until the channel catches up.</p>
+ * <p>If a block fails to be processed, the event stream is closed so that a receiving thread waiting for the next
+ * block on an idle channel wakes up and reports the failure.</p>
+ */
+public final class ChannelDispatcher {
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final int BLOCKS_PER_TASK = 16;
+
+    private final Executor workers;
+    private final Consumer<Block> processor;
+    private final int queueSize;
+    private final Semaphore permits;
+    private final Queue<Block> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile Throwable failure;
+    private volatile CloseableIterator<Block> source;
+
+    /**
+     * Create a dispatcher.
+     * @param workers Worker pool shared by all channels.
+     * @param queueSize Maximum number of blocks received but not yet processed.
+     * @param processor Processes each received block, in block order.
+     */
+    public ChannelDispatcher(final Executor workers, final int queueSize, final Consumer<Block> processor) {
+        this.workers = workers;
+        this.processor = processor;
+        this.queueSize = queueSize;
+        this.permits = new Semaphore(queueSize);
+    }
+
+    /**
+     * Process all blocks from an event stream, returning once the stream ends and every received block has been
+     * processed, or throwing if any block fails to be processed.
+     * @param blocks Block events, which are closed if a block fails to be processed.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public void run(final CloseableIterator<Block> blocks) throws InterruptedException {
+        source = blocks;
+        try {
+            while (blocks.hasNext()) {
+                var block = blocks.next();
+                acquire(1);
+                pending.add(block);
+                schedule();
+            }
+        } catch (RuntimeException e) {
+            // Closing the event stream after a failure may cause it to throw, so report the original failure instead
+            rethrowFailure();
+            throw e;
+        }
+
+        // All permits are available again only once every received block has been processed
+        acquire(queueSize);
+        rethrowFailure();
+    }
+
+    private void acquire(final int count) throws InterruptedException {
+        while (!permits.tryAcquire(count, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            rethrowFailure();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            workers.execute(this::processPending);
+        }
+    }
+
+    private void processPending() {
+        try {
+            for (int i = 0; i < BLOCKS_PER_TASK && failure == null; i++) {
+                var block = pending.poll();
+                if (block == null) {
+                    break;
+                }
+
+                processor.accept(block);
+                permits.release();
+            }
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            source.close();
+        } finally {
+            scheduled.set(false);
+        }
+
+        // A block may have been added after the last poll but before the scheduled flag was cleared
+        if (failure == null && !pending.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void rethrowFailure() {
+        var cause = failure;
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+    }
+}
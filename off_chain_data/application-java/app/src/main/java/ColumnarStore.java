@@ -0,0 +1,131 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import columnar.ColumnarWriter;
+import org.hyperledger.fabric.client.Checkpointer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Off-chain store that writes each ledger write as a row of a columnar file, for efficient analytical scans. Rows are
+ * buffered in memory and written as a compressed row group once they span a given number of blocks, at the end of a
+ * block. Columns are stored and compressed separately, with channel names, namespaces and transaction IDs dictionary
+ * encoded, so queries can read only the columns they use without parsing JSON.
+ * <p>Checkpoint positions must only advance once the rows they cover are durable, so checkpointing is done through
+ * the {@link Checkpointer} returned by {@link #getCheckpointer()}. Transactions in blocks already written to the file
+ * before a restart are ignored, so a row group that was written before its checkpoint was persisted is not
+ * duplicated. For this to be safe, only complete blocks are written: rows for the block currently being processed are
+ * held back until its end, and are discarded if the store is closed part way through the block, in which case the
+ * checkpoint is left at the end of the last complete block.</p>
+ */
+public final class ColumnarStore implements Store, AutoCloseable {
+    private final ColumnarWriter writer;
+    private final Checkpointer delegateCheckpointer;
+    private final DeferredCheckpointer checkpointer;
+    private final long rowGroupBlocks;
+    private final List<Row> blockRows = new ArrayList<>();
+    private long lastCompleteBlockNumber = -1;
+
+    /**
+     * Open a store, creating the file if it does not exist.
+     * @param file Columnar file to which row groups are appended.
+     * @param checkpointer Checkpointer that is updated only after rows are written.
+     * @param rowGroupBlocks Number of blocks spanned by each row group.
+     * @param sync Whether to fsync the file after each row group.
+     * @throws IOException if an I/O error occurs.
+     */
+    public ColumnarStore(final Path file, final Checkpointer checkpointer, final long rowGroupBlocks, final boolean sync)
+            throws IOException {
+        this.writer = new ColumnarWriter(file, sync);
+        this.delegateCheckpointer = checkpointer;
+        this.checkpointer = new DeferredCheckpointer(checkpointer, this::checkpointed);
+        this.rowGroupBlocks = Math.max(rowGroupBlocks, 1);
+    }
+
+    /**
+     * Checkpointer to be used when processing writes applied to this store. Checkpoint positions are passed to the
+     * underlying checkpointer only once all preceding writes have been written to the file.
+     * @return A checkpointer.
+     */
+    public Checkpointer getCheckpointer() {
+        return checkpointer;
+    }
+
+    @Override
+    public synchronized void store(final long blockNumber, final String transactionId, final List<Write> writes) throws IOException {
+        if (blockNumber <= writer.getLastWrittenBlockNumber()) {
+            return; // Written before a restart
+        }
+
+        for (var write : writes) {
+            blockRows.add(new Row(blockNumber, transactionId, write));
+        }
+    }
+
+    private synchronized void checkpointed(final long blockNumber, final boolean endOfBlock) throws IOException {
+        if (endOfBlock) {
+            addBlockRows();
+            lastCompleteBlockNumber = blockNumber;
+        }
+
+        if (writer.getRowCount() == 0 && blockRows.isEmpty()) {
+            checkpointer.release();
+        } else if (endOfBlock && blockNumber - writer.getFirstBlockNumber() + 1 >= rowGroupBlocks) {
+            commit();
+        }
+    }
+
+    private void addBlockRows() throws IOException {
+        for (var row : blockRows) {
+            var write = row.write;
+            writer.add(row.blockNumber, row.transactionId, write.getChannelName(), write.getNamespace(), write.getKey(),
+                    write.isDelete(), write.getValueBuffer());
+        }
+        blockRows.clear();
+    }
+
+    /**
+     * Write all buffered rows for complete blocks as a row group and pass the latest processed position to the
+     * underlying checkpointer. If the current block is not yet complete and has rows, its rows are not written and the
+     * checkpoint is advanced only to the end of the last complete block.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void commit() throws IOException {
+        writer.writeRowGroup();
+        if (blockRows.isEmpty()) {
+            checkpointer.release();
+        } else if (lastCompleteBlockNumber >= 0) {
+            delegateCheckpointer.checkpointBlock(lastCompleteBlockNumber);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Write held back until the end of its block.
+     */
+    private static final class Row {
+        private final long blockNumber;
+        private final String transactionId;
+        private final Write write;
+
+        Row(final long blockNumber, final String transactionId, final Write write) {
+            this.blockNumber = blockNumber;
+            this.transactionId = transactionId;
+            this.write = write;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Off-chain store that appends JSON lines to a log file, whose start can be replaced by a snapshot using a
+ * {@link LogCompactor} while the store is in use.
+ */
+public interface CompactableStore extends Store {
+    /**
+     * Log file to which the store appends JSON lines.
+     * @return A file path.
+     */
+    Path getFile();
+
+    /**
+     * Remove the start of the log file, which has been captured in a snapshot, leaving only the lines after it. This
+     * must be done while no lines are being appended, and any open file handle reopened on the new file.
+     * @param offset Position in the log file of the first line not captured in the snapshot.
+     * @throws IOException if an I/O error occurs.
+     */
+    void truncateHead(long offset) throws IOException;
+}
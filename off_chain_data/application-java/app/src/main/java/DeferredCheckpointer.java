@@ -0,0 +1,137 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.client.Checkpointer;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/**
+ * Checkpointer that records the latest processed position in memory, and passes it to an underlying checkpointer only
+ * when {@link #release()} is called. Stores that buffer writes use this so that the persisted checkpoint never gets
+ * ahead of the writes that are durable. The position reported by this checkpointer includes any pending position.
+ */
+public final class DeferredCheckpointer implements IndexedCheckpointer {
+    private final Checkpointer delegate;
+    private final Listener listener;
+    private boolean hasPendingCheckpoint;
+    private long pendingBlockNumber;
+    private String pendingTransactionId;
+    private int pendingTransactionIndex = -1;
+
+    /**
+     * Create a checkpointer.
+     * @param delegate Checkpointer that is updated only when pending positions are released.
+     * @param listener Notified after each new pending position is recorded, and may release it.
+     */
+    public DeferredCheckpointer(final Checkpointer delegate, final Listener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Override
+    public void checkpointBlock(final long blockNumber) throws IOException {
+        checkpoint(blockNumber, -1, null, true);
+    }
+
+    @Override
+    public void checkpointTransaction(final long blockNumber, final String transactionId) throws IOException {
+        checkpoint(blockNumber, -1, transactionId, false);
+    }
+
+    @Override
+    public void checkpointTransaction(final long blockNumber, final int transactionIndex, final String transactionId)
+            throws IOException {
+        checkpoint(blockNumber, transactionIndex, transactionId, false);
+    }
+
+    @Override
+    public void checkpointChaincodeEvent(final ChaincodeEvent event) throws IOException {
+        checkpointTransaction(event.getBlockNumber(), event.getTransactionId());
+    }
+
+    private void checkpoint(final long blockNumber, final int transactionIndex, final String transactionId,
+                            final boolean endOfBlock) throws IOException {
+        synchronized (this) {
+            hasPendingCheckpoint = true;
+            pendingBlockNumber = blockNumber;
+            pendingTransactionIndex = transactionIndex;
+            pendingTransactionId = transactionId;
+        }
+
+        // Notify outside the lock, since the listener may release the position while holding its own lock
+        listener.checkpointed(blockNumber, endOfBlock);
+    }
+
+    /**
+     * Whether there is a position that has not been passed to the underlying checkpointer.
+     * @return {@code true} if a checkpoint is pending; otherwise {@code false}.
+     */
+    public synchronized boolean hasPendingCheckpoint() {
+        return hasPendingCheckpoint;
+    }
+
+    /**
+     * Pass the latest pending position, if any, to the underlying checkpointer.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void release() throws IOException {
+        if (!hasPendingCheckpoint) {
+            return;
+        }
+
+        if (pendingTransactionId != null && pendingTransactionIndex >= 0 && delegate instanceof IndexedCheckpointer) {
+            ((IndexedCheckpointer) delegate).checkpointTransaction(pendingBlockNumber, pendingTransactionIndex, pendingTransactionId);
+        } else if (pendingTransactionId != null) {
+            delegate.checkpointTransaction(pendingBlockNumber, pendingTransactionId);
+        } else {
+            delegate.checkpointBlock(pendingBlockNumber);
+        }
+        hasPendingCheckpoint = false;
+    }
+
+    @Override
+    public synchronized OptionalLong getBlockNumber() {
+        if (!hasPendingCheckpoint) {
+            return delegate.getBlockNumber();
+        }
+        return OptionalLong.of(pendingTransactionId != null ? pendingBlockNumber : pendingBlockNumber + 1);
+    }
+
+    @Override
+    public synchronized Optional<String> getTransactionId() {
+        return hasPendingCheckpoint ? Optional.ofNullable(pendingTransactionId) : delegate.getTransactionId();
+    }
+
+    @Override
+    public synchronized OptionalInt getTransactionIndex() {
+        if (!hasPendingCheckpoint) {
+            return delegate instanceof IndexedCheckpointer
+                    ? ((IndexedCheckpointer) delegate).getTransactionIndex()
+                    : OptionalInt.empty();
+        }
+        return pendingTransactionId != null && pendingTransactionIndex >= 0
+                ? OptionalInt.of(pendingTransactionIndex)
+                : OptionalInt.empty();
+    }
+
+    /**
+     * Receives notification of new pending positions.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called after a new pending position is recorded.
+         * @param blockNumber Block number of the position.
+         * @param endOfBlock Whether the position is the end of the block.
+         * @throws IOException if an I/O error occurs.
+         */
+        void checkpointed(long blockNumber, boolean endOfBlock) throws IOException;
+    }
+}
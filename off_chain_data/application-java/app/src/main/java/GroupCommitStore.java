@@ -0,0 +1,164 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.hyperledger.fabric.client.Checkpointer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Off-chain store that appends writes as JSON lines to a single open file, buffering writes from many transactions and
+ * committing them as a group with a single write and optional fsync.
+ * <p>Checkpoint positions must only advance once the writes they cover are durable, so checkpointing is done through
+ * the {@link Checkpointer} returned by {@link #getCheckpointer()}. This records the processed position in memory and
+ * passes it to the underlying checkpointer only after the group containing the corresponding writes is committed.</p>
+ */
+public final class GroupCommitStore implements CompactableStore, AutoCloseable {
+    private final Path file;
+    private final long commitBytes;
+    private final long commitIntervalNanos;
+    private final boolean force;
+    private final GroupBuffer buffer = new GroupBuffer();
+    private final DeferredCheckpointer checkpointer;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Threads.newThreadFactory("store-group-commit"));
+
+    private FileChannel channel;
+    private long groupStartNanos;
+    private IOException backgroundFailure;
+
+    /**
+     * Create a store.
+     * @param file Output file to which writes are appended.
+     * @param checkpointer Checkpointer that is updated only after writes are committed.
+     * @param commitBytes Minimum buffered size at which a group is committed at the end of a block. Zero commits at the
+     *                    end of every block.
+     * @param commitInterval Maximum time writes are buffered before being committed.
+     * @param force Whether to fsync the file on each commit.
+     * @throws IOException if an I/O error occurs opening the file.
+     */
+    public GroupCommitStore(final Path file, final Checkpointer checkpointer, final long commitBytes,
+                            final Duration commitInterval, final boolean force) throws IOException {
+        this.file = file;
+        this.channel = openChannel(file);
+        this.checkpointer = new DeferredCheckpointer(checkpointer, this::checkpointed);
+        this.commitBytes = commitBytes;
+        this.commitIntervalNanos = commitInterval.toNanos();
+        this.force = force;
+
+        var intervalMillis = Math.max(commitInterval.toMillis(), 1);
+        scheduler.scheduleWithFixedDelay(this::commitIfOverdue, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static FileChannel openChannel(final Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Checkpointer to be used when processing writes applied to this store. Checkpoint positions are passed to the
+     * underlying checkpointer only once all preceding writes have been committed.
+     * @return A checkpointer.
+     */
+    public Checkpointer getCheckpointer() {
+        return checkpointer;
+    }
+
+    @Override
+    public synchronized void store(final long blockNumber, final String transactionId, final List<Write> writes) throws IOException {
+        checkBackgroundFailure();
+        if (buffer.size() == 0) {
+            groupStartNanos = System.nanoTime();
+        }
+
+        for (var write : writes) {
+            WriteJsonEncoder.encodeLine(write, buffer);
+        }
+    }
+
+    /**
+     * Commit all buffered writes and pass the latest processed position to the underlying checkpointer.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void commit() throws IOException {
+        var data = buffer.asByteBuffer();
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        if (force && buffer.size() > 0) {
+            channel.force(false);
+        }
+        buffer.reset();
+
+        checkpointer.release();
+    }
+
+    @Override
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void truncateHead(final long offset) throws IOException {
+        LogCompactor.replaceWithTail(file, offset);
+        channel.close();
+        channel = openChannel(file);
+    }
+
+    private synchronized void checkpointed(final long blockNumber, final boolean endOfBlock) throws IOException {
+        checkBackgroundFailure();
+        var isFull = commitBytes > 0 && buffer.size() >= commitBytes;
+        if (isFull || isOverdue() || (endOfBlock && commitBytes == 0)) {
+            commit();
+        }
+    }
+
+    private boolean isOverdue() {
+        return buffer.size() > 0 && System.nanoTime() - groupStartNanos >= commitIntervalNanos;
+    }
+
+    private synchronized void commitIfOverdue() {
+        try {
+            if (isOverdue() || (buffer.size() == 0 && checkpointer.hasPendingCheckpoint())) {
+                commit();
+            }
+        } catch (IOException e) {
+            backgroundFailure = e;
+        }
+    }
+
+    private void checkBackgroundFailure() throws IOException {
+        if (backgroundFailure != null) {
+            throw new IOException("Background commit failed", backgroundFailure);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        try {
+            commit();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Byte buffer whose content can be written to a channel without copying.
+     */
+    private static final class GroupBuffer extends ByteArrayOutputStream {
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
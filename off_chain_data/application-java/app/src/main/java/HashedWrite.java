@@ -0,0 +1,109 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.protobuf.ByteString;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWriteHash;
+
+import java.util.Optional;
+
+/**
+ * Description of a private data collection write recorded in a block. The block holds only SHA-256 hashes of the key
+ * and value. The key itself is known only if the private data was received with the block.
+ */
+public final class HashedWrite {
+    private final String channelName;
+    private final String namespace;
+    private final String collectionName;
+    private final ByteString keyHash;
+    private final ByteString valueHash;
+    private final boolean isDelete;
+    private final boolean isPurge;
+    private final String key;
+
+    /**
+     * Create a hashed write.
+     * @param channelName Channel whose ledger is being updated.
+     * @param namespace Namespace within the ledger.
+     * @param collectionName Private data collection within the namespace.
+     * @param write Hashed write from the block.
+     * @param key Key whose hash matches the write, or {@code null} if not known.
+     */
+    public HashedWrite(final String channelName, final String namespace, final String collectionName, final KVWriteHash write,
+                       final String key) {
+        this.channelName = channelName;
+        this.namespace = namespace;
+        this.collectionName = collectionName;
+        this.keyHash = write.getKeyHash();
+        this.valueHash = write.getValueHash();
+        this.isDelete = write.getIsDelete();
+        this.isPurge = write.getIsPurge();
+        this.key = key;
+    }
+
+    /**
+     * Channel whose ledger is being updated.
+     * @return A channel name.
+     */
+    public String getChannelName() {
+        return channelName;
+    }
+
+    /**
+     * Namespace within the ledger.
+     * @return A ledger namespace.
+     */
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * Private data collection within the namespace.
+     * @return A collection name.
+     */
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    /**
+     * SHA-256 hash of the key.
+     * @return A key hash.
+     */
+    public ByteString getKeyHash() {
+        return keyHash;
+    }
+
+    /**
+     * If {@link #isDelete()} is {@code false}, SHA-256 hash of the value written to the key; otherwise ignored.
+     * @return A value hash.
+     */
+    public ByteString getValueHash() {
+        return valueHash;
+    }
+
+    /**
+     * Whether the key and associated value are being deleted.
+     * @return {@code true} if the key is being deleted; otherwise {@code false}.
+     */
+    public boolean isDelete() {
+        return isDelete;
+    }
+
+    /**
+     * Whether the key and associated value are being purged from the private data history.
+     * @return {@code true} if the key is being purged; otherwise {@code false}.
+     */
+    public boolean isPurge() {
+        return isPurge;
+    }
+
+    /**
+     * Key name within the collection, if the private data was available.
+     * @return A key, or empty if only the key hash is known.
+     */
+    public Optional<String> getKey() {
+        return Optional.ofNullable(key);
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Off-chain store for the private data collection writes made by transactions, which are recorded in blocks only as
+ * hashes.
+ */
+@FunctionalInterface
+public interface HashedWriteStore {
+    /**
+     * Store the hashed writes for a transaction.
+     * @param blockNumber Block containing the transaction.
+     * @param transactionIndex Index of the transaction within the block.
+     * @param transactionId Transaction ID.
+     * @param writes Private data collection writes made by the transaction.
+     * @throws IOException if an I/O error occurs.
+     */
+    void store(long blockNumber, int transactionIndex, String transactionId, List<HashedWrite> writes) throws IOException;
+}
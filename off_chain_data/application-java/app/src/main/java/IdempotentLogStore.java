@@ -0,0 +1,200 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Off-chain store that appends one JSON line per transaction, recording the position of the transaction (block number
+ * and index within the block) together with its writes:
+ * <pre>{"blockNumber":1,"transactionIndex":0,"transactionId":"...","writes":[...]}</pre>
+ * <p>Each line is appended with a single write, and any incomplete final line left by a failure is removed when the
+ * file is opened, so a transaction is stored either completely or not at all. The position of the last stored
+ * transaction is read back from the file on opening, and any transaction at or before that position is ignored.
+ * Storing is therefore idempotent: checkpoints can be persisted asynchronously or infrequently, and transactions
+ * processed again after a restart do not produce duplicate records.</p>
+ * <p>Every transaction must be stored with its position, and all of its writes in a single call. Storing without a
+ * position throws {@link IllegalStateException}, so this store cannot be used behind a {@link ShardedStore}, which
+ * splits each transaction's writes across shards.</p>
+ */
+public final class IdempotentLogStore implements CompactableStore, AutoCloseable {
+    private static final int READ_CHUNK_SIZE = 8192;
+    private static final String BLOCK_NUMBER_FIELD = "blockNumber";
+    private static final String TRANSACTION_INDEX_FIELD = "transactionIndex";
+
+    private final Path file;
+    private final boolean force;
+    private FileChannel channel;
+    private boolean hasLastPosition;
+    private long lastBlockNumber;
+    private int lastTransactionIndex;
+    private long skippedCount;
+
+    /**
+     * Open a store, creating the file if it does not exist.
+     * @param file Output file to which transactions are appended.
+     * @param force Whether to fsync the file after each transaction.
+     * @throws IOException if an I/O error occurs reading the existing file content.
+     */
+    public IdempotentLogStore(final Path file, final boolean force) throws IOException {
+        this.file = file;
+        this.channel = openChannel(file);
+        this.force = force;
+
+        recover();
+    }
+
+    private static FileChannel openChannel(final Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void recover() throws IOException {
+        var end = findLineEnd(channel.size());
+        channel.truncate(end);
+        channel.position(end);
+        if (end == 0) {
+            // All stored transactions may have been compacted into the snapshot
+            var position = LogCompactor.getSnapshotPosition(file);
+            if (position.isPresent()) {
+                setLastPosition(position.get());
+            }
+            return;
+        }
+
+        var start = findLineEnd(end - 1);
+        var line = ByteBuffer.allocate((int) (end - 1 - start));
+        channel.read(line, start);
+        setLastPosition(JsonParser.parseString(new String(line.array(), StandardCharsets.UTF_8)).getAsJsonObject());
+    }
+
+    private void setLastPosition(final JsonObject json) throws IOException {
+        if (!json.has(BLOCK_NUMBER_FIELD) || !json.has(TRANSACTION_INDEX_FIELD)) {
+            throw new IOException("Last record in " + file + " does not contain a transaction position");
+        }
+
+        hasLastPosition = true;
+        lastBlockNumber = json.get(BLOCK_NUMBER_FIELD).getAsLong();
+        lastTransactionIndex = json.get(TRANSACTION_INDEX_FIELD).getAsInt();
+    }
+
+    /**
+     * Find the end of the last complete line before a position in the file.
+     * @return Position after the last newline character before {@code limit}, or zero if there is none.
+     */
+    private long findLineEnd(final long limit) throws IOException {
+        var chunk = ByteBuffer.allocate(READ_CHUNK_SIZE);
+        var chunkEnd = limit;
+        while (chunkEnd > 0) {
+            var chunkStart = Math.max(chunkEnd - READ_CHUNK_SIZE, 0);
+            chunk.clear().limit((int) (chunkEnd - chunkStart));
+            while (chunk.hasRemaining()) {
+                if (channel.read(chunk, chunkStart + chunk.position()) < 0) {
+                    break;
+                }
+            }
+
+            for (int i = chunk.position() - 1; i >= 0; i--) {
+                if (chunk.get(i) == '\n') {
+                    return chunkStart + i + 1;
+                }
+            }
+            chunkEnd = chunkStart;
+        }
+        return 0;
+    }
+
+    /**
+     * Not supported, since the position of the transaction is needed to detect transactions already stored.
+     * @throws IllegalStateException always.
+     */
+    @Override
+    public void store(final long blockNumber, final String transactionId, final List<Write> writes) {
+        throw new IllegalStateException("Transaction position is required to store transaction " + transactionId);
+    }
+
+    @Override
+    public synchronized void store(final long blockNumber, final int transactionIndex, final String transactionId,
+                                   final List<Write> writes) throws IOException {
+        if (isStored(blockNumber, transactionIndex)) {
+            skippedCount++;
+            return;
+        }
+        reportSkipped();
+
+        var out = new ByteArrayOutputStream();
+        out.write(("{\"" + BLOCK_NUMBER_FIELD + "\":" + Long.toUnsignedString(blockNumber)
+                + ",\"" + TRANSACTION_INDEX_FIELD + "\":" + transactionIndex
+                + ",\"transactionId\":").getBytes(StandardCharsets.UTF_8));
+        WriteJsonEncoder.encodeString(transactionId, out);
+        out.write(",\"writes\":[".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < writes.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            WriteJsonEncoder.encode(writes.get(i), out);
+        }
+        out.write("]}\n".getBytes(StandardCharsets.UTF_8));
+
+        var data = ByteBuffer.wrap(out.toByteArray());
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        if (force) {
+            channel.force(false);
+        }
+
+        hasLastPosition = true;
+        lastBlockNumber = blockNumber;
+        lastTransactionIndex = transactionIndex;
+    }
+
+    /**
+     * Print one line for a run of previously stored transactions, rather than one line for each of them.
+     */
+    private void reportSkipped() {
+        if (skippedCount > 0) {
+            System.out.println("Skipped " + skippedCount + " previously stored transactions");
+            skippedCount = 0;
+        }
+    }
+
+    private boolean isStored(final long blockNumber, final int transactionIndex) {
+        if (!hasLastPosition) {
+            return false;
+        }
+
+        var blockOrder = Long.compareUnsigned(blockNumber, lastBlockNumber);
+        return blockOrder < 0 || (blockOrder == 0 && transactionIndex <= lastTransactionIndex);
+    }
+
+    @Override
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void truncateHead(final long offset) throws IOException {
+        LogCompactor.replaceWithTail(file, offset);
+        channel.close();
+        channel = openChannel(file);
+        channel.position(channel.size());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        reportSkipped();
+        channel.close();
+    }
+}
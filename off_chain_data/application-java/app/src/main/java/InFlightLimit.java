@@ -0,0 +1,68 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the total serialized size of blocks that have been received from the event stream but not yet applied to the
+ * off-chain store. A single block larger than the limit is still admitted when nothing else is in flight, so
+ * processing can never deadlock.
+ */
+public final class InFlightLimit {
+    private final long maxBytes;
+    private long bytes;
+
+    /**
+     * Create a limit.
+     * @param maxBytes Maximum total size of blocks in flight. Zero or less places no limit.
+     */
+    public InFlightLimit(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reserve space for a block, waiting until enough previously received blocks have been released.
+     * @param size Serialized size of the block.
+     * @param timeout Maximum time to wait.
+     * @param unit Unit of the timeout.
+     * @return {@code true} if space was reserved; {@code false} if the timeout elapsed first.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public synchronized boolean tryAcquire(final long size, final long timeout, final TimeUnit unit) throws InterruptedException {
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!hasRoomFor(size)) {
+            var remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+
+        bytes += size;
+        return true;
+    }
+
+    private boolean hasRoomFor(final long size) {
+        return maxBytes <= 0 || bytes == 0 || bytes + size <= maxBytes;
+    }
+
+    /**
+     * Release the space reserved for a block once it has been applied.
+     * @param size Serialized size of the block.
+     */
+    public synchronized void release(final long size) {
+        bytes -= size;
+        notifyAll();
+    }
+
+    /**
+     * Total size of blocks currently in flight.
+     * @return A size in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.hyperledger.fabric.client.Checkpointer;
+
+import java.io.IOException;
+import java.util.OptionalInt;
+
+/**
+ * Checkpointer that also records the index of the last processed transaction within its block. On resume, processing
+ * can then jump directly to the next transaction, decoding only the checkpointed transaction to verify its ID, rather
+ * than searching the block for the transaction ID.
+ */
+public interface IndexedCheckpointer extends Checkpointer {
+    /**
+     * Checkpoint a transaction within a block.
+     * @param blockNumber Block containing the transaction.
+     * @param transactionIndex Index of the transaction envelope within the block data.
+     * @param transactionId Transaction ID.
+     * @throws IOException if an I/O error occurs.
+     */
+    void checkpointTransaction(long blockNumber, int transactionIndex, String transactionId) throws IOException;
+
+    /**
+     * Index within the block data of the last processed transaction, if known.
+     * @return A transaction index, or empty if no transaction index was checkpointed.
+     */
+    OptionalInt getTransactionIndex();
+}
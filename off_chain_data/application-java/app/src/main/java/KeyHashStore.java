@@ -0,0 +1,236 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.protobuf.ByteString;
+import kvstore.KeyValueDatabase;
+import kvstore.StateKey;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Audit index of private data collection writes, held in an embedded key-value database. Each write is recorded under
+ * its collection, key hash and position in the ledger, so the full history of changes to a private key can be read
+ * with a single range scan, without access to the private data itself. Where the private data was received with the
+ * block, the key name is recorded too. Private values are never stored, only their hashes.
+ * <p>Records for a transaction are written atomically, and writing the same transaction again replaces them with
+ * identical records, so transactions replayed after a restart do not produce duplicates.</p>
+ */
+public final class KeyHashStore implements HashedWriteStore, AutoCloseable {
+    // Separates the namespace and collection name, which cannot contain this character, in database keys.
+    private static final String COLLECTION_SEPARATOR = "~";
+    private static final String POSITION_SEPARATOR = "/";
+    // Character following POSITION_SEPARATOR, used to end a range scan over all positions for a key hash.
+    private static final String POSITION_END = "0";
+    private static final String POSITION_FORMAT = "%020d" + POSITION_SEPARATOR + "%010d";
+    private static final int FLAG_DELETE = 1;
+    private static final int FLAG_PURGE = 2;
+    private static final int FLAG_KEY = 4;
+    private static final int HEX_RADIX = 16;
+    private static final int BYTE_MASK = 0xff;
+    private static final int HIGH_NIBBLE_SHIFT = 4;
+    private static final int NIBBLE_MASK = 0x0f;
+
+    private final KeyValueDatabase database;
+
+    /**
+     * Open a store, creating it if it does not exist.
+     * @param directory Directory holding the database files.
+     * @param memtableLimitBytes Approximate size of in-memory data at which it is written to disk.
+     * @param sync Whether to fsync each transaction's writes.
+     * @throws IOException if an I/O error occurs.
+     */
+    public KeyHashStore(final Path directory, final long memtableLimitBytes, final boolean sync) throws IOException {
+        this.database = new KeyValueDatabase(directory, memtableLimitBytes, sync);
+    }
+
+    @Override
+    public void store(final long blockNumber, final int transactionIndex, final String transactionId, final List<HashedWrite> writes)
+            throws IOException {
+        var position = String.format(POSITION_FORMAT, blockNumber, transactionIndex);
+        var batch = new KeyValueDatabase.Batch();
+        for (var write : writes) {
+            var key = new StateKey(write.getChannelName(), collectionNamespace(write.getNamespace(), write.getCollectionName()),
+                    toHex(write.getKeyHash()) + POSITION_SEPARATOR + position);
+            batch.put(key, encode(transactionId, write));
+        }
+
+        database.write(batch);
+    }
+
+    private static String collectionNamespace(final String namespace, final String collectionName) {
+        return namespace + COLLECTION_SEPARATOR + collectionName;
+    }
+
+    private static String toHex(final ByteString bytes) {
+        var result = new StringBuilder(bytes.size() * 2);
+        for (int i = 0; i < bytes.size(); i++) {
+            var b = bytes.byteAt(i) & BYTE_MASK;
+            result.append(Character.forDigit(b >>> HIGH_NIBBLE_SHIFT, HEX_RADIX))
+                    .append(Character.forDigit(b & NIBBLE_MASK, HEX_RADIX));
+        }
+        return result.toString();
+    }
+
+    private static byte[] encode(final String transactionId, final HashedWrite write) throws IOException {
+        var flags = (write.isDelete() ? FLAG_DELETE : 0)
+                | (write.isPurge() ? FLAG_PURGE : 0)
+                | (write.getKey().isPresent() ? FLAG_KEY : 0);
+
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            writeString(out, transactionId);
+            out.writeByte(flags);
+            out.writeInt(write.getValueHash().size());
+            write.getValueHash().writeTo(out);
+            if (write.getKey().isPresent()) {
+                writeString(out, write.getKey().get());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Get every recorded write to a private data key, identified by the hash of the key.
+     * @param channelName A channel name.
+     * @param namespace A ledger namespace.
+     * @param collectionName A private data collection name.
+     * @param keyHash SHA-256 hash of the key.
+     * @return Writes to the key, in ledger order.
+     */
+    public List<Entry> getHistory(final String channelName, final String namespace, final String collectionName,
+                                  final ByteString keyHash) {
+        var collection = collectionNamespace(namespace, collectionName);
+        var keyPrefix = toHex(keyHash);
+        var range = database.getRange(new StateKey(channelName, collection, keyPrefix + POSITION_SEPARATOR),
+                new StateKey(channelName, collection, keyPrefix + POSITION_END));
+
+        var results = new ArrayList<Entry>(range.size());
+        range.forEach((key, value) -> results.add(decode(key.getKey().substring(keyPrefix.length() + 1), value)));
+        return results;
+    }
+
+    private static Entry decode(final String position, final byte[] value) {
+        var separator = position.indexOf(POSITION_SEPARATOR);
+        var blockNumber = Long.parseLong(position.substring(0, separator));
+        var transactionIndex = Integer.parseInt(position.substring(separator + 1));
+
+        try (var in = new DataInputStream(new ByteArrayInputStream(value))) {
+            var transactionId = readString(in);
+            var flags = in.readUnsignedByte();
+            var valueHash = new byte[in.readInt()];
+            in.readFully(valueHash);
+            var key = (flags & FLAG_KEY) != 0 ? readString(in) : null;
+            return new Entry(blockNumber, transactionIndex, transactionId, flags, ByteString.copyFrom(valueHash), key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        database.close();
+    }
+
+    /**
+     * Recorded write to a private data key.
+     */
+    public static final class Entry {
+        private final long blockNumber;
+        private final int transactionIndex;
+        private final String transactionId;
+        private final int flags;
+        private final ByteString valueHash;
+        private final String key;
+
+        private Entry(final long blockNumber, final int transactionIndex, final String transactionId, final int flags,
+                      final ByteString valueHash, final String key) {
+            this.blockNumber = blockNumber;
+            this.transactionIndex = transactionIndex;
+            this.transactionId = transactionId;
+            this.flags = flags;
+            this.valueHash = valueHash;
+            this.key = key;
+        }
+
+        /**
+         * Block containing the transaction that made the write.
+         * @return A block number.
+         */
+        public long getBlockNumber() {
+            return blockNumber;
+        }
+
+        /**
+         * Index within the block of the transaction that made the write.
+         * @return A transaction index.
+         */
+        public int getTransactionIndex() {
+            return transactionIndex;
+        }
+
+        /**
+         * Transaction that made the write.
+         * @return A transaction ID.
+         */
+        public String getTransactionId() {
+            return transactionId;
+        }
+
+        /**
+         * Whether the key was deleted.
+         * @return {@code true} if the key was deleted; otherwise {@code false}.
+         */
+        public boolean isDelete() {
+            return (flags & FLAG_DELETE) != 0;
+        }
+
+        /**
+         * Whether the key was purged from the private data history.
+         * @return {@code true} if the key was purged; otherwise {@code false}.
+         */
+        public boolean isPurge() {
+            return (flags & FLAG_PURGE) != 0;
+        }
+
+        /**
+         * If {@link #isDelete()} is {@code false}, SHA-256 hash of the value written; otherwise ignored.
+         * @return A value hash.
+         */
+        public ByteString getValueHash() {
+            return valueHash;
+        }
+
+        /**
+         * Key name, if the private data was available when the write was recorded.
+         * @return A key, or empty if only the key hash is known.
+         */
+        public Optional<String> getKey() {
+            return Optional.ofNullable(key);
+        }
+    }
+}
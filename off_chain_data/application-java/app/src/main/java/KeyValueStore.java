@@ -0,0 +1,79 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import kvstore.KeyValueDatabase;
+import kvstore.StateKey;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+
+/**
+ * Off-chain store that materializes the current world state in an embedded key-value database, rather than recording
+ * every write. Deletes remove the key from the database. The writes for each transaction are applied atomically, and
+ * applying the same transaction again has no further effect, so transactions replayed after a restart from an older
+ * checkpoint leave the store unchanged.
+ */
+public final class KeyValueStore implements Store, AutoCloseable {
+    private final KeyValueDatabase database;
+
+    /**
+     * Open a store, creating it if it does not exist.
+     * @param directory Directory holding the database files.
+     * @param memtableLimitBytes Approximate size of in-memory data at which it is written to disk.
+     * @param sync Whether to fsync each transaction's writes.
+     * @throws IOException if an I/O error occurs.
+     */
+    public KeyValueStore(final Path directory, final long memtableLimitBytes, final boolean sync) throws IOException {
+        this.database = new KeyValueDatabase(directory, memtableLimitBytes, sync);
+    }
+
+    @Override
+    public void store(final long blockNumber, final String transactionId, final List<Write> writes) throws IOException {
+        var batch = new KeyValueDatabase.Batch();
+        for (var write : writes) {
+            var key = new StateKey(write.getChannelName(), write.getNamespace(), write.getKey());
+            if (write.isDelete()) {
+                batch.delete(key);
+            } else {
+                batch.put(key, write.getValue());
+            }
+        }
+
+        database.write(batch);
+    }
+
+    /**
+     * Get the current value of a ledger key.
+     * @param channelName A channel name.
+     * @param namespace A ledger namespace.
+     * @param key A ledger key.
+     * @return The value, or empty if the key does not exist.
+     */
+    public Optional<byte[]> get(final String channelName, final String namespace, final String key) {
+        return database.get(new StateKey(channelName, namespace, key));
+    }
+
+    /**
+     * Get the current values of a range of ledger keys within a namespace.
+     * @param channelName A channel name.
+     * @param namespace A ledger namespace.
+     * @param startKey First ledger key in the range (inclusive).
+     * @param endKey End of the range (exclusive).
+     * @return Existing ledger keys and their values, in key order.
+     */
+    public NavigableMap<StateKey, byte[]> getRange(final String channelName, final String namespace, final String startKey,
+                                                   final String endKey) {
+        return database.getRange(new StateKey(channelName, namespace, startKey), new StateKey(channelName, namespace, endKey));
+    }
+
+    @Override
+    public void close() throws IOException {
+        database.close();
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds, using the log-linear bucketing of an HDR histogram: each power of two
+ * range is split into {@value #SUB_BUCKET_COUNT} equal sub-buckets, so recorded values are reported to within about 3%
+ * of their true value across the full range of a {@code long}, in a fixed amount of memory.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+    private static final double PERCENT = 100.0;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a duration. Negative durations are recorded as zero.
+     * @param nanos Elapsed time in nanoseconds.
+     */
+    public void record(final long nanos) {
+        var value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Record the time elapsed since a start time obtained from {@link System#nanoTime()}.
+     * @param startNanos Start time.
+     */
+    public void recordSince(final long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    private static int bucketIndex(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        var shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * Largest value that falls into a bucket, which is the value reported for all durations recorded in it.
+     */
+    private static long bucketHighestValue(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        var shift = index / SUB_BUCKET_COUNT - 1;
+        var subBucket = (long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Number of recorded durations.
+     * @return A count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Mean of the recorded durations.
+     * @return Elapsed time in nanoseconds, or zero if nothing was recorded.
+     */
+    public double getMeanNanos() {
+        var n = getCount();
+        return n > 0 ? (double) totalNanos.sum() / n : 0;
+    }
+
+    /**
+     * Largest recorded duration.
+     * @return Elapsed time in nanoseconds, or zero if nothing was recorded.
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Duration at or below which the specified percentage of recorded durations fall.
+     * @param percentile A percentile between 0 and 100.
+     * @return Elapsed time in nanoseconds, or zero if nothing was recorded.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        var total = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+
+        var target = Math.max((long) Math.ceil(Math.min(percentile, PERCENT) / PERCENT * total), 1);
+        var cumulative = 0L;
+        for (int i = 0; i < BUCKET_COUNT && total > 0; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= target) {
+                return Math.min(bucketHighestValue(i), getMaxNanos());
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Summary of the recorded durations.
+     * @return A point-in-time snapshot.
+     */
+    public Snapshot getSnapshot() {
+        return new Snapshot(this);
+    }
+
+    @Override
+    public String toString() {
+        return getSnapshot().toString();
+    }
+
+    /**
+     * Point-in-time summary of a {@link LatencyHistogram}, in microseconds.
+     */
+    public static final class Snapshot {
+        private static final double P50 = 50;
+        private static final double P99 = 99;
+        private static final double P999 = 99.9;
+
+        private final long count;
+        private final double meanMicros;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double p999Micros;
+        private final double maxMicros;
+
+        private Snapshot(final LatencyHistogram histogram) {
+            this.count = histogram.getCount();
+            this.meanMicros = toMicros(histogram.getMeanNanos());
+            this.p50Micros = toMicros(histogram.getValueAtPercentile(P50));
+            this.p99Micros = toMicros(histogram.getValueAtPercentile(P99));
+            this.p999Micros = toMicros(histogram.getValueAtPercentile(P999));
+            this.maxMicros = toMicros(histogram.getMaxNanos());
+        }
+
+        private static double toMicros(final double nanos) {
+            return nanos / TimeUnit.MICROSECONDS.toNanos(1);
+        }
+
+        /**
+         * Number of recorded durations.
+         * @return A count.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Mean duration.
+         * @return Elapsed time in microseconds.
+         */
+        public double getMeanMicros() {
+            return meanMicros;
+        }
+
+        /**
+         * Median duration.
+         * @return Elapsed time in microseconds.
+         */
+        public double getP50Micros() {
+            return p50Micros;
+        }
+
+        /**
+         * 99th percentile duration.
+         * @return Elapsed time in microseconds.
+         */
+        public double getP99Micros() {
+            return p99Micros;
+        }
+
+        /**
+         * 99.9th percentile duration.
+         * @return Elapsed time in microseconds.
+         */
+        public double getP999Micros() {
+            return p999Micros;
+        }
+
+        /**
+         * Largest duration.
+         * @return Elapsed time in microseconds.
+         */
+        public double getMaxMicros() {
+            return maxMicros;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus", p50Micros, p99Micros, p999Micros, maxMicros);
+        }
+    }
+}
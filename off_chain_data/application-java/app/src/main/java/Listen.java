@@ -4,71 +4,540 @@
  * SPDX-License-Identifier: Apache-2.0
  */
 
-import com.google.gson.Gson;
+import blockarchive.BlockArchiveReader;
+import blockarchive.BlockArchiveWriter;
+import blockarchive.BlockFileReader;
+import blockarchive.Compression;
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.grpc.Channel;
+import org.hyperledger.fabric.client.Checkpointer;
+import org.hyperledger.fabric.client.CloseableIterator;
 import org.hyperledger.fabric.client.FileCheckpointer;
+import org.hyperledger.fabric.client.GatewayException;
+import org.hyperledger.fabric.client.Network;
+import org.hyperledger.fabric.protos.common.BlockchainInfo;
+import parser.Block;
 import parser.BlockParser;
+import parser.ParserOptions;
+import parser.ReadWriteSetFilter;
 
+import javax.management.JMException;
 import java.io.IOException;
-import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.security.InvalidKeyException;
 import java.security.cert.CertificateException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public final class Listen implements Command {
     private static final Path CHECKPOINT_FILE = Paths.get(Utils.getEnvOrDefault("CHECKPOINT_FILE", "checkpoint.json"));
     private static final Path STORE_FILE = Paths.get(Utils.getEnvOrDefault("STORE_FILE", "store.log"));
+    // Checkpointer implementation: "file" persists every checkpoint; "batch" persists checkpoints periodically.
+    private static final String CHECKPOINT_TYPE = Utils.getEnvOrDefault("CHECKPOINT_TYPE", "file");
+    // Number of blocks after which a "batch" checkpointer persists its position. Zero persists only on the time interval.
+    private static final int CHECKPOINT_FLUSH_BLOCKS = Utils.getEnvOrDefault("CHECKPOINT_FLUSH_BLOCKS", Integer::parseUnsignedInt, 100);
+    // Maximum time in milliseconds for which a "batch" checkpointer does not persist its position.
+    private static final Duration CHECKPOINT_FLUSH_INTERVAL = Utils.getEnvOrDefault("CHECKPOINT_FLUSH_MILLIS",
+            value -> Duration.ofMillis(Long.parseUnsignedLong(value)), Duration.ofSeconds(1));
     private static final int SIMULATED_FAILURE_COUNT = Utils.getEnvOrDefault("SIMULATED_FAILURE_COUNT", Integer::parseUnsignedInt, 0);
+    // Size in bytes at which the "log", "group" or "idempotent" store file is compacted into a snapshot of the latest
+    // value of each key plus the log tail. Zero disables compaction.
+    private static final long STORE_COMPACT_BYTES = Utils.getEnvOrDefault("STORE_COMPACT_BYTES", Long::parseUnsignedLong, 0L);
+    // Interval in milliseconds between checks of the store file size when STORE_COMPACT_BYTES is non-zero.
+    private static final Duration STORE_COMPACT_CHECK_INTERVAL = Utils.getEnvOrDefault("STORE_COMPACT_CHECK_MILLIS",
+            value -> Duration.ofMillis(Long.parseUnsignedLong(value)), Duration.ofSeconds(10));
+    // Store file, together with its compacted snapshot, used to populate a new "kv" store database before listening.
+    // If not set, a new database starts empty.
+    private static final String STORE_BOOTSTRAP_FILE = Utils.getEnvOrDefault("STORE_BOOTSTRAP_FILE", "");
+    // Number of worker threads used to parse blocks ahead of processing. Zero processes each block inline as it is received.
+    private static final int PARSE_THREADS = Utils.getEnvOrDefault("PARSE_THREADS", Integer::parseUnsignedInt, 0);
+    // Maximum number of received blocks waiting to be processed when PARSE_THREADS is non-zero.
+    private static final int PIPELINE_QUEUE_SIZE = Utils.getEnvOrDefault("PIPELINE_QUEUE_SIZE", Integer::parseUnsignedInt, 16);
+    // Maximum total size in bytes of received blocks not yet applied when PARSE_THREADS is non-zero. Zero places no limit.
+    private static final long PIPELINE_MAX_BYTES = Utils.getEnvOrDefault("PIPELINE_MAX_BYTES", Long::parseUnsignedLong, 0L);
+    // Whether to decode the transactions within each block in parallel.
+    private static final boolean PARALLEL_DECODE = Utils.getEnvOrDefault("PARALLEL_DECODE", Boolean::parseBoolean, false);
+    // Comma-separated chaincode namespaces to process. If not set, all namespaces are processed.
+    private static final List<String> INCLUDE_NAMESPACES = Utils.getEnvOrDefault("INCLUDE_NAMESPACES", Listen::splitList, List.of());
+    // Comma-separated chaincode namespaces to ignore, in addition to system chaincode namespaces.
+    private static final List<String> EXCLUDE_NAMESPACES = Utils.getEnvOrDefault("EXCLUDE_NAMESPACES", Listen::splitList, List.of());
+    // Only keys starting with this prefix are processed.
+    private static final String KEY_PREFIX = Utils.getEnvOrDefault("KEY_PREFIX", "");
+    // Off-chain store implementation: "log" appends each transaction's writes to the store file individually; "group"
+    // buffers writes from many transactions and commits them to the store file together; "segment" appends binary
+    // records to memory-mapped segment files; "idempotent" appends one line per transaction recording its block
+    // position, ignoring transactions already stored; "kv" maintains the current value of each key in an embedded key-value
+    // database; "columnar" writes compressed row groups to a columnar file for analytics.
+    private static final String STORE_TYPE = Utils.getEnvOrDefault("STORE_TYPE", "log");
+    // Minimum buffered size in bytes at which "group" store writes are committed. Zero commits at the end of every block.
+    private static final long STORE_COMMIT_BYTES = Utils.getEnvOrDefault("STORE_COMMIT_BYTES", Long::parseUnsignedLong, 0L);
+    // Maximum time in milliseconds that "group" store writes are buffered before being committed.
+    private static final Duration STORE_COMMIT_INTERVAL = Utils.getEnvOrDefault("STORE_COMMIT_MILLIS",
+            value -> Duration.ofMillis(Long.parseUnsignedLong(value)), Duration.ofSeconds(1));
+    // Whether "group" store commits and "segment", "idempotent" or "kv" store transactions are forced to disk with fsync.
+    private static final boolean STORE_FSYNC = Utils.getEnvOrDefault("STORE_FSYNC", Boolean::parseBoolean, true);
 
+    // Number of shard worker threads applying writes to the store concurrently, partitioned by namespace and key. Zero
+    // applies each transaction's writes on the processing thread.
+    private static final int APPLY_SHARDS = Utils.getEnvOrDefault("APPLY_SHARDS", Integer::parseUnsignedInt, 0);
+    // Directory holding the "kv" store database files.
+    private static final Path STORE_DIR = Paths.get(Utils.getEnvOrDefault("STORE_DIR", "store.db"));
+    // Approximate size in bytes of "kv" store data held in memory before being written to a sorted table file.
+    private static final long STORE_MEMTABLE_BYTES = Utils.getEnvOrDefault("STORE_MEMTABLE_BYTES", Long::parseUnsignedLong, 16L * 1024 * 1024);
+    // Directory holding the "segment" store log segment files.
+    private static final Path STORE_SEGMENT_DIR = Paths.get(Utils.getEnvOrDefault("STORE_SEGMENT_DIR", "store.segments"));
+    // Size in bytes of each "segment" store log segment file.
+    private static final int STORE_SEGMENT_BYTES = Utils.getEnvOrDefault("STORE_SEGMENT_BYTES", Integer::parseUnsignedInt, 64 * 1024 * 1024);
+    // File written by the "columnar" store.
+    private static final Path STORE_COLUMNAR_FILE = Paths.get(Utils.getEnvOrDefault("STORE_COLUMNAR_FILE", "store.columns"));
+    // Number of blocks spanned by each "columnar" store row group.
+    private static final long STORE_ROW_GROUP_BLOCKS = Utils.getEnvOrDefault("STORE_ROW_GROUP_BLOCKS", Long::parseUnsignedLong, 100L);
+
+    // Number of concurrent block events requests used to catch up when far behind the chain height. Zero disables
+    // catch-up, so all blocks are received through the live event stream.
+    private static final int CATCH_UP_THREADS = Utils.getEnvOrDefault("CATCH_UP_THREADS", Integer::parseUnsignedInt, 0);
+    // Number of blocks read by each catch-up request. Catch-up is used only when further than this behind.
+    private static final long CATCH_UP_WINDOW_BLOCKS = Utils.getEnvOrDefault("CATCH_UP_WINDOW_BLOCKS", Long::parseUnsignedLong, 1000L);
+
+    // Directory holding the index of private data collection key hashes. If not set, private data writes are ignored.
+    private static final String KEY_HASH_STORE_DIR = Utils.getEnvOrDefault("KEY_HASH_STORE_DIR", "");
+    // Whether to receive private data with each block, so that private data key names can be recorded in the key hash
+    // index. Requires the client's organization to be a member of the collections, and blocks to be processed inline.
+    private static final boolean PRIVATE_DATA = Utils.getEnvOrDefault("PRIVATE_DATA", Boolean::parseBoolean, false);
+
+    // File or directory of files containing length-delimited blocks, or a directory written using BLOCK_EXPORT_DIR, to
+    // process instead of receiving blocks from the network. If not set, blocks are received from the network.
+    private static final String BLOCK_ARCHIVE = Utils.getEnvOrDefault("BLOCK_ARCHIVE", "");
+    // Directory of an indexed archive to which every received block is written before being processed. If not set,
+    // blocks are not archived.
+    private static final String BLOCK_EXPORT_DIR = Utils.getEnvOrDefault("BLOCK_EXPORT_DIR", "");
+    // Compression of each chunk of archived blocks: "deflate" or "none".
+    private static final Compression BLOCK_EXPORT_COMPRESSION = Utils.getEnvOrDefault("BLOCK_EXPORT_COMPRESSION",
+            value -> Compression.valueOf(value.toUpperCase(Locale.ROOT)), Compression.DEFLATE);
+    // Uncompressed size in bytes of each chunk of archived blocks.
+    private static final int BLOCK_EXPORT_CHUNK_BYTES = Utils.getEnvOrDefault("BLOCK_EXPORT_CHUNK_BYTES", Integer::parseUnsignedInt, 1024 * 1024);
+
+    // Comma-separated channels to listen to concurrently over the shared gRPC connection. Each entry is a channel name,
+    // optionally followed by colon-separated chaincode namespaces to process on that channel, such as "mychannel:basic".
+    // If not set, only CHANNEL_NAME is listened to.
+    private static final List<String> LISTEN_CHANNELS = Utils.getEnvOrDefault("LISTEN_CHANNELS", Listen::splitList, List.of());
+    // Directory holding a subdirectory for each of the LISTEN_CHANNELS, within which the relative checkpoint and store
+    // paths for that channel are resolved.
+    private static final Path CHANNEL_DATA_DIR = Paths.get(Utils.getEnvOrDefault("CHANNEL_DATA_DIR", "channels"));
+    // Number of worker threads shared by all LISTEN_CHANNELS to parse and process received blocks.
+    private static final int LISTEN_WORKER_THREADS = Utils.getEnvOrDefault("LISTEN_WORKER_THREADS", Integer::parseUnsignedInt,
+            Runtime.getRuntime().availableProcessors());
+
+    // Interval in milliseconds between summary lines reporting processing rates and latencies. Zero disables the summary.
+    private static final Duration METRICS_INTERVAL = Utils.getEnvOrDefault("METRICS_INTERVAL_MILLIS",
+            value -> Duration.ofMillis(Long.parseUnsignedLong(value)), Duration.ofSeconds(10));
+
+    private static final String QUERY_SYSTEM_CHAINCODE_NAME = "qscc";
     private static final long START_BLOCK = 0L;
-    private static final Gson GSON = new Gson();
 
+    private final String channelName;
+    private final Path dataDir;
+    private final List<String> includeNamespaces;
+    private final ExecutorService workers;
+    private final ListenerMetrics metrics;
+    private KeyHashStore hashedWriteStore;
+    private BlockArchiveWriter blockArchiveWriter;
     private int transactionCount = 0; // Used only to simulate failures
 
+    /**
+     * Listen to {@link Connections#CHANNEL_NAME}, or to all {@code LISTEN_CHANNELS} if set, with files in the current
+     * working directory.
+     */
+    public Listen() {
+        this(Connections.CHANNEL_NAME, Paths.get(""), INCLUDE_NAMESPACES, null, new ListenerMetrics(LISTEN_CHANNELS.isEmpty()));
+    }
+
+    /**
+     * Listen to one of many channels, with files in a channel-specific directory.
+     * @param channelName Channel name.
+     * @param dataDir Directory against which relative checkpoint and store paths are resolved.
+     * @param includeNamespaces Chaincode namespaces to process. If empty, all namespaces are processed.
+     * @param workers Worker pool on which received blocks are processed. If {@code null}, blocks are processed on the
+     *                receiving thread, or using a {@link BlockPipeline} if {@code PARSE_THREADS} is set.
+     * @param metrics Metrics updated as blocks are processed.
+     */
+    private Listen(final String channelName, final Path dataDir, final List<String> includeNamespaces,
+                   final ExecutorService workers, final ListenerMetrics metrics) {
+        this.channelName = channelName;
+        this.dataDir = dataDir;
+        this.includeNamespaces = includeNamespaces;
+        this.workers = workers;
+        this.metrics = metrics;
+    }
+
     @Override
     public void run(final Channel grpcChannel)
-            throws CertificateException, IOException, InvalidKeyException {
-        try (var gateway = Connections.newGatewayBuilder(grpcChannel).connect();
-             var checkpointer = new FileCheckpointer(CHECKPOINT_FILE)) {
-            var network = gateway.getNetwork(Connections.CHANNEL_NAME);
-
-            System.out.println("Starting event listening from block " + Long.toUnsignedString(checkpointer.getBlockNumber().orElse(START_BLOCK)));
-            System.out.println(checkpointer.getTransactionId()
-                    .map(transactionId -> "Last processed transaction ID within block: " + transactionId)
-                    .orElse("No last processed transaction ID"));
-            if (SIMULATED_FAILURE_COUNT > 0) {
-                System.out.println("Simulating a write failure every " + SIMULATED_FAILURE_COUNT + " transactions");
-            }
-
-            try (var blocks = network.newBlockEventsRequest()
-                    .startBlock(START_BLOCK) // Used only if there is no checkpoint block number
-                    .checkpoint(checkpointer)
-                    .build()
-                    .getEvents()) {
+            throws CertificateException, IOException, InvalidKeyException, InterruptedException, GatewayException, JMException {
+        try (var reporter = new MetricsReporter(metrics, METRICS_INTERVAL)) {
+            if (!LISTEN_CHANNELS.isEmpty()) {
+                listenToChannels(grpcChannel);
+                return;
+            }
+
+            if (!BLOCK_ARCHIVE.isEmpty()) {
+                System.out.println("Reading blocks from archive " + BLOCK_ARCHIVE);
+                listen(null); // No network is used when reading blocks from an archive
+                return;
+            }
+
+            try (var gateway = Connections.newGatewayBuilder(grpcChannel).connect()) {
+                listen(gateway.getNetwork(channelName));
+            }
+        }
+    }
+
+    /**
+     * Listen to all of the {@code LISTEN_CHANNELS} concurrently, using one gateway connection. Each channel has its own
+     * checkpointer and store, and blocks received on every channel are processed on a common pool of worker threads.
+     * Returns when all channels have finished, or throws when any channel fails.
+     */
+    private void listenToChannels(final Channel grpcChannel)
+            throws CertificateException, IOException, InvalidKeyException, InterruptedException, GatewayException {
+        if (!BLOCK_ARCHIVE.isEmpty()) {
+            throw new IllegalArgumentException("BLOCK_ARCHIVE cannot be used with LISTEN_CHANNELS");
+        }
+
+        System.out.println("Listening to " + LISTEN_CHANNELS.size() + " channels using " + LISTEN_WORKER_THREADS + " worker threads");
+        var workerPool = Executors.newFixedThreadPool(LISTEN_WORKER_THREADS, Threads.newPlatformThreadFactory("listen-worker-", true));
+        var receivers = Executors.newCachedThreadPool(Threads.newNumberedThreadFactory("listen-receiver-"));
+        try (var gateway = Connections.newGatewayBuilder(grpcChannel).connect()) {
+            var listeners = new ExecutorCompletionService<Void>(receivers);
+            for (var entry : LISTEN_CHANNELS) {
+                var fields = entry.split(":");
+                var listener = new Listen(fields[0], Files.createDirectories(CHANNEL_DATA_DIR.resolve(fields[0])),
+                        List.of(fields).subList(1, fields.length), workerPool, metrics);
+                var network = gateway.getNetwork(listener.channelName);
+                System.out.println("Listening to channel " + listener.channelName + " with data in " + listener.dataDir);
+                listeners.submit(() -> {
+                    listener.listen(network);
+                    return null;
+                });
+            }
+
+            for (int i = 0; i < LISTEN_CHANNELS.size(); i++) {
+                awaitChannel(listeners.take());
+            }
+        } finally {
+            receivers.shutdownNow();
+            workerPool.shutdownNow();
+        }
+    }
+
+    private static void awaitChannel(final Future<Void> listener) throws IOException, InterruptedException, GatewayException {
+        try {
+            listener.get();
+        } catch (ExecutionException e) {
+            var cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof GatewayException) {
+                throw (GatewayException) cause;
+            }
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void listen(final Network network) throws IOException, InterruptedException, GatewayException {
+        try (var keyHashStore = newKeyHashStore();
+             var blockExport = newBlockArchiveWriter()) {
+            hashedWriteStore = keyHashStore;
+            blockArchiveWriter = blockExport;
+
+            if ("batch".equals(CHECKPOINT_TYPE)) {
+                try (var checkpointer = new BatchingCheckpointer(resolve(CHECKPOINT_FILE), CHECKPOINT_FLUSH_BLOCKS, CHECKPOINT_FLUSH_INTERVAL)) {
+                    listen(network, checkpointer);
+                }
+            } else {
+                try (var checkpointer = new FileCheckpointer(resolve(CHECKPOINT_FILE))) {
+                    listen(network, checkpointer);
+                }
+            }
+        }
+    }
+
+    private Path resolve(final Path path) {
+        return dataDir.resolve(path);
+    }
+
+    private void listen(final Network network, final Checkpointer checkpointer)
+            throws IOException, InterruptedException, GatewayException {
+        System.out.println("Starting event listening from block " + Long.toUnsignedString(checkpointer.getBlockNumber().orElse(START_BLOCK)));
+        System.out.println(checkpointer.getTransactionId()
+                .map(transactionId -> "Last processed transaction ID within block: " + transactionId)
+                .orElse("No last processed transaction ID"));
+        if (SIMULATED_FAILURE_COUNT > 0) {
+            System.out.println("Simulating a write failure every " + SIMULATED_FAILURE_COUNT + " transactions");
+        }
+
+        if ("group".equals(STORE_TYPE)) {
+            try (var store = new GroupCommitStore(resolve(STORE_FILE), checkpointer, STORE_COMMIT_BYTES, STORE_COMMIT_INTERVAL, STORE_FSYNC);
+                 var compactor = newLogCompactor(store)) {
+                processBlocks(network, store.getCheckpointer(), store);
+            }
+        } else if ("columnar".equals(STORE_TYPE)) {
+            try (var store = new ColumnarStore(resolve(STORE_COLUMNAR_FILE), checkpointer, STORE_ROW_GROUP_BLOCKS, STORE_FSYNC)) {
+                processBlocks(network, store.getCheckpointer(), store);
+            }
+        } else if ("segment".equals(STORE_TYPE)) {
+            try (var store = new SegmentedLogStore(resolve(STORE_SEGMENT_DIR), STORE_SEGMENT_BYTES, STORE_FSYNC)) {
+                processBlocks(network, checkpointer, store);
+            }
+        } else if ("idempotent".equals(STORE_TYPE)) {
+            try (var store = new IdempotentLogStore(resolve(STORE_FILE), STORE_FSYNC);
+                 var compactor = newLogCompactor(store)) {
+                processBlocks(network, checkpointer, store);
+            }
+        } else if ("kv".equals(STORE_TYPE)) {
+            var bootstrap = !STORE_BOOTSTRAP_FILE.isEmpty() && Files.notExists(resolve(STORE_DIR));
+            try (var store = new KeyValueStore(resolve(STORE_DIR), STORE_MEMTABLE_BYTES, STORE_FSYNC)) {
+                if (bootstrap) {
+                    bootstrapStore(store, checkpointer);
+                }
+                processBlocks(network, checkpointer, store);
+            }
+        } else {
+            var store = new LogStore(resolve(STORE_FILE));
+            try (var compactor = newLogCompactor(store)) {
+                processBlocks(network, checkpointer, store);
+            }
+        }
+    }
+
+    private static LogCompactor newLogCompactor(final CompactableStore store) {
+        if (STORE_COMPACT_BYTES == 0) {
+            return null;
+        }
+
+        System.out.println("Compacting " + store.getFile() + " when larger than " + STORE_COMPACT_BYTES + " bytes");
+        return new LogCompactor(store, STORE_COMPACT_BYTES, STORE_COMPACT_CHECK_INTERVAL);
+    }
+
+    /**
+     * Populate a new store from the snapshot and tail of a store file. If the store file records transaction
+     * positions and there is no existing checkpoint, listening continues after the last replayed transaction.
+     */
+    private void bootstrapStore(final Store store, final Checkpointer checkpointer) throws IOException {
+        var file = resolve(Paths.get(STORE_BOOTSTRAP_FILE));
+        System.out.println("Bootstrapping store from " + LogCompactor.getSnapshotFile(file) + " and " + file);
+        var position = LogCompactor.replay(file, writes -> store.store(START_BLOCK, "", writes));
+        if (position.isEmpty() || checkpointer.getBlockNumber().isPresent()) {
+            return;
+        }
+
+        var blockNumber = position.get().get("blockNumber").getAsLong();
+        var transactionIndex = position.get().get("transactionIndex").getAsInt();
+        var transactionId = position.get().get("transactionId").getAsString();
+        System.out.println("Continuing after transaction " + transactionId + " in block " + Long.toUnsignedString(blockNumber));
+        if (checkpointer instanceof IndexedCheckpointer) {
+            ((IndexedCheckpointer) checkpointer).checkpointTransaction(blockNumber, transactionIndex, transactionId);
+        } else {
+            checkpointer.checkpointTransaction(blockNumber, transactionId);
+        }
+    }
+
+    private void processBlocks(final Network network, final Checkpointer checkpointer, final Store store)
+            throws IOException, InterruptedException, GatewayException {
+        if (APPLY_SHARDS == 0) {
+            receiveBlocks(network, checkpointer, store);
+            return;
+        }
+
+        if (store instanceof IdempotentLogStore) {
+            throw new IllegalArgumentException("STORE_TYPE=idempotent cannot be used with APPLY_SHARDS");
+        }
+
+        System.out.println("Applying writes using " + APPLY_SHARDS + " shards");
+        try (var shardedStore = new ShardedStore(store, checkpointer, APPLY_SHARDS)) {
+            receiveBlocks(network, shardedStore.getCheckpointer(), shardedStore);
+        }
+    }
+
+    private void receiveBlocks(final Network network, final Checkpointer checkpointer, final Store store)
+            throws IOException, InterruptedException, GatewayException {
+        var offChainStore = new Store() {
+            @Override
+            public void store(final long blockNumber, final String transactionId, final List<Write> writes) throws IOException {
+                simulateFailureIfRequired();
+                store.store(blockNumber, transactionId, writes);
+            }
+
+            @Override
+            public void store(final long blockNumber, final int transactionIndex, final String transactionId, final List<Write> writes)
+                    throws IOException {
+                simulateFailureIfRequired();
+                store.store(blockNumber, transactionIndex, transactionId, writes);
+            }
+        };
+
+        var parserOptions = newParserOptions();
+
+        if (PRIVATE_DATA && BLOCK_ARCHIVE.isEmpty()) {
+            receiveBlocksAndPrivateData(network, checkpointer, offChainStore, parserOptions);
+            return;
+        }
+
+        if (CATCH_UP_THREADS > 0 && BLOCK_ARCHIVE.isEmpty() && blockArchiveWriter == null) {
+            catchUp(network, checkpointer, parserOptions, block -> new BlockProcessor(block, checkpointer, offChainStore, hashedWriteStore, metrics).process());
+        }
+
+        try (var blocks = newBlockSource(network, checkpointer)) {
+            if (workers != null) {
+                new ChannelDispatcher(workers, PIPELINE_QUEUE_SIZE, blockProto -> {
+                    var block = BlockPipeline.decode(blockProto, parserOptions);
+                    new BlockProcessor(block, checkpointer, offChainStore, hashedWriteStore, metrics).process();
+                }).run(blocks);
+            } else if (PARSE_THREADS > 0) {
+                System.out.println("Parsing blocks using " + PARSE_THREADS + " threads");
+                try (var pipeline = new BlockPipeline(PARSE_THREADS, PIPELINE_QUEUE_SIZE, PIPELINE_MAX_BYTES, parserOptions,
+                        block -> new BlockProcessor(block, checkpointer, offChainStore, hashedWriteStore, metrics).process())) {
+                    metrics.setPipelineStats(pipeline.getStats());
+                    pipeline.run(blocks);
+                }
+            } else {
                 blocks.forEachRemaining(blockProto -> {
-                    var block = BlockParser.parseBlock(blockProto);
-                    var processor = new BlockProcessor(block, checkpointer, this::applyWritesToOffChainStore);
+                    var block = BlockParser.parseBlock(blockProto, parserOptions);
+                    var processor = new BlockProcessor(block, checkpointer, offChainStore, hashedWriteStore, metrics);
                     processor.process();
                 });
             }
         }
     }
 
-    private void applyWritesToOffChainStore(final long blockNumber, final String transactionId, final List<Write> writes) throws IOException {
-        simulateFailureIfRequired();
+    private CloseableIterator<org.hyperledger.fabric.protos.common.Block> newBlockSource(final Network network,
+                                                                                       final Checkpointer checkpointer)
+            throws IOException {
+        var checkpointBlock = checkpointer.getBlockNumber().orElse(START_BLOCK);
+        if (blockArchiveWriter == null) {
+            return readBlocks(network, checkpointBlock);
+        }
+
+        // Blocks missing from the end of the archive are received again to be archived, but are not processed again
+        var startBlock = Math.min(checkpointBlock, blockArchiveWriter.getNextBlockNumber());
+        System.out.println("Archiving blocks from block " + Long.toUnsignedString(startBlock) + " to " + resolve(Paths.get(BLOCK_EXPORT_DIR)));
+        return new ArchivingBlockIterator(readBlocks(network, startBlock), blockArchiveWriter, checkpointBlock);
+    }
+
+    private static CloseableIterator<org.hyperledger.fabric.protos.common.Block> readBlocks(final Network network, final long startBlock)
+            throws IOException {
+        if (!BLOCK_ARCHIVE.isEmpty()) {
+            var path = Paths.get(BLOCK_ARCHIVE);
+            return BlockArchiveReader.isArchive(path) ? new BlockArchiveReader(path, startBlock) : new BlockFileReader(path, startBlock);
+        }
+
+        return network.newBlockEventsRequest()
+                .startBlock(startBlock)
+                .build()
+                .getEvents();
+    }
+
+    private void receiveBlocksAndPrivateData(final Network network, final Checkpointer checkpointer, final Store store,
+                                             final ParserOptions parserOptions) {
+        System.out.println("Receiving blocks with private data");
+        try (var blocks = network.newBlockAndPrivateDataEventsRequest()
+                .startBlock(START_BLOCK) // Used only if there is no checkpoint block number
+                .checkpoint(checkpointer)
+                .build()
+                .getEvents()) {
+            blocks.forEachRemaining(blockAndPrivateData -> {
+                var block = BlockParser.parseBlock(blockAndPrivateData, parserOptions);
+                new BlockProcessor(block, checkpointer, store, hashedWriteStore, metrics).process();
+            });
+        }
+    }
+
+    private KeyHashStore newKeyHashStore() throws IOException {
+        if (KEY_HASH_STORE_DIR.isEmpty()) {
+            return null;
+        }
+
+        var directory = resolve(Paths.get(KEY_HASH_STORE_DIR));
+        System.out.println("Recording private data key hashes in " + directory);
+        return new KeyHashStore(directory, STORE_MEMTABLE_BYTES, STORE_FSYNC);
+    }
+
+    private BlockArchiveWriter newBlockArchiveWriter() throws IOException {
+        if (BLOCK_EXPORT_DIR.isEmpty()) {
+            return null;
+        }
+
+        return new BlockArchiveWriter(resolve(Paths.get(BLOCK_EXPORT_DIR)), BLOCK_EXPORT_CHUNK_BYTES, BLOCK_EXPORT_COMPRESSION, STORE_FSYNC);
+    }
 
-        try (var writer = new StringWriter()) {
-            for (var write : writes) {
-                GSON.toJson(write, writer);
-                writer.append('\n');
+    /**
+     * Apply historical blocks using concurrent requests over block ranges until the checkpoint is within one catch-up
+     * window of the chain height. Blocks are checkpointed as they are applied, so live event listening then resumes from
+     * the next unprocessed block.
+     */
+    private static void catchUp(final Network network, final Checkpointer checkpointer, final ParserOptions parserOptions,
+                                final Consumer<Block> applier) throws InterruptedException, GatewayException, InvalidProtocolBufferException {
+        try (var catchUp = new CatchUp(network, CATCH_UP_THREADS, CATCH_UP_WINDOW_BLOCKS, PIPELINE_QUEUE_SIZE, parserOptions, applier)) {
+            while (true) {
+                var startBlock = checkpointer.getBlockNumber().orElse(START_BLOCK);
+                var height = getChainHeight(network);
+                if (height - startBlock <= CATCH_UP_WINDOW_BLOCKS) {
+                    return;
+                }
+
+                System.out.println("Catching up from block " + Long.toUnsignedString(startBlock) + " to block "
+                        + Long.toUnsignedString(height - 1) + " using " + CATCH_UP_THREADS + " concurrent requests");
+                catchUp.run(startBlock, height);
             }
+        }
+    }
+
+    private static long getChainHeight(final Network network) throws GatewayException, InvalidProtocolBufferException {
+        var contract = network.getContract(QUERY_SYSTEM_CHAINCODE_NAME);
+        var result = contract.evaluateTransaction("GetChainInfo", network.getName());
+        return BlockchainInfo.parseFrom(result).getHeight();
+    }
+
+    private static List<String> splitList(final String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private ParserOptions newParserOptions() {
+        var filter = ReadWriteSetFilter.newBuilder()
+                .includeNamespaces(includeNamespaces)
+                .excludeNamespaces(TransactionProcessor.SYSTEM_CHAINCODE_NAMES)
+                .excludeNamespaces(EXCLUDE_NAMESPACES);
+        if (!KEY_PREFIX.isEmpty()) {
+            filter.keyPrefix(KEY_PREFIX);
+        }
 
-            Files.writeString(STORE_FILE, writer.toString(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        var builder = ParserOptions.newBuilder()
+                .filter(filter.build());
+        if (PARALLEL_DECODE) {
+            System.out.println("Decoding transactions in parallel");
+            builder.parallelDecode(ForkJoinPool.commonPool());
         }
+        return builder.build();
     }
 
     private void simulateFailureIfRequired() {
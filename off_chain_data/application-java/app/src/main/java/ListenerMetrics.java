@@ -0,0 +1,162 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import parser.FilterStats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput counters and latency histograms recorded by {@link BlockProcessor} and {@link TransactionProcessor} for
+ * each stage of processing a block: decoding its transactions, filtering read/write sets into writes, storing the
+ * writes, and checkpointing. Recording is lock-free and cheap enough to leave enabled at high block rates.
+ * <p>When blocks are parsed by a {@link BlockPipeline}, its statistics are published along with these metrics. When
+ * listening to several channels, the counters are totals across all channels, and the latest block number is not
+ * tracked since block numbers on different channels are unrelated.</p>
+ */
+public final class ListenerMetrics implements ListenerMetricsMXBean {
+    private final LongAdder blockCount = new LongAdder();
+    private final AtomicLong latestBlock = new AtomicLong(-1);
+    private final LongAdder transactionCount = new LongAdder();
+    private final LongAdder skippedTransactionCount = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+    private final LongAdder filteredNamespaceCount = new LongAdder();
+    private final LongAdder filteredBytes = new LongAdder();
+    private final LongAdder filteredKeyCount = new LongAdder();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram filterLatency = new LatencyHistogram();
+    private final LatencyHistogram storeLatency = new LatencyHistogram();
+    private final LatencyHistogram checkpointLatency = new LatencyHistogram();
+    private final LatencyHistogram blockLatency = new LatencyHistogram();
+    private final boolean trackLatestBlock;
+    private volatile PipelineStats pipelineStats;
+
+    /**
+     * Create metrics for a single channel.
+     */
+    public ListenerMetrics() {
+        this(true);
+    }
+
+    /**
+     * Create metrics.
+     * @param trackLatestBlock Whether to track the latest block number, which is meaningful only if blocks are
+     *                         processed for a single channel.
+     */
+    public ListenerMetrics(final boolean trackLatestBlock) {
+        this.trackLatestBlock = trackLatestBlock;
+    }
+
+    void recordBlock(final long blockNumber, final long startNanos) {
+        blockLatency.recordSince(startNanos);
+        if (trackLatestBlock) {
+            latestBlock.set(blockNumber);
+        }
+        blockCount.increment();
+    }
+
+    void recordParse(final long startNanos) {
+        parseLatency.recordSince(startNanos);
+    }
+
+    void recordFilter(final long startNanos) {
+        filterLatency.recordSince(startNanos);
+    }
+
+    void recordStore(final int writes, final long startNanos) {
+        storeLatency.recordSince(startNanos);
+        transactionCount.increment();
+        writeCount.add(writes);
+    }
+
+    void recordSkippedTransaction() {
+        skippedTransactionCount.increment();
+    }
+
+    void recordFiltered(final FilterStats filterStats) {
+        filteredNamespaceCount.add(filterStats.getSkippedNamespaceCount());
+        filteredBytes.add(filterStats.getSkippedBytes());
+        filteredKeyCount.add(filterStats.getSkippedKeyCount());
+    }
+
+    void recordCheckpoint(final long startNanos) {
+        checkpointLatency.recordSince(startNanos);
+    }
+
+    void setPipelineStats(final PipelineStats stats) {
+        pipelineStats = stats;
+    }
+
+    @Override
+    public long getBlockCount() {
+        return blockCount.sum();
+    }
+
+    @Override
+    public long getLatestBlock() {
+        return latestBlock.get();
+    }
+
+    @Override
+    public long getTransactionCount() {
+        return transactionCount.sum();
+    }
+
+    @Override
+    public long getSkippedTransactionCount() {
+        return skippedTransactionCount.sum();
+    }
+
+    @Override
+    public long getWriteCount() {
+        return writeCount.sum();
+    }
+
+    @Override
+    public long getFilteredNamespaceCount() {
+        return filteredNamespaceCount.sum();
+    }
+
+    @Override
+    public long getFilteredBytes() {
+        return filteredBytes.sum();
+    }
+
+    @Override
+    public long getFilteredKeyCount() {
+        return filteredKeyCount.sum();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getParseLatency() {
+        return parseLatency.getSnapshot();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getFilterLatency() {
+        return filterLatency.getSnapshot();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getStoreLatency() {
+        return storeLatency.getSnapshot();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getCheckpointLatency() {
+        return checkpointLatency.getSnapshot();
+    }
+
+    @Override
+    public LatencyHistogram.Snapshot getBlockLatency() {
+        return blockLatency.getSnapshot();
+    }
+
+    @Override
+    public PipelineStats getPipelineStats() {
+        return pipelineStats;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+/**
+ * Management interface through which {@link ListenerMetrics} are exposed over JMX, for example to JConsole or
+ * VisualVM. Latency attributes are reported as composite values holding the count, mean, percentiles and maximum.
+ */
+public interface ListenerMetricsMXBean {
+    /**
+     * Number of blocks processed.
+     * @return A block count.
+     */
+    long getBlockCount();
+
+    /**
+     * Number of the most recently processed block. Not tracked when listening to several channels.
+     * @return A block number, or -1 if no blocks have been processed or the latest block is not tracked.
+     */
+    long getLatestBlock();
+
+    /**
+     * Number of valid transactions whose writes were passed to the off-chain store.
+     * @return A transaction count.
+     */
+    long getTransactionCount();
+
+    /**
+     * Number of valid transactions skipped because they contained no writes of interest.
+     * @return A transaction count.
+     */
+    long getSkippedTransactionCount();
+
+    /**
+     * Number of writes passed to the off-chain store.
+     * @return A write count.
+     */
+    long getWriteCount();
+
+    /**
+     * Number of namespace read/write sets not decoded because they were excluded by the namespace filter.
+     * @return A namespace count.
+     */
+    long getFilteredNamespaceCount();
+
+    /**
+     * Size of the namespace read/write sets not decoded because they were excluded by the namespace filter.
+     * @return A size in bytes.
+     */
+    long getFilteredBytes();
+
+    /**
+     * Number of reads and writes removed from decoded read/write sets by the key filter.
+     * @return A key count.
+     */
+    long getFilteredKeyCount();
+
+    /**
+     * Time spent decoding the transactions within each block on the processing thread.
+     * @return Latency summary.
+     */
+    LatencyHistogram.Snapshot getParseLatency();
+
+    /**
+     * Time spent decoding and filtering the read/write sets of each transaction into writes.
+     * @return Latency summary.
+     */
+    LatencyHistogram.Snapshot getFilterLatency();
+
+    /**
+     * Time spent passing the writes of each transaction to the off-chain store.
+     * @return Latency summary.
+     */
+    LatencyHistogram.Snapshot getStoreLatency();
+
+    /**
+     * Time spent in each transaction and block checkpoint.
+     * @return Latency summary.
+     */
+    LatencyHistogram.Snapshot getCheckpointLatency();
+
+    /**
+     * Time spent processing each block, including all of the above.
+     * @return Latency summary.
+     */
+    LatencyHistogram.Snapshot getBlockLatency();
+
+    /**
+     * Statistics for each stage of the block pipeline, when blocks are parsed on worker threads.
+     * @return Pipeline statistics, or {@code null} if blocks are not parsed by a pipeline.
+     */
+    PipelineStats getPipelineStats();
+}
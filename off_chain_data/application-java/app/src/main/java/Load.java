@@ -0,0 +1,76 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import io.grpc.Channel;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.cert.CertificateException;
+import java.time.Duration;
+import java.util.Locale;
+
+public final class Load implements Command {
+    // Scheduling: "closed" starts each worker's next operation when its previous one completes; "open" starts
+    // operations at LOAD_TPS regardless of how long earlier operations take.
+    private static final String LOAD_MODE = Utils.getEnvOrDefault("LOAD_MODE", "closed");
+    // Number of closed-loop workers, or the maximum number of operations in progress in open-loop mode.
+    private static final int LOAD_CONCURRENCY = Utils.getEnvOrDefault("LOAD_CONCURRENCY", Integer::parseUnsignedInt, 10);
+    // Operations started per second in open-loop mode.
+    private static final double LOAD_TPS = Utils.getEnvOrDefault("LOAD_TPS", Double::parseDouble, 100.0);
+    // Time in seconds for which load is generated before results are recorded.
+    private static final Duration LOAD_WARMUP = Utils.getEnvOrDefault("LOAD_WARMUP_SECONDS",
+            value -> Duration.ofSeconds(Long.parseUnsignedLong(value)), Duration.ofSeconds(10));
+    // Time in seconds for which results are recorded after the warm-up period.
+    private static final Duration LOAD_DURATION = Utils.getEnvOrDefault("LOAD_DURATION_SECONDS",
+            value -> Duration.ofSeconds(Long.parseUnsignedLong(value)), Duration.ofSeconds(60));
+    // Comma-separated relative weights of each operation.
+    private static final String LOAD_MIX = Utils.getEnvOrDefault("LOAD_MIX", "create=40,transfer=30,delete=10,read=20");
+
+    @Override
+    public void run(final Channel grpcChannel)
+            throws CertificateException, IOException, InvalidKeyException, InterruptedException {
+        try (var gateway = Connections.newGatewayBuilder(grpcChannel).connect()) {
+            var network = gateway.getNetwork(Connections.CHANNEL_NAME);
+            var contract = network.getContract(Connections.CHAINCODE_NAME);
+
+            var smartContract = new AssetTransferBasic(contract);
+
+            var builder = LoadGenerator.newBuilder(smartContract)
+                    .concurrency(LOAD_CONCURRENCY)
+                    .warmUp(LOAD_WARMUP)
+                    .duration(LOAD_DURATION);
+            if (isOpenLoop()) {
+                builder.targetTps(LOAD_TPS);
+            }
+            addWeights(builder);
+
+            builder.build().run();
+        }
+    }
+
+    private static boolean isOpenLoop() {
+        switch (LOAD_MODE) {
+            case "open":
+                return true;
+            case "closed":
+                return false;
+            default:
+                throw new IllegalArgumentException("Unknown LOAD_MODE: " + LOAD_MODE);
+        }
+    }
+
+    private static void addWeights(final LoadGenerator.Builder builder) {
+        for (var entry : LOAD_MIX.split(",")) {
+            var parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid LOAD_MIX entry: " + entry);
+            }
+
+            var operation = LoadGenerator.Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            builder.weight(operation, Integer.parseUnsignedInt(parts[1].trim()));
+        }
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.hyperledger.fabric.client.CommitStatusException;
+import org.hyperledger.fabric.client.EndorseException;
+import org.hyperledger.fabric.client.GatewayException;
+import org.hyperledger.fabric.client.Proposal;
+import org.hyperledger.fabric.client.SubmitException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generates a mix of create, transfer, delete and read operations against the asset-transfer-basic smart contract,
+ * recording the latency of the endorse, submit and commit status steps of each submitted transaction separately.
+ * <p>In closed-loop mode, a fixed number of workers each start their next operation as soon as the previous one
+ * completes, so the offered load falls as the network slows down. In open-loop mode, operations start at a fixed target
+ * rate regardless of how long earlier operations take, and transaction and read latency is measured from the time at
+ * which each operation was due to start, so that queuing delay is not hidden. Operations due to start while the
+ * concurrency limit is reached are dropped and counted.</p>
+ * <p>Only operations starting after the warm-up period are recorded. Transfer, delete and read operations act on
+ * assets created by this generator, and create a new asset instead when none is available.</p>
+ */
+public final class LoadGenerator {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * Smart contract operations performed by the generator.
+     */
+    public enum Operation {
+        CREATE, TRANSFER, DELETE, READ
+    }
+
+    private final AssetTransferBasic smartContract;
+    private final boolean openLoop;
+    private final double targetTps;
+    private final int concurrency;
+    private final Duration warmUp;
+    private final Duration duration;
+    private final List<Operation> weightedOperations;
+    private final BlockingDeque<Asset> assets = new LinkedBlockingDeque<>();
+
+    private final LatencyHistogram endorseLatency = new LatencyHistogram();
+    private final LatencyHistogram submitLatency = new LatencyHistogram();
+    private final LatencyHistogram commitStatusLatency = new LatencyHistogram();
+    private final LatencyHistogram transactionLatency = new LatencyHistogram();
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+    private final Map<Operation, LongAdder> completed = new EnumMap<>(Operation.class);
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private long measureStartNanos;
+
+    private LoadGenerator(final Builder builder) {
+        this.smartContract = builder.smartContract;
+        this.openLoop = builder.targetTps > 0;
+        this.targetTps = builder.targetTps;
+        this.concurrency = builder.concurrency;
+        this.warmUp = builder.warmUp;
+        this.duration = builder.duration;
+        this.weightedOperations = builder.weightedOperations();
+
+        for (var operation : Operation.values()) {
+            completed.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Create a builder for a load generator.
+     * @param smartContract Smart contract against which operations are performed.
+     * @return A builder.
+     */
+    public static Builder newBuilder(final AssetTransferBasic smartContract) {
+        return new Builder(smartContract);
+    }
+
+    /**
+     * Generate load for the warm-up period followed by the measurement period, wait for operations in progress to
+     * complete, and print the results.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public void run() throws InterruptedException {
+        System.out.println("Generating load: " + describe());
+
+        var startNanos = System.nanoTime();
+        measureStartNanos = startNanos + warmUp.toNanos();
+        var endNanos = measureStartNanos + duration.toNanos();
+
+        var executor = Executors.newCachedThreadPool(Threads.newNumberedThreadFactory("load-worker-"));
+        try {
+            if (openLoop) {
+                runOpenLoop(executor, startNanos, endNanos);
+            } else {
+                runClosedLoop(executor, endNanos);
+            }
+        } finally {
+            executor.shutdown();
+            while (!executor.awaitTermination(Math.max(endNanos - System.nanoTime(), 0) + PROGRESS_INTERVAL_NANOS, TimeUnit.NANOSECONDS)) {
+                System.out.println("Waiting for operations in progress to complete");
+            }
+        }
+
+        printResults();
+    }
+
+    private void runClosedLoop(final ExecutorService executor, final long endNanos) {
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                for (var now = System.nanoTime(); now - endNanos < 0; now = System.nanoTime()) {
+                    perform(now);
+                }
+            });
+        }
+    }
+
+    private void runOpenLoop(final ExecutorService executor, final long startNanos, final long endNanos) throws InterruptedException {
+        var permits = new Semaphore(concurrency);
+        var intervalNanos = NANOS_PER_SECOND / targetTps;
+
+        // Start times are derived from the operation count, so that delays in starting one operation are not carried
+        // forward to all later operations
+        for (long n = 0;; n++) {
+            var dueNanos = startNanos + (long) (n * intervalNanos);
+            if (dueNanos - endNanos >= 0) {
+                return;
+            }
+
+            parkUntil(dueNanos);
+            if (!permits.tryAcquire()) {
+                if (isMeasured(dueNanos)) {
+                    dropped.increment();
+                }
+                continue;
+            }
+
+            executor.execute(() -> {
+                try {
+                    perform(dueNanos);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+    }
+
+    private static void parkUntil(final long deadlineNanos) throws InterruptedException {
+        for (var remaining = deadlineNanos - System.nanoTime(); remaining > 0; remaining = deadlineNanos - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private boolean isMeasured(final long operationStartNanos) {
+        return operationStartNanos - measureStartNanos >= 0;
+    }
+
+    /**
+     * Perform one randomly chosen operation.
+     * @param startNanos Time at which the operation started, or was due to start.
+     */
+    private void perform(final long startNanos) {
+        var operation = Utils.randomElement(weightedOperations);
+        var asset = operation == Operation.CREATE ? null : assets.pollFirst();
+        if (asset == null) {
+            operation = Operation.CREATE;
+        }
+
+        try {
+            var success = perform(operation, asset, startNanos);
+            if (success && isMeasured(startNanos)) {
+                completed.get(operation).increment();
+            }
+        } catch (EndorseException e) {
+            recordFailure(startNanos, "endorse");
+        } catch (SubmitException e) {
+            recordFailure(startNanos, "submit");
+        } catch (CommitStatusException e) {
+            recordFailure(startNanos, "commit status");
+        } catch (GatewayException e) {
+            recordFailure(startNanos, "evaluate");
+        } catch (RuntimeException e) {
+            recordFailure(startNanos, e.getClass().getSimpleName());
+        }
+    }
+
+    private boolean perform(final Operation operation, final Asset asset, final long startNanos) throws GatewayException,
+            EndorseException, SubmitException, CommitStatusException {
+        switch (operation) {
+            case CREATE:
+                return create(startNanos);
+            case TRANSFER:
+                return transfer(asset, startNanos);
+            case DELETE:
+                return delete(asset, startNanos);
+            case READ:
+                return read(asset, startNanos);
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    private boolean create(final long startNanos) throws EndorseException, SubmitException, CommitStatusException {
+        var asset = TransactApp.newAsset();
+        var created = submit(smartContract.newCreateAssetProposal(asset), startNanos);
+        if (created) {
+            assets.addLast(asset);
+        }
+        return created;
+    }
+
+    private boolean transfer(final Asset asset, final long startNanos) throws EndorseException, SubmitException, CommitStatusException {
+        try {
+            var newOwner = TransactApp.newOwner(asset.getOwner());
+            var transferred = submit(smartContract.newTransferAssetProposal(asset.getId(), newOwner), startNanos);
+            if (transferred) {
+                asset.setOwner(newOwner);
+            }
+            return transferred;
+        } finally {
+            // The asset still exists whether or not the transfer succeeded
+            assets.addLast(asset);
+        }
+    }
+
+    private boolean delete(final Asset asset, final long startNanos) throws EndorseException, SubmitException, CommitStatusException {
+        var deleted = false;
+        try {
+            deleted = submit(smartContract.newDeleteAssetProposal(asset.getId()), startNanos);
+            return deleted;
+        } finally {
+            if (!deleted) {
+                assets.addLast(asset);
+            }
+        }
+    }
+
+    private boolean read(final Asset asset, final long startNanos) throws GatewayException {
+        try {
+            smartContract.readAsset(asset.getId());
+        } finally {
+            assets.addLast(asset);
+        }
+
+        if (isMeasured(startNanos)) {
+            readLatency.recordSince(startNanos);
+        }
+        return true;
+    }
+
+    /**
+     * Endorse and submit a transaction, and wait for its commit status, timing each step separately.
+     * @return {@code true} if the transaction committed successfully; otherwise {@code false}.
+     */
+    private boolean submit(final Proposal proposal, final long startNanos) throws EndorseException, SubmitException, CommitStatusException {
+        var endorseStartNanos = System.nanoTime();
+        var transaction = proposal.endorse();
+        var submitStartNanos = System.nanoTime();
+        var commit = transaction.submitAsync();
+        var statusStartNanos = System.nanoTime();
+        var status = commit.getStatus();
+        var endNanos = System.nanoTime();
+
+        if (!isMeasured(startNanos)) {
+            return status.isSuccessful();
+        }
+
+        endorseLatency.record(submitStartNanos - endorseStartNanos);
+        submitLatency.record(statusStartNanos - submitStartNanos);
+        commitStatusLatency.record(endNanos - statusStartNanos);
+        transactionLatency.record(endNanos - startNanos);
+
+        if (!status.isSuccessful()) {
+            recordFailure(startNanos, status.getCode().name());
+        }
+        return status.isSuccessful();
+    }
+
+    private void recordFailure(final long startNanos, final String reason) {
+        if (isMeasured(startNanos)) {
+            failures.computeIfAbsent(reason, k -> new LongAdder()).increment();
+        }
+    }
+
+    private String describe() {
+        var mode = openLoop
+                ? String.format("open loop at %.1f TPS with at most %d concurrent operations", targetTps, concurrency)
+                : String.format("closed loop with %d concurrent operations", concurrency);
+        return String.format("%s for %d s after %d s warm-up", mode, duration.toSeconds(), warmUp.toSeconds());
+    }
+
+    private void printResults() {
+        var total = completed.values().stream().mapToLong(LongAdder::sum).sum();
+        var seconds = (double) duration.toNanos() / NANOS_PER_SECOND;
+
+        System.out.println("\nLoad results: " + describe());
+        System.out.printf("Completed operations: %d (%.1f per second)%n", total, total / seconds);
+        completed.forEach((operation, count) -> System.out.printf("    %s: %d%n", operation, count.sum()));
+        System.out.println("Failed operations: " + failures.values().stream().mapToLong(LongAdder::sum).sum());
+        failures.forEach((reason, count) -> System.out.printf("    %s: %d%n", reason, count.sum()));
+        if (openLoop) {
+            System.out.println("Dropped operations: " + dropped.sum());
+        }
+
+        System.out.println("Latency:");
+        System.out.println("    Endorse:       " + endorseLatency);
+        System.out.println("    Submit:        " + submitLatency);
+        System.out.println("    Commit status: " + commitStatusLatency);
+        System.out.println("    Transaction:   " + transactionLatency);
+        System.out.println("    Read:          " + readLatency);
+    }
+
+    /**
+     * Builder used to create a {@link LoadGenerator}.
+     */
+    public static final class Builder {
+        private static final int DEFAULT_CONCURRENCY = 10;
+        private static final Duration DEFAULT_WARM_UP = Duration.ofSeconds(10);
+        private static final Duration DEFAULT_DURATION = Duration.ofSeconds(60);
+
+        private final AssetTransferBasic smartContract;
+        private final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        private double targetTps;
+        private int concurrency = DEFAULT_CONCURRENCY;
+        private Duration warmUp = DEFAULT_WARM_UP;
+        private Duration duration = DEFAULT_DURATION;
+
+        private Builder(final AssetTransferBasic smartContract) {
+            this.smartContract = smartContract;
+        }
+
+        /**
+         * Start operations at a fixed rate (open loop). If not set, each concurrent worker starts its next operation
+         * as soon as the previous one completes (closed loop).
+         * @param targetTps Operations started per second.
+         * @return This builder.
+         */
+        public Builder targetTps(final double targetTps) {
+            this.targetTps = targetTps;
+            return this;
+        }
+
+        /**
+         * Number of concurrent workers in closed-loop mode, or the maximum number of operations in progress in
+         * open-loop mode. The default is 10.
+         * @param concurrency An operation count.
+         * @return This builder.
+         */
+        public Builder concurrency(final int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Time for which load is generated before results are recorded. The default is 10 seconds.
+         * @param warmUp A duration.
+         * @return This builder.
+         */
+        public Builder warmUp(final Duration warmUp) {
+            this.warmUp = warmUp;
+            return this;
+        }
+
+        /**
+         * Time for which results are recorded after the warm-up period. The default is 60 seconds.
+         * @param duration A duration.
+         * @return This builder.
+         */
+        public Builder duration(final Duration duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        /**
+         * Relative frequency of an operation. Operations with no weight set are not performed. If no weights are set,
+         * only create operations are performed.
+         * @param operation An operation.
+         * @param weight A non-negative weight.
+         * @return This builder.
+         */
+        public Builder weight(final Operation operation, final int weight) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + operation + ": " + weight);
+            }
+            weights.put(operation, weight);
+            return this;
+        }
+
+        private List<Operation> weightedOperations() {
+            var result = new ArrayList<Operation>();
+            weights.forEach((operation, weight) -> result.addAll(Collections.nCopies(weight, operation)));
+            return result.isEmpty() ? List.of(Operation.CREATE) : List.copyOf(result);
+        }
+
+        /**
+         * Create the load generator.
+         * @return A load generator.
+         */
+        public LoadGenerator build() {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Concurrency must be at least 1: " + concurrency);
+            }
+            return new LoadGenerator(this);
+        }
+    }
+}
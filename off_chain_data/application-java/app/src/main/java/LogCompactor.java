@@ -0,0 +1,354 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.protobuf.ByteString;
+import kvstore.StateKey;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compacts the JSON lines log file of a {@link CompactableStore} into a snapshot holding the latest value of each
+ * ledger key, plus the tail of the log. Compaction reads the previous snapshot and the complete lines of the log, drops
+ * overwritten values and deleted keys, writes a new snapshot file, and then removes the compacted lines from the start
+ * of the log. Lines appended to the log while compaction is in progress are kept in the tail.
+ * <p>The snapshot file is written next to the log file with a {@code .snapshot} suffix. Its first line is a JSON object
+ * recording the position of the last transaction captured in the snapshot, if the log records transaction positions,
+ * and each following line is a write in the same JSON format as the log, sorted by channel name, namespace and key.
+ * Replaying the snapshot followed by the log tail, using {@link #replay(Path, WriteHandler)}, produces the same state
+ * as replaying the full history of writes.</p>
+ * <p>The latest value of every live key is held in memory during compaction.</p>
+ */
+public final class LogCompactor implements AutoCloseable {
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BLOCK_NUMBER_FIELD = "blockNumber";
+    private static final String TRANSACTION_INDEX_FIELD = "transactionIndex";
+    private static final String TRANSACTION_ID_FIELD = "transactionId";
+    private static final String WRITES_FIELD = "writes";
+    private static final int REPLAY_BATCH_SIZE = 1000;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final CompactableStore store;
+    private final long compactBytes;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(Threads.newThreadFactory("store-compaction"));
+
+    /**
+     * Start compacting a store's log file in the background.
+     * @param store A store.
+     * @param compactBytes Log file size at which the log is compacted.
+     * @param checkInterval Interval between checks of the log file size.
+     */
+    public LogCompactor(final CompactableStore store, final long compactBytes, final Duration checkInterval) {
+        this.store = store;
+        this.compactBytes = compactBytes;
+
+        var millis = Math.max(checkInterval.toMillis(), 1);
+        executor.scheduleWithFixedDelay(this::compactIfRequired, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    private void compactIfRequired() {
+        try {
+            if (Files.exists(store.getFile()) && Files.size(store.getFile()) >= compactBytes) {
+                compact();
+            }
+        } catch (IOException | RuntimeException e) {
+            // The log is left unchanged, so compaction is attempted again on the next check
+            System.err.println("Store compaction failed: " + e);
+        }
+    }
+
+    /**
+     * Compact the log file into the snapshot.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void compact() throws IOException {
+        var logFile = store.getFile();
+        var snapshotFile = getSnapshotFile(logFile);
+        var builder = new SnapshotBuilder();
+        readLines(snapshotFile, Long.MAX_VALUE, builder);
+        var offset = readLines(logFile, Files.size(logFile), builder);
+        if (offset == 0) {
+            return;
+        }
+
+        var tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + TEMP_SUFFIX);
+        try (var out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            writeSnapshot(out, builder.position, builder.state);
+        }
+        try (var channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        store.truncateHead(offset);
+        System.out.println("Compacted " + logFile + " into " + builder.state.size() + " live keys");
+    }
+
+    private static void writeSnapshot(final BufferedWriter out, final JsonObject position, final Map<StateKey, String> state)
+            throws IOException {
+        out.write(position != null ? position.toString() : "{}");
+        out.newLine();
+        for (var line : state.values()) {
+            out.write(line);
+            out.newLine();
+        }
+    }
+
+    /**
+     * Snapshot file for a log file.
+     * @param logFile A log file.
+     * @return Snapshot file path.
+     */
+    public static Path getSnapshotFile(final Path logFile) {
+        return logFile.resolveSibling(logFile.getFileName() + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Replace a log file with the lines following an offset, atomically.
+     * @param logFile A log file.
+     * @param offset Position of the first line to keep.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void replaceWithTail(final Path logFile, final long offset) throws IOException {
+        var tempFile = logFile.resolveSibling(logFile.getFileName() + TEMP_SUFFIX);
+        try (var source = FileChannel.open(logFile, StandardOpenOption.READ);
+             var target = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            var size = source.size();
+            for (var position = offset; position < size; ) {
+                position += source.transferTo(position, size - position, target);
+            }
+            target.force(true);
+        }
+        Files.move(tempFile, logFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Position of the last transaction captured in the snapshot of a log file, for logs that record transaction
+     * positions.
+     * @param logFile A log file.
+     * @return A JSON object with block number, transaction index and transaction ID fields, or empty if not known.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static Optional<JsonObject> getSnapshotPosition(final Path logFile) throws IOException {
+        var snapshotFile = getSnapshotFile(logFile);
+        if (!Files.exists(snapshotFile)) {
+            return Optional.empty();
+        }
+
+        try (var in = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            var line = in.readLine();
+            var json = line != null ? JsonParser.parseString(line).getAsJsonObject() : new JsonObject();
+            return isPosition(json) ? Optional.of(json) : Optional.empty();
+        }
+    }
+
+    /**
+     * Replay the writes in the snapshot of a log file, followed by the writes in the log file itself, in batches.
+     * @param logFile A log file.
+     * @param handler Receives each batch of writes, in order.
+     * @return Position of the last transaction replayed, if the log records transaction positions.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static Optional<JsonObject> replay(final Path logFile, final WriteHandler handler) throws IOException {
+        var replayer = new Replayer(handler);
+        readLines(getSnapshotFile(logFile), Long.MAX_VALUE, replayer);
+        readLines(logFile, Long.MAX_VALUE, replayer);
+        replayer.flush();
+        return Optional.ofNullable(replayer.position);
+    }
+
+    /**
+     * Pass each complete line before a limit to a handler. The first line of a snapshot file, which records its
+     * position, is passed like any other line.
+     * @return Position after the last complete line, or zero if the file does not exist.
+     */
+    private static long readLines(final Path file, final long limit, final LineHandler handler) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        var buffer = new byte[READ_BUFFER_BYTES];
+        var line = new ByteArrayOutputStream();
+        var offset = 0L;
+        var end = 0L;
+        try (var in = Files.newInputStream(file)) {
+            for (var count = in.read(buffer); count >= 0 && offset < limit; count = in.read(buffer)) {
+                var length = (int) Math.min(count, limit - offset);
+                var lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (buffer[i] != '\n') {
+                        continue;
+                    }
+
+                    line.write(buffer, lineStart, i - lineStart);
+                    if (line.size() > 0) {
+                        handler.accept(line.toString(StandardCharsets.UTF_8));
+                    }
+                    line.reset();
+                    lineStart = i + 1;
+                    end = offset + lineStart;
+                }
+                line.write(buffer, lineStart, length - lineStart);
+                offset += length;
+            }
+        }
+        return end;
+    }
+
+    private static StateKey stateKey(final JsonObject write) {
+        return new StateKey(write.get("channelName").getAsString(), write.get("namespace").getAsString(),
+                write.get("key").getAsString());
+    }
+
+    private static JsonObject toPosition(final JsonObject json) {
+        var result = new JsonObject();
+        result.add(BLOCK_NUMBER_FIELD, json.get(BLOCK_NUMBER_FIELD));
+        result.add(TRANSACTION_INDEX_FIELD, json.get(TRANSACTION_INDEX_FIELD));
+        if (json.has(TRANSACTION_ID_FIELD)) {
+            result.add(TRANSACTION_ID_FIELD, json.get(TRANSACTION_ID_FIELD));
+        }
+        return result;
+    }
+
+    private static boolean isTransaction(final JsonObject json) {
+        return json.has(WRITES_FIELD);
+    }
+
+    private static boolean isPosition(final JsonObject json) {
+        return json.has(BLOCK_NUMBER_FIELD) && json.has(TRANSACTION_INDEX_FIELD);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Receives the lines of a log or snapshot file.
+     */
+    @FunctionalInterface
+    private interface LineHandler {
+        void accept(String line) throws IOException;
+    }
+
+    /**
+     * Receives batches of replayed writes.
+     */
+    @FunctionalInterface
+    public interface WriteHandler {
+        /**
+         * Apply a batch of writes.
+         * @param writes Writes in the order they were made.
+         * @throws IOException if an I/O error occurs.
+         */
+        void accept(List<Write> writes) throws IOException;
+    }
+
+    /**
+     * Applies lines to the latest value of each key, and tracks the last transaction position.
+     */
+    private static final class SnapshotBuilder implements LineHandler {
+        private final Map<StateKey, String> state = new TreeMap<>();
+        private JsonObject position;
+
+        @Override
+        public void accept(final String line) {
+            var json = JsonParser.parseString(line).getAsJsonObject();
+            if (isTransaction(json)) {
+                position = toPosition(json);
+                for (var write : json.getAsJsonArray(WRITES_FIELD)) {
+                    apply(write.getAsJsonObject(), write.toString());
+                }
+            } else if (json.has("key")) {
+                apply(json, line);
+            } else if (isPosition(json)) {
+                position = json; // First line of a snapshot
+            }
+        }
+
+        private void apply(final JsonObject write, final String line) {
+            var key = stateKey(write);
+            if (write.get("isDelete").getAsBoolean()) {
+                state.remove(key);
+            } else {
+                state.put(key, line);
+            }
+        }
+    }
+
+    /**
+     * Converts lines to writes, passing them to a handler in batches.
+     */
+    private static final class Replayer implements LineHandler {
+        private final WriteHandler handler;
+        private final List<Write> batch = new ArrayList<>();
+        private JsonObject position;
+
+        Replayer(final WriteHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void accept(final String line) throws IOException {
+            var json = JsonParser.parseString(line).getAsJsonObject();
+            if (isPosition(json)) {
+                position = toPosition(json);
+            }
+
+            if (isTransaction(json)) {
+                for (var write : json.getAsJsonArray(WRITES_FIELD)) {
+                    batch.add(toWrite(write.getAsJsonObject()));
+                }
+            } else if (json.has("key")) {
+                batch.add(toWrite(json));
+            }
+
+            if (batch.size() >= REPLAY_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            if (!batch.isEmpty()) {
+                handler.accept(batch);
+                batch.clear();
+            }
+        }
+
+        private static Write toWrite(final JsonObject json) {
+            var key = stateKey(json);
+            var isDelete = json.get("isDelete").getAsBoolean();
+            var value = isDelete || !json.has("value") ? ByteString.EMPTY : ByteString.copyFromUtf8(json.get("value").getAsString());
+            var write = KVWrite.newBuilder()
+                    .setKey(key.getKey())
+                    .setIsDelete(isDelete)
+                    .setValue(value)
+                    .build();
+            return new Write(key.getChannelName(), key.getNamespace(), write);
+        }
+    }
+}
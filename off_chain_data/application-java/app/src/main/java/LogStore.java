@@ -0,0 +1,48 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Off-chain store that appends the writes for each transaction to a file as JSON lines, opening the file for each
+ * transaction. Concurrent calls are serialized so that the lines from different calls are never interleaved.
+ */
+public final class LogStore implements CompactableStore {
+    private final Path file;
+
+    /**
+     * Create a store.
+     * @param file Output file to which writes are appended.
+     */
+    public LogStore(final Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void store(final long blockNumber, final String transactionId, final List<Write> writes) throws IOException {
+        var out = new ByteArrayOutputStream();
+        for (var write : writes) {
+            WriteJsonEncoder.encodeLine(write, out);
+        }
+
+        Files.write(file, out.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void truncateHead(final long offset) throws IOException {
+        LogCompactor.replaceWithTail(file, offset);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes {@link ListenerMetrics} as a platform MBean for the lifetime of the reporter, and periodically prints a
+ * single summary line with the processing rates over the last interval and the latency percentiles since startup. The
+ * summary replaces printing a line for every transaction, which is itself costly at high transaction rates. The latest
+ * block number is included only when it is tracked, and pipeline statistics only when blocks are parsed by a
+ * {@link BlockPipeline}.
+ */
+public final class MetricsReporter implements AutoCloseable {
+    private static final String OBJECT_NAME = "offchaindata:type=ListenerMetrics";
+
+    private final ListenerMetrics metrics;
+    private final ObjectName objectName;
+    private final ScheduledExecutorService executor;
+    private long lastNanos = System.nanoTime();
+    private long lastBlockCount;
+    private long lastTransactionCount;
+    private long lastWriteCount;
+
+    /**
+     * Start reporting.
+     * @param metrics Metrics to report.
+     * @param interval Interval between summary lines. Zero disables the summary, leaving the metrics available over JMX.
+     * @throws JMException if the metrics cannot be registered with the platform MBean server.
+     */
+    public MetricsReporter(final ListenerMetrics metrics, final Duration interval) throws JMException {
+        this.metrics = metrics;
+        this.objectName = new ObjectName(OBJECT_NAME);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+
+        if (interval.isZero()) {
+            executor = null;
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(Threads.newThreadFactory("metrics-reporter"));
+        var millis = interval.toMillis();
+        executor.scheduleAtFixedRate(this::printSummary, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void printSummary() {
+        var now = System.nanoTime();
+        var seconds = (double) (now - lastNanos) / TimeUnit.SECONDS.toNanos(1);
+        var blockCount = metrics.getBlockCount();
+        var transactionCount = metrics.getTransactionCount();
+        var writeCount = metrics.getWriteCount();
+
+        var latestBlock = metrics.getLatestBlock();
+        var pipelineStats = metrics.getPipelineStats();
+
+        System.out.println(String.format("Processed %.1f blocks/s, %.1f transactions/s, %.1f writes/s;%s"
+                        + " filtered %d namespaces, %d keys; parse %s; filter %s; store %s; checkpoint %s%s",
+                (blockCount - lastBlockCount) / seconds,
+                (transactionCount - lastTransactionCount) / seconds,
+                (writeCount - lastWriteCount) / seconds,
+                latestBlock >= 0 ? " latest block " + latestBlock + ";" : "",
+                metrics.getFilteredNamespaceCount(),
+                metrics.getFilteredKeyCount(),
+                metrics.getParseLatency(),
+                metrics.getFilterLatency(),
+                metrics.getStoreLatency(),
+                metrics.getCheckpointLatency(),
+                pipelineStats != null ? "; pipeline " + pipelineStats : ""));
+
+        lastNanos = now;
+        lastBlockCount = blockCount;
+        lastTransactionCount = transactionCount;
+        lastWriteCount = writeCount;
+    }
+
+    @Override
+    public void close() throws JMException {
+        if (executor != null) {
+            executor.shutdownNow();
+            printSummary();
+        }
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing the work done by each stage of a {@link BlockPipeline}, used to size the parse worker pool and
+ * the queue between stages, and to monitor how far applying blocks to the off-chain store lags behind receiving them.
+ */
+public final class PipelineStats {
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong blockCount = new AtomicLong();
+    private final AtomicLong latestReceivedBlock = new AtomicLong(-1);
+    private final AtomicLong latestAppliedBlock = new AtomicLong(-1);
+    private final AtomicLong fetchNanos = new AtomicLong();
+    private final AtomicLong parseNanos = new AtomicLong();
+    private final AtomicLong applyWaitNanos = new AtomicLong();
+    private final AtomicLong applyNanos = new AtomicLong();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final AtomicLong maxInFlightBytes = new AtomicLong();
+    private final AtomicLong pauseCount = new AtomicLong();
+    private final AtomicLong pauseNanos = new AtomicLong();
+
+    void recordFetch(final long blockNumber, final long nanos) {
+        fetchNanos.addAndGet(nanos);
+        latestReceivedBlock.set(blockNumber);
+        receivedCount.incrementAndGet();
+    }
+
+    void recordPause(final long nanos) {
+        pauseCount.incrementAndGet();
+        pauseNanos.addAndGet(nanos);
+    }
+
+    void recordInFlightBytes(final long bytes) {
+        inFlightBytes.set(bytes);
+        maxInFlightBytes.accumulateAndGet(bytes, Math::max);
+    }
+
+    void recordParse(final long nanos) {
+        parseNanos.addAndGet(nanos);
+    }
+
+    void recordApply(final long blockNumber, final long waitNanos, final long nanos) {
+        applyWaitNanos.addAndGet(waitNanos);
+        applyNanos.addAndGet(nanos);
+        latestAppliedBlock.set(blockNumber);
+        blockCount.incrementAndGet();
+    }
+
+    void recordQueueDepth(final int depth) {
+        queueDepth.set(depth);
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * Number of blocks that have completed the apply stage.
+     * @return A block count.
+     */
+    public long getBlockCount() {
+        return blockCount.get();
+    }
+
+    /**
+     * Number of the most recent block received from the event stream.
+     * @return A block number, or -1 if no blocks have been received.
+     */
+    public long getLatestReceivedBlock() {
+        return latestReceivedBlock.get();
+    }
+
+    /**
+     * Number of the most recent block applied to the off-chain store.
+     * @return A block number, or -1 if no blocks have been applied.
+     */
+    public long getLatestAppliedBlock() {
+        return latestAppliedBlock.get();
+    }
+
+    /**
+     * Number of blocks received from the event stream but not yet applied to the off-chain store.
+     * @return A block count.
+     */
+    public long getLag() {
+        return receivedCount.get() - blockCount.get();
+    }
+
+    /**
+     * Total serialized size of blocks received but not yet applied, when last sampled.
+     * @return A size in bytes.
+     */
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    /**
+     * Largest total serialized size of blocks observed in flight.
+     * @return A size in bytes.
+     */
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes.get();
+    }
+
+    /**
+     * Number of times receiving blocks from the event stream was paused because the in-flight limit was reached.
+     * @return A pause count.
+     */
+    public long getPauseCount() {
+        return pauseCount.get();
+    }
+
+    /**
+     * Total time for which receiving blocks from the event stream was paused.
+     * @return Elapsed time in nanoseconds.
+     */
+    public long getPauseNanos() {
+        return pauseNanos.get();
+    }
+
+    /**
+     * Number of blocks waiting between the fetch and apply stages when last sampled.
+     * @return A queue depth.
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Largest number of blocks observed waiting between the fetch and apply stages.
+     * @return A queue depth.
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Total time spent waiting for blocks to be received from the event stream.
+     * @return Elapsed time in nanoseconds.
+     */
+    public long getFetchNanos() {
+        return fetchNanos.get();
+    }
+
+    /**
+     * Total time spent parsing blocks, summed across all parse workers.
+     * @return Elapsed time in nanoseconds.
+     */
+    public long getParseNanos() {
+        return parseNanos.get();
+    }
+
+    /**
+     * Total time the apply stage spent waiting for the next block in order to finish parsing. A large value indicates
+     * that the parse worker pool is too small.
+     * @return Elapsed time in nanoseconds.
+     */
+    public long getApplyWaitNanos() {
+        return applyWaitNanos.get();
+    }
+
+    /**
+     * Total time spent applying blocks to the off-chain store and checkpointing.
+     * @return Elapsed time in nanoseconds.
+     */
+    public long getApplyNanos() {
+        return applyNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        var blocks = Math.max(getBlockCount(), 1);
+        return "blocks=" + getBlockCount()
+                + ", latestReceivedBlock=" + getLatestReceivedBlock()
+                + ", latestAppliedBlock=" + getLatestAppliedBlock()
+                + ", lag=" + getLag()
+                + ", inFlightBytes=" + getInFlightBytes()
+                + ", maxInFlightBytes=" + getMaxInFlightBytes()
+                + ", pauses=" + getPauseCount()
+                + ", pausedMillis=" + TimeUnit.NANOSECONDS.toMillis(getPauseNanos())
+                + ", queueDepth=" + getQueueDepth()
+                + ", maxQueueDepth=" + getMaxQueueDepth()
+                + ", avgFetchMillis=" + averageMillis(getFetchNanos(), blocks)
+                + ", avgParseMillis=" + averageMillis(getParseNanos(), blocks)
+                + ", avgApplyWaitMillis=" + averageMillis(getApplyWaitNanos(), blocks)
+                + ", avgApplyMillis=" + averageMillis(getApplyNanos(), blocks);
+    }
+
+    private static double averageMillis(final long nanos, final long count) {
+        return (double) nanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
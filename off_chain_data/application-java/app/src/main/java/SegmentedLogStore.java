@@ -0,0 +1,90 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import segmentlog.LogRecord;
+import segmentlog.SegmentedLog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Off-chain store that appends writes as binary records to a {@link SegmentedLog}. Values are copied into the
+ * memory-mapped log directly from the bytes received in the block, and readers can start from any block number using
+ * the per-segment block index rather than parsing the log from the start.
+ * <p>The log must be appended in block number order, so transactions processed again after a restart are ignored if
+ * their block is earlier than the last block in the log. For transactions in that last block, only writes not already
+ * present are appended, since the block or a transaction within it may have been only partly stored. This allows
+ * the checkpoint to lag behind the log, as a {@code batch} checkpointer does.</p>
+ */
+public final class SegmentedLogStore implements Store, AutoCloseable {
+    private final SegmentedLog log;
+    private final long recoveredBlockNumber;
+    private final Map<String, Integer> recoveredWriteCounts = new HashMap<>();
+
+    /**
+     * Open a store, creating it if it does not exist.
+     * @param directory Directory holding the log segment files.
+     * @param segmentBytes Size of each segment file.
+     * @param sync Whether to force each transaction's writes to disk.
+     * @throws IOException if an I/O error occurs.
+     */
+    public SegmentedLogStore(final Path directory, final int segmentBytes, final boolean sync) throws IOException {
+        this.log = new SegmentedLog(directory, segmentBytes, sync);
+        this.recoveredBlockNumber = log.getLastBlockNumber();
+
+        // The last block may have been only partly stored, so count the writes present for each of its transactions
+        if (recoveredBlockNumber >= 0) {
+            for (var records = log.read(recoveredBlockNumber); records.hasNext();) {
+                recoveredWriteCounts.merge(records.next().getTransactionId(), 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Number of a transaction's writes already stored before a restart.
+     */
+    private int getStoredWriteCount(final long blockNumber, final String transactionId, final int writeCount) {
+        if (blockNumber < recoveredBlockNumber) {
+            return writeCount;
+        }
+        if (blockNumber == recoveredBlockNumber) {
+            return Math.min(recoveredWriteCounts.getOrDefault(transactionId, 0), writeCount);
+        }
+        return 0;
+    }
+
+    @Override
+    public void store(final long blockNumber, final String transactionId, final List<Write> writes) throws IOException {
+        var storedCount = getStoredWriteCount(blockNumber, transactionId, writes.size());
+        if (storedCount == writes.size()) {
+            return; // Stored before a restart
+        }
+
+        for (var write : writes.subList(storedCount, writes.size())) {
+            log.append(new LogRecord(blockNumber, transactionId, write.getChannelName(), write.getNamespace(), write.getKey(),
+                    write.isDelete(), write.getValueBuffer()));
+        }
+        log.commit();
+    }
+
+    /**
+     * Read stored writes, starting from the first write in the specified block or the next block present in the store.
+     * @param startBlock Block number from which to read.
+     * @return Records in the order they were stored.
+     */
+    public Iterator<LogRecord> read(final long startBlock) {
+        return log.read(startBlock);
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import org.hyperledger.fabric.client.ChaincodeEvent;
+import org.hyperledger.fabric.client.Checkpointer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Off-chain store that applies writes concurrently on a number of shard worker threads. Each write is assigned to a
+ * shard by a hash of its namespace and key, and each shard applies its writes one at a time in the order they were
+ * stored, so writes to the same key are always applied in ledger order while writes to different keys proceed in
+ * parallel. The underlying store must be safe for concurrent use. The position of each transaction within its block,
+ * when known, is passed to the underlying store with each shard's writes.
+ * <p>Checkpointing is done through the {@link Checkpointer} returned by {@link #getCheckpointer()}. Writes from a
+ * block can complete in any order across shards, so transaction checkpoints are not persisted. At the end of each
+ * block, all shards are drained before the block checkpoint is passed to the underlying checkpointer. After a restart,
+ * processing resumes from the start of the first block that was not completely applied.</p>
+ */
+public final class ShardedStore implements Store, AutoCloseable {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final Store delegate;
+    private final Checkpointer delegateCheckpointer;
+    private final List<ExecutorService> shards = new ArrayList<>();
+    private final Checkpointer checkpointer = new ShardedCheckpointer();
+    private volatile Throwable failure;
+
+    /**
+     * Create a store.
+     * @param store Underlying store, which must be safe for concurrent use.
+     * @param checkpointer Checkpointer that is updated only after all writes for a block have been applied.
+     * @param shardCount Number of shard worker threads.
+     */
+    public ShardedStore(final Store store, final Checkpointer checkpointer, final int shardCount) {
+        this.delegate = store;
+        this.delegateCheckpointer = checkpointer;
+
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(Executors.newSingleThreadExecutor(Threads.newThreadFactory("store-shard-" + i)));
+        }
+    }
+
+    /**
+     * Checkpointer to be used when processing writes applied to this store. Block checkpoints are passed to the
+     * underlying checkpointer once all writes stored before them have been applied.
+     * @return A checkpointer.
+     */
+    public Checkpointer getCheckpointer() {
+        return checkpointer;
+    }
+
+    @Override
+    public void store(final long blockNumber, final String transactionId, final List<Write> writes) throws IOException {
+        storeSharded(writes, shardWrites -> delegate.store(blockNumber, transactionId, shardWrites));
+    }
+
+    @Override
+    public void store(final long blockNumber, final int transactionIndex, final String transactionId, final List<Write> writes)
+            throws IOException {
+        storeSharded(writes, shardWrites -> delegate.store(blockNumber, transactionIndex, transactionId, shardWrites));
+    }
+
+    private void storeSharded(final List<Write> writes, final ShardWriter writer) throws IOException {
+        checkFailure();
+
+        var shardWrites = new ArrayList<List<Write>>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            shardWrites.add(new ArrayList<>());
+        }
+        for (var write : writes) {
+            shardWrites.get(getShard(write)).add(write);
+        }
+
+        for (int i = 0; i < shards.size(); i++) {
+            var writesForShard = shardWrites.get(i);
+            if (!writesForShard.isEmpty()) {
+                shards.get(i).execute(() -> apply(writer, writesForShard));
+            }
+        }
+    }
+
+    private int getShard(final Write write) {
+        return Math.floorMod(Objects.hash(write.getNamespace(), write.getKey()), shards.size());
+    }
+
+    private void apply(final ShardWriter writer, final List<Write> writes) {
+        if (failure != null) {
+            // Stop applying writes once any shard fails; the block will be processed again after restart.
+            return;
+        }
+
+        try {
+            writer.write(writes);
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Wait until all writes stored so far have been applied.
+     * @throws IOException if applying any write failed.
+     */
+    public void drain() throws IOException {
+        var barriers = shards.stream()
+                .map(shard -> CompletableFuture.runAsync(() -> { }, shard))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(barriers).join();
+        } catch (CompletionException e) {
+            throw new IOException("Shard worker stopped", e.getCause());
+        }
+
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        var cause = failure;
+        if (cause instanceof IOException) {
+            throw new IOException("Failed to apply writes", cause);
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(ExecutorService::shutdown);
+        try {
+            for (var shard : shards) {
+                shard.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stores the subset of a transaction's writes assigned to one shard in the underlying store.
+     */
+    @FunctionalInterface
+    private interface ShardWriter {
+        void write(List<Write> writes) throws IOException;
+    }
+
+    private final class ShardedCheckpointer implements IndexedCheckpointer {
+        @Override
+        public void checkpointBlock(final long blockNumber) throws IOException {
+            drain();
+            delegateCheckpointer.checkpointBlock(blockNumber);
+        }
+
+        @Override
+        public void checkpointTransaction(final long blockNumber, final String transactionId) {
+            // Earlier transactions in the block may not have been applied yet, so only block checkpoints are persisted.
+        }
+
+        @Override
+        public void checkpointTransaction(final long blockNumber, final int transactionIndex, final String transactionId) {
+            // Earlier transactions in the block may not have been applied yet, so only block checkpoints are persisted.
+        }
+
+        @Override
+        public void checkpointChaincodeEvent(final ChaincodeEvent event) {
+            // Chaincode events are not processed by the block listener.
+        }
+
+        @Override
+        public OptionalLong getBlockNumber() {
+            return delegateCheckpointer.getBlockNumber();
+        }
+
+        @Override
+        public Optional<String> getTransactionId() {
+            return delegateCheckpointer.getTransactionId();
+        }
+
+        @Override
+        public OptionalInt getTransactionIndex() {
+            return delegateCheckpointer instanceof IndexedCheckpointer
+                    ? ((IndexedCheckpointer) delegateCheckpointer).getTransactionIndex()
+                    : OptionalInt.empty();
+        }
+    }
+}
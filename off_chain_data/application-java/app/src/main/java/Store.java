@@ -10,4 +10,17 @@ import java.util.List;
 @FunctionalInterface
 public interface Store {
     void store(long blockNumber, String transactionId, List<Write> writes) throws IOException;
+
+    /**
+     * Store the writes for a transaction at a known position within its block. Stores that record the position can
+     * use it to ignore transactions that have already been stored. By default, the position is ignored.
+     * @param blockNumber Block containing the transaction.
+     * @param transactionIndex Index of the transaction within the block.
+     * @param transactionId Transaction ID.
+     * @param writes Ledger writes made by the transaction.
+     * @throws IOException if an I/O error occurs.
+     */
+    default void store(long blockNumber, int transactionIndex, String transactionId, List<Write> writes) throws IOException {
+        store(blockNumber, transactionId, writes);
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the threads used by the listener. Threads that spend most of their time blocked, such as those receiving
+ * events, writing to stores and persisting checkpoints, are virtual threads if {@code VIRTUAL_THREADS} is set, so that
+ * many concurrent subscriptions do not each need a platform thread and its stack. Otherwise, and for pools doing
+ * CPU-bound work, they are daemon platform threads.
+ * <p>Virtual threads require Java 21. The {@code VirtualThreadFactory} class is compiled only by the Java 21 build
+ * variant, and is loaded by name so that the rest of the application can still be built and run on Java 11.</p>
+ */
+public final class Threads {
+    // Whether threads that mostly block on events or I/O are virtual threads. Requires the Java 21 build variant.
+    private static final boolean VIRTUAL_THREADS = Utils.getEnvOrDefault("VIRTUAL_THREADS", Boolean::parseBoolean, false);
+    private static final String VIRTUAL_THREAD_FACTORY_CLASS = "VirtualThreadFactory";
+
+    private Threads() { }
+
+    /**
+     * Create a factory for threads that mostly block, all with the same name. Used for single-thread executors.
+     * @param name Thread name.
+     * @return A thread factory.
+     */
+    public static ThreadFactory newThreadFactory(final String name) {
+        return VIRTUAL_THREADS ? newVirtualThreadFactory(name, false) : newPlatformThreadFactory(name, false);
+    }
+
+    /**
+     * Create a factory for threads that mostly block, named with a prefix followed by a sequence number.
+     * @param prefix Thread name prefix.
+     * @return A thread factory.
+     */
+    public static ThreadFactory newNumberedThreadFactory(final String prefix) {
+        return VIRTUAL_THREADS ? newVirtualThreadFactory(prefix, true) : newPlatformThreadFactory(prefix, true);
+    }
+
+    /**
+     * Create a factory for daemon platform threads, optionally named with a prefix followed by a sequence number.
+     * Used for pools doing CPU-bound work, which gain nothing from virtual threads.
+     * @param name Thread name, or name prefix if numbered.
+     * @param numbered Whether to append a sequence number to the name.
+     * @return A thread factory.
+     */
+    public static ThreadFactory newPlatformThreadFactory(final String name, final boolean numbered) {
+        var count = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, numbered ? name + count.incrementAndGet() : name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Create a factory for virtual threads, optionally named with a prefix followed by a sequence number.
+     * @param name Thread name, or name prefix if numbered.
+     * @param numbered Whether to append a sequence number to the name.
+     * @return A thread factory.
+     * @throws IllegalStateException if the application was not built using the Java 21 build variant.
+     */
+    public static ThreadFactory newVirtualThreadFactory(final String name, final boolean numbered) {
+        try {
+            return (ThreadFactory) Class.forName(VIRTUAL_THREAD_FACTORY_CLASS)
+                    .getConstructor(String.class, boolean.class)
+                    .newInstance(name, numbered);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require the application to be built with -PjavaVersion=21", e);
+        }
+    }
+}
@@ -54,7 +54,7 @@ public final class TransactApp {
 
         // Transfer randomly 1 in 2 assets to a new owner.
         if (Utils.randomInt(2) == 0) { // checkstyle:ignore-line:MagicNumber
-            var newOwner = Utils.differentElement(OWNERS, asset.getOwner());
+            var newOwner = newOwner(asset.getOwner());
             var oldOwner = smartContract.transferAsset(asset.getId(), newOwner);
             System.out.println("Transferred asset " + asset.getId() + " from " + oldOwner + " to " + newOwner);
         }
@@ -66,7 +66,11 @@ public final class TransactApp {
         }
     }
 
-    private Asset newAsset() {
+    /**
+     * Create an asset with a new ID and random properties.
+     * @return An asset.
+     */
+    public static Asset newAsset() {
         var asset = new Asset(UUID.randomUUID().toString());
         asset.setColor(Utils.randomElement(COLORS));
         asset.setSize(Utils.randomInt(MAX_INITIAL_SIZE) + 1);
@@ -74,4 +78,13 @@ public final class TransactApp {
         asset.setAppraisedValue(Utils.randomInt(MAX_INITIAL_VALUE) + 1);
         return asset;
     }
+
+    /**
+     * Pick a random owner other than the current one.
+     * @param currentOwner Current owner.
+     * @return An owner.
+     */
+    public static String newOwner(final String currentOwner) {
+        return Utils.differentElement(OWNERS, currentOwner);
+    }
 }
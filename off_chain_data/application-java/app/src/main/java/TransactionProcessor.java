@@ -4,17 +4,26 @@
  * SPDX-License-Identifier: Apache-2.0
  */
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVRWSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+import parser.NamespaceReadWriteSet;
 import parser.Transaction;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public final class TransactionProcessor {
     // Typically we should ignore read/write sets that apply to system chaincode namespaces.
-    private static final Set<String> SYSTEM_CHAINCODE_NAMES = Set.of(
+    static final Set<String> SYSTEM_CHAINCODE_NAMES = Set.of(
             "_lifecycle",
             "cscc",
             "escc",
@@ -24,13 +33,29 @@ public final class TransactionProcessor {
     );
 
     private final long blockNumber;
+    private final int transactionIndex;
     private final Transaction transaction;
     private final Store store;
+    private final HashedWriteStore hashedWriteStore;
+    private final ListenerMetrics metrics;
 
-    public TransactionProcessor(final Transaction transaction, final long blockNumber, final Store store) {
+    /**
+     * Create a transaction processor.
+     * @param transaction A transaction.
+     * @param blockNumber Block containing the transaction.
+     * @param transactionIndex Index of the transaction within the block.
+     * @param store Store for ledger writes.
+     * @param hashedWriteStore Store for private data collection writes, or {@code null} to ignore them.
+     * @param metrics Processing metrics.
+     */
+    public TransactionProcessor(final Transaction transaction, final long blockNumber, final int transactionIndex, final Store store,
+                                final HashedWriteStore hashedWriteStore, final ListenerMetrics metrics) {
         this.blockNumber = blockNumber;
+        this.transactionIndex = transactionIndex;
         this.transaction = transaction;
         this.store = store;
+        this.hashedWriteStore = hashedWriteStore;
+        this.metrics = metrics;
     }
 
     private static boolean isSystemChaincode(final String chaincodeName) {
@@ -40,14 +65,24 @@ public final class TransactionProcessor {
     public void process() throws IOException {
         var transactionId = transaction.getChannelHeader().getTxId();
 
+        var filterStartNanos = System.nanoTime();
         var writes = getWrites();
-        if (writes.isEmpty()) {
-            System.out.println("Skipping read-only or system transaction " + transactionId);
+        var hashedWrites = hashedWriteStore != null ? getHashedWrites() : List.<HashedWrite>of();
+        metrics.recordFilter(filterStartNanos);
+        if (writes.isEmpty() && hashedWrites.isEmpty()) {
+            // Read-only or system transaction
+            metrics.recordSkippedTransaction();
             return;
         }
 
-        System.out.println("Process transaction " + transactionId);
-        store.store(blockNumber, transactionId, writes);
+        var storeStartNanos = System.nanoTime();
+        if (!writes.isEmpty()) {
+            store.store(blockNumber, transactionIndex, transactionId, writes);
+        }
+        if (!hashedWrites.isEmpty()) {
+            hashedWriteStore.store(blockNumber, transactionIndex, transactionId, hashedWrites);
+        }
+        metrics.recordStore(writes.size() + hashedWrites.size(), storeStartNanos);
     }
 
     private List<Write> getWrites() throws InvalidProtocolBufferException {
@@ -67,4 +102,58 @@ public final class TransactionProcessor {
 
         return writes;
     }
+
+    private List<HashedWrite> getHashedWrites() throws InvalidProtocolBufferException {
+        var channelName = transaction.getChannelHeader().getChannelId();
+
+        var writes = new ArrayList<HashedWrite>();
+        for (var readWriteSet : transaction.getNamespaceReadWriteSets()) {
+            var namespace = readWriteSet.getNamespace();
+            if (isSystemChaincode(namespace)) {
+                continue;
+            }
+
+            addHashedWrites(channelName, readWriteSet, writes);
+        }
+
+        return writes;
+    }
+
+    private static void addHashedWrites(final String channelName, final NamespaceReadWriteSet readWriteSet, final List<HashedWrite> writes)
+            throws InvalidProtocolBufferException {
+        for (var collection : readWriteSet.getCollectionReadWriteSets()) {
+            var keys = getKeysByHash(collection.getPrivateReadWriteSet().map(KVRWSet::getWritesList).orElse(List.of()));
+            for (var write : collection.getHashedReadWriteSet().getHashedWritesList()) {
+                writes.add(new HashedWrite(channelName, readWriteSet.getNamespace(), collection.getCollectionName(), write,
+                        keys.get(write.getKeyHash())));
+            }
+        }
+    }
+
+    /**
+     * Map the SHA-256 hash of each private key written to the key, so that hashed writes in the block can be matched to
+     * the private data.
+     */
+    private static Map<ByteString, String> getKeysByHash(final List<KVWrite> privateWrites) {
+        if (privateWrites.isEmpty()) {
+            return Map.of();
+        }
+
+        var digest = newSha256();
+        var keys = new HashMap<ByteString, String>();
+        for (var write : privateWrites) {
+            var hash = digest.digest(write.getKey().getBytes(StandardCharsets.UTF_8));
+            keys.put(ByteString.copyFrom(hash), write.getKey());
+        }
+
+        return keys;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
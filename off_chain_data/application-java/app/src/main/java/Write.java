@@ -4,26 +4,29 @@
  * SPDX-License-Identifier: Apache-2.0
  */
 
+import com.google.protobuf.ByteString;
 import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 
 /**
- * Description of a ledger write that can be applied to an off-chain data store.
+ * Description of a ledger write that can be applied to an off-chain data store. The value is held as the bytes
+ * received in the block, and is only converted to other forms when a store asks for it. Use {@link WriteJsonEncoder}
+ * to serialize writes as JSON.
  */
 public final class Write {
     private final String channelName;
     private final String namespace;
     private final String key;
     private final boolean isDelete;
-    private final String value; // Store as String for readability when serialized to JSON.
+    private final ByteString value;
 
     public Write(final String channelName, final String namespace, final KVWrite write) {
         this.channelName = channelName;
         this.namespace = namespace;
         this.key = write.getKey();
         this.isDelete = write.getIsDelete();
-        this.value = write.getValue().toString(StandardCharsets.UTF_8);
+        this.value = write.getValue();
     }
 
     /**
@@ -63,6 +66,32 @@ public final class Write {
      * @return A ledger value.
      */
     public byte[] getValue() {
-        return value.getBytes(StandardCharsets.UTF_8);
+        return value.toByteArray();
+    }
+
+    /**
+     * If {@link #isDelete()}` is {@code false}, the value written to the key; otherwise ignored. Unlike
+     * {@link #getValue()}, this does not copy the value.
+     * @return A ledger value.
+     */
+    public ByteString getValueBytes() {
+        return value;
+    }
+
+    /**
+     * If {@link #isDelete()}` is {@code false}, a read-only view of the value written to the key; otherwise ignored.
+     * This does not copy the value.
+     * @return A ledger value.
+     */
+    public ByteBuffer getValueBuffer() {
+        return value.asReadOnlyByteBuffer();
+    }
+
+    /**
+     * If {@link #isDelete()}` is {@code false}, the value written to the key decoded as UTF-8 text; otherwise ignored.
+     * @return A ledger value.
+     */
+    public String getValueString() {
+        return value.toStringUtf8();
     }
 }
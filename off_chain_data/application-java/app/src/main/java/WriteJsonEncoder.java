@@ -0,0 +1,155 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming JSON encoder for {@link Write} objects. Values are copied to the output directly from the UTF-8 bytes
+ * received in the block, without being converted to a String. Output is identical to serializing the write with a
+ * default {@link com.google.gson.Gson} instance, including its HTML-safe escaping.
+ */
+public final class WriteJsonEncoder {
+    private static final int ASCII_LIMIT = 0x80;
+    private static final int CONTROL_LIMIT = 0x20;
+    private static final byte[][] ESCAPES = new byte[ASCII_LIMIT][];
+
+    // UTF-8 encoding of U+2028 LINE SEPARATOR and U+2029 PARAGRAPH SEPARATOR, which Gson escapes.
+    private static final byte SEPARATOR_BYTE_0 = (byte) 0xE2;
+    private static final byte SEPARATOR_BYTE_1 = (byte) 0x80;
+    private static final byte LINE_SEPARATOR_BYTE_2 = (byte) 0xA8;
+    private static final byte PARAGRAPH_SEPARATOR_BYTE_2 = (byte) 0xA9;
+    private static final int SEPARATOR_LENGTH = 3;
+    private static final byte[] LINE_SEPARATOR_ESCAPE = ascii("\\u2028");
+    private static final byte[] PARAGRAPH_SEPARATOR_ESCAPE = ascii("\\u2029");
+
+    private static final byte[] CHANNEL_NAME_PREFIX = ascii("{\"channelName\":");
+    private static final byte[] NAMESPACE_PREFIX = ascii(",\"namespace\":");
+    private static final byte[] KEY_PREFIX = ascii(",\"key\":");
+    private static final byte[] IS_DELETE_TRUE = ascii(",\"isDelete\":true");
+    private static final byte[] IS_DELETE_FALSE = ascii(",\"isDelete\":false");
+    private static final byte[] VALUE_PREFIX = ascii(",\"value\":");
+
+    static {
+        for (int i = 0; i < CONTROL_LIMIT; i++) {
+            ESCAPES[i] = ascii(String.format("\\u%04x", i));
+        }
+        ESCAPES['"'] = ascii("\\\"");
+        ESCAPES['\\'] = ascii("\\\\");
+        ESCAPES['\t'] = ascii("\\t");
+        ESCAPES['\b'] = ascii("\\b");
+        ESCAPES['\n'] = ascii("\\n");
+        ESCAPES['\r'] = ascii("\\r");
+        ESCAPES['\f'] = ascii("\\f");
+        for (var c : new char[] {'<', '>', '&', '=', '\''}) {
+            ESCAPES[c] = ascii(String.format("\\u%04x", (int) c));
+        }
+    }
+
+    private static byte[] ascii(final String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Write a JSON object representing the write, followed by a newline.
+     * @param write A ledger write.
+     * @param out Output stream.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void encodeLine(final Write write, final OutputStream out) throws IOException {
+        encode(write, out);
+        out.write('\n');
+    }
+
+    /**
+     * Write a JSON object representing the write.
+     * @param write A ledger write.
+     * @param out Output stream.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void encode(final Write write, final OutputStream out) throws IOException {
+        out.write(CHANNEL_NAME_PREFIX);
+        writeString(ByteString.copyFromUtf8(write.getChannelName()), out);
+        out.write(NAMESPACE_PREFIX);
+        writeString(ByteString.copyFromUtf8(write.getNamespace()), out);
+        out.write(KEY_PREFIX);
+        writeString(ByteString.copyFromUtf8(write.getKey()), out);
+        out.write(write.isDelete() ? IS_DELETE_TRUE : IS_DELETE_FALSE);
+        out.write(VALUE_PREFIX);
+        writeString(getUtf8Value(write), out);
+        out.write('}');
+    }
+
+    /**
+     * Write a string as a quoted JSON string.
+     * @param value A string.
+     * @param out Output stream.
+     * @throws IOException if an I/O error occurs.
+     */
+    public static void encodeString(final String value, final OutputStream out) throws IOException {
+        writeString(ByteString.copyFromUtf8(value), out);
+    }
+
+    private static ByteString getUtf8Value(final Write write) {
+        var value = write.getValueBytes();
+        if (value.isValidUtf8()) {
+            return value;
+        }
+
+        // Match String decoding, which replaces malformed input with U+FFFD.
+        return ByteString.copyFromUtf8(value.toStringUtf8());
+    }
+
+    /**
+     * Write UTF-8 bytes as a quoted JSON string. Runs of bytes that need no escaping are written directly from the
+     * source without copying.
+     */
+    private static void writeString(final ByteString utf8, final OutputStream out) throws IOException {
+        out.write('"');
+
+        int runStart = 0;
+        int i = 0;
+        while (i < utf8.size()) {
+            var escape = getEscape(utf8, i);
+            if (escape == null) {
+                i++;
+                continue;
+            }
+
+            utf8.substring(runStart, i).writeTo(out);
+            out.write(escape);
+            i += escape == LINE_SEPARATOR_ESCAPE || escape == PARAGRAPH_SEPARATOR_ESCAPE ? SEPARATOR_LENGTH : 1;
+            runStart = i;
+        }
+
+        utf8.substring(runStart).writeTo(out);
+        out.write('"');
+    }
+
+    private static byte[] getEscape(final ByteString utf8, final int index) {
+        var b = utf8.byteAt(index);
+        if (b >= 0) {
+            return ESCAPES[b];
+        }
+        if (b != SEPARATOR_BYTE_0 || index + SEPARATOR_LENGTH > utf8.size() || utf8.byteAt(index + 1) != SEPARATOR_BYTE_1) {
+            return null;
+        }
+
+        var last = utf8.byteAt(index + 2);
+        if (last == LINE_SEPARATOR_BYTE_2) {
+            return LINE_SEPARATOR_ESCAPE;
+        }
+        if (last == PARAGRAPH_SEPARATOR_BYTE_2) {
+            return PARAGRAPH_SEPARATOR_ESCAPE;
+        }
+        return null;
+    }
+
+    private WriteJsonEncoder() { }
+}
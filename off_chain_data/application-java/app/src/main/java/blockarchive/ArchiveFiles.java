@@ -0,0 +1,149 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package blockarchive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout of the files in a block archive directory written by {@link BlockArchiveWriter}.
+ * <p>Each data file, named after the first block number it contains, holds a sequence of chunks. A chunk is a header
+ * followed by the stored bytes of a run of length-delimited blocks, which may be compressed. The header records the
+ * stored length, uncompressed length, number of blocks, CRC32C checksum of the stored bytes, and compression.</p>
+ * <p>Each data file has a companion index file with one fixed-size entry per block: block number, position of the chunk
+ * within the data file, and offset of the block within the uncompressed chunk. Index entries are written only after
+ * their chunk, so the index describes only complete chunks.</p>
+ */
+final class ArchiveFiles {
+    static final String DATA_FILE_GLOB = "*.blocks";
+    static final String INDEX_FILE_SUFFIX = ".index";
+    static final int CHUNK_HEADER_SIZE = Integer.BYTES * 4 + 1;
+    static final int INDEX_ENTRY_SIZE = Long.BYTES * 2 + Integer.BYTES;
+    static final int MAX_VARINT_BYTES = 5;
+
+    private static final String DATA_FILE_FORMAT = "%020d.blocks";
+    private static final int VARINT_SHIFT = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7f;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+
+    private ArchiveFiles() { }
+
+    /**
+     * Data files in a directory, in block number order.
+     */
+    static List<Path> listDataFiles(final Path directory) throws IOException {
+        var files = new ArrayList<Path>();
+        try (var stream = Files.newDirectoryStream(directory, DATA_FILE_GLOB)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    static Path dataFile(final Path directory, final long firstBlockNumber) {
+        return directory.resolve(String.format(DATA_FILE_FORMAT, firstBlockNumber));
+    }
+
+    static Path indexFile(final Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + INDEX_FILE_SUFFIX);
+    }
+
+    static long firstBlockNumber(final Path dataFile) {
+        var name = dataFile.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+
+    /**
+     * Read a protobuf varint length prefix at the buffer position, advancing the position past it.
+     */
+    static int readVarint(final ByteBuffer buffer) throws IOException {
+        var result = 0;
+        for (int i = 0; i < MAX_VARINT_BYTES && buffer.hasRemaining(); i++) {
+            var b = buffer.get();
+            result |= (b & VARINT_PAYLOAD_MASK) << (VARINT_SHIFT * i);
+            if ((b & VARINT_CONTINUATION_BIT) == 0) {
+                return result;
+            }
+        }
+
+        throw new IOException("Malformed length prefix in block archive");
+    }
+
+    /**
+     * Header at the start of each chunk in a data file.
+     */
+    static final class ChunkHeader {
+        private final int storedLength;
+        private final int rawLength;
+        private final int blockCount;
+        private final int checksum;
+        private final Compression compression;
+
+        ChunkHeader(final int storedLength, final int rawLength, final int blockCount, final int checksum,
+                    final Compression compression) {
+            this.storedLength = storedLength;
+            this.rawLength = rawLength;
+            this.blockCount = blockCount;
+            this.checksum = checksum;
+            this.compression = compression;
+        }
+
+        /**
+         * Decode a header at the specified position.
+         * @return A header, or null if the bytes at the position are not a valid header.
+         */
+        static ChunkHeader read(final ByteBuffer buffer, final int position) {
+            if (position + CHUNK_HEADER_SIZE > buffer.limit()) {
+                return null;
+            }
+
+            var storedLength = buffer.getInt(position);
+            var rawLength = buffer.getInt(position + Integer.BYTES);
+            var blockCount = buffer.getInt(position + Integer.BYTES * 2);
+            var checksum = buffer.getInt(position + Integer.BYTES * 3);
+            var compressionId = buffer.get(position + Integer.BYTES * 4);
+            if (storedLength <= 0 || rawLength <= 0 || blockCount <= 0 || compressionId < 0
+                    || compressionId >= Compression.values().length) {
+                return null;
+            }
+
+            return new ChunkHeader(storedLength, rawLength, blockCount, checksum, Compression.values()[compressionId]);
+        }
+
+        void writeTo(final ByteBuffer buffer) {
+            buffer.putInt(storedLength)
+                    .putInt(rawLength)
+                    .putInt(blockCount)
+                    .putInt(checksum)
+                    .put((byte) compression.ordinal());
+        }
+
+        int getStoredLength() {
+            return storedLength;
+        }
+
+        int getRawLength() {
+            return rawLength;
+        }
+
+        int getBlockCount() {
+            return blockCount;
+        }
+
+        int getChecksum() {
+            return checksum;
+        }
+
+        Compression getCompression() {
+            return compression;
+        }
+    }
+}
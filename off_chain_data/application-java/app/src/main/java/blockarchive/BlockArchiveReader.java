@@ -0,0 +1,204 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package blockarchive;
+
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.protos.common.Block;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads blocks from an archive directory written by {@link BlockArchiveWriter}. The index of each data file is used to
+ * locate the chunk containing the start block, so earlier blocks are neither decompressed nor decoded. Data files are
+ * memory-mapped, and blocks in uncompressed chunks are decoded directly from the mapping.
+ * <p>Only blocks described by the index when a data file is opened are read, so an archive can be read while it is
+ * being written.</p>
+ */
+public final class BlockArchiveReader implements CloseableIterator<Block> {
+    private static final int CHUNK_POSITION_OFFSET = Long.BYTES;
+    private static final int BLOCK_OFFSET_OFFSET = Long.BYTES * 2;
+
+    private final List<Path> files;
+    private final long startBlock;
+    private final Inflater inflater = new Inflater();
+    private final CRC32C crc = new CRC32C();
+    private int nextFileIndex;
+    private ByteBuffer index;
+    private int entry;
+    private int entryCount;
+    private ByteBuffer data;
+    private long chunkPosition = -1;
+    private ByteBuffer chunk;
+    private byte[] inflateBuffer = new byte[0];
+    private Block next;
+
+    /**
+     * Open an archive.
+     * @param directory Directory holding the archive files.
+     * @param startBlock Number of the first block to return. Earlier blocks are skipped.
+     * @throws IOException if an I/O error occurs listing the archive files.
+     */
+    public BlockArchiveReader(final Path directory, final long startBlock) throws IOException {
+        this.files = ArchiveFiles.listDataFiles(directory);
+        this.startBlock = startBlock;
+
+        // Start from the last data file beginning at or before the start block
+        while (nextFileIndex < files.size() - 1 && ArchiveFiles.firstBlockNumber(files.get(nextFileIndex + 1)) <= startBlock) {
+            nextFileIndex++;
+        }
+    }
+
+    /**
+     * Whether a path is a directory containing an archive written by {@link BlockArchiveWriter}.
+     * @param path A file or directory.
+     * @return {@code true} if the path contains archive data files; otherwise {@code false}.
+     * @throws IOException if an I/O error occurs listing the directory.
+     */
+    public static boolean isArchive(final Path path) throws IOException {
+        return Files.isDirectory(path) && !ArchiveFiles.listDataFiles(path).isEmpty();
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (next == null) {
+                if (!readNext()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Block next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        var result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * Decode the block for the next index entry.
+     * @return {@code false} if there are no more blocks.
+     */
+    private boolean readNext() throws IOException {
+        while (index == null || entry >= entryCount) {
+            if (!openNextFile()) {
+                return false;
+            }
+        }
+
+        var entryPosition = entry++ * ArchiveFiles.INDEX_ENTRY_SIZE;
+        var position = index.getLong(entryPosition + CHUNK_POSITION_OFFSET);
+        if (position != chunkPosition) {
+            loadChunk(position);
+        }
+
+        var message = chunk.duplicate().position(index.getInt(entryPosition + BLOCK_OFFSET_OFFSET));
+        var length = ArchiveFiles.readVarint(message);
+        next = Block.parseFrom(message.limit(message.position() + length));
+        return true;
+    }
+
+    private boolean openNextFile() throws IOException {
+        if (nextFileIndex >= files.size()) {
+            return false;
+        }
+
+        var file = files.get(nextFileIndex++);
+        index = ByteBuffer.wrap(Files.readAllBytes(ArchiveFiles.indexFile(file)));
+        entryCount = index.capacity() / ArchiveFiles.INDEX_ENTRY_SIZE;
+        entry = findFirstEntry();
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        chunkPosition = -1;
+        return true;
+    }
+
+    /**
+     * Index of the first entry for a block at or after the start block.
+     */
+    private int findFirstEntry() {
+        var low = 0;
+        var high = entryCount;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (index.getLong(mid * ArchiveFiles.INDEX_ENTRY_SIZE) < startBlock) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void loadChunk(final long position) throws IOException {
+        var header = ArchiveFiles.ChunkHeader.read(data, Math.toIntExact(position));
+        var storedStart = (int) position + ArchiveFiles.CHUNK_HEADER_SIZE;
+        if (header == null || storedStart + header.getStoredLength() > data.limit()) {
+            throw new IOException("Incomplete chunk at position " + position + " in block archive file: " + files.get(nextFileIndex - 1));
+        }
+
+        var stored = data.duplicate().position(storedStart).limit(storedStart + header.getStoredLength());
+        crc.reset();
+        crc.update(stored.duplicate());
+        if ((int) crc.getValue() != header.getChecksum()) {
+            throw new IOException("Checksum mismatch at position " + position + " in block archive file: " + files.get(nextFileIndex - 1));
+        }
+
+        chunk = header.getCompression() == Compression.DEFLATE ? inflate(stored, header.getRawLength()) : stored.slice();
+        chunkPosition = position;
+    }
+
+    private ByteBuffer inflate(final ByteBuffer stored, final int rawLength) throws IOException {
+        if (inflateBuffer.length < rawLength) {
+            inflateBuffer = new byte[rawLength];
+        }
+
+        inflater.reset();
+        inflater.setInput(stored);
+        try {
+            var count = 0;
+            while (count < rawLength) {
+                var inflated = inflater.inflate(inflateBuffer, count, rawLength - count);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new DataFormatException("Expected " + rawLength + " bytes but inflated " + count);
+                }
+                count += inflated;
+            }
+            return ByteBuffer.wrap(inflateBuffer, 0, rawLength).slice();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed chunk in block archive file: " + files.get(nextFileIndex - 1), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        index = null;
+        data = null;
+        chunk = null;
+        inflater.end();
+    }
+}
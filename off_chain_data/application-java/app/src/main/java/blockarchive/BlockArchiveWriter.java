@@ -0,0 +1,304 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package blockarchive;
+
+import org.hyperledger.fabric.protos.common.Block;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Writes blocks to a compressed, indexed archive directory, which can be read by {@link BlockArchiveReader}.
+ * <p>Blocks are buffered as length-delimited messages until the buffer reaches the chunk size, then written as a single
+ * chunk, compressed if enabled, followed by an index entry for each block in the chunk. A new data file is started once
+ * the current one exceeds a size threshold. When opened, the writer discards any incomplete chunk, or chunk whose index
+ * entries are incomplete, at the end of the archive, and continues from the block after the last complete chunk.</p>
+ * <p>Blocks must be appended in increasing block number order. Blocks already in the archive are ignored, so blocks
+ * received again after a restart are not duplicated.</p>
+ */
+public final class BlockArchiveWriter implements AutoCloseable {
+    private static final long MAX_FILE_BYTES = 256L * 1024 * 1024;
+    private static final int INITIAL_INDEX_CAPACITY = 1024;
+    private static final int DEFLATE_BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final int chunkBytes;
+    private final Compression compression;
+    private final boolean sync;
+    private final ChunkBuffer chunk = new ChunkBuffer();
+    private final ChunkBuffer compressed = new ChunkBuffer();
+    private final byte[] deflateBuffer = new byte[DEFLATE_BUFFER_BYTES];
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32C crc = new CRC32C();
+    private long[] pendingBlockNumbers = new long[INITIAL_INDEX_CAPACITY];
+    private int[] pendingOffsets = new int[INITIAL_INDEX_CAPACITY];
+    private int pendingCount;
+    private FileChannel dataChannel;
+    private FileChannel indexChannel;
+    private long dataPosition;
+    private long nextBlockNumber;
+
+    /**
+     * Open an archive, creating it if it does not exist and discarding any incomplete chunk at its end.
+     * @param directory Directory holding the archive files.
+     * @param chunkBytes Uncompressed size at which buffered blocks are written as a chunk.
+     * @param compression Compression applied to each chunk.
+     * @param sync Whether to fsync the archive files after each chunk is written.
+     * @throws IOException if an I/O error occurs.
+     */
+    public BlockArchiveWriter(final Path directory, final int chunkBytes, final Compression compression, final boolean sync)
+            throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.chunkBytes = chunkBytes;
+        this.compression = compression;
+        this.sync = sync;
+
+        var files = ArchiveFiles.listDataFiles(directory);
+        for (int i = files.size() - 1; i >= 0 && dataChannel == null; i--) {
+            recover(files.get(i));
+        }
+    }
+
+    /**
+     * Truncate a data file and its index after the last chunk that is complete and fully indexed. The files are
+     * deleted if no complete chunks remain.
+     */
+    private void recover(final Path file) throws IOException {
+        var indexFile = ArchiveFiles.indexFile(file);
+        var data = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        var index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        var entries = ByteBuffer.allocate((int) (index.size() - index.size() % ArchiveFiles.INDEX_ENTRY_SIZE));
+        readFully(index, entries, 0);
+
+        var position = 0L;
+        var entryCount = 0;
+        for (var header = readHeader(data, position); header != null; header = readHeader(data, position)) {
+            var chunkEntries = countEntries(entries, entryCount, position);
+            if (chunkEntries != header.getBlockCount() || !isChecksumValid(data, position, header)) {
+                break;
+            }
+            entryCount += chunkEntries;
+            position += ArchiveFiles.CHUNK_HEADER_SIZE + header.getStoredLength();
+        }
+
+        data.truncate(position);
+        index.truncate((long) entryCount * ArchiveFiles.INDEX_ENTRY_SIZE);
+        if (entryCount == 0) {
+            data.close();
+            index.close();
+            Files.delete(file);
+            Files.delete(indexFile);
+            return;
+        }
+
+        data.position(position);
+        index.position(index.size());
+        dataChannel = data;
+        indexChannel = index;
+        dataPosition = position;
+        nextBlockNumber = entries.getLong((entryCount - 1) * ArchiveFiles.INDEX_ENTRY_SIZE) + 1;
+    }
+
+    private static ArchiveFiles.ChunkHeader readHeader(final FileChannel channel, final long position) throws IOException {
+        if (position + ArchiveFiles.CHUNK_HEADER_SIZE > channel.size()) {
+            return null;
+        }
+
+        var buffer = ByteBuffer.allocate(ArchiveFiles.CHUNK_HEADER_SIZE);
+        readFully(channel, buffer, position);
+        var header = ArchiveFiles.ChunkHeader.read(buffer, 0);
+        var isComplete = header != null
+                && position + ArchiveFiles.CHUNK_HEADER_SIZE + header.getStoredLength() <= channel.size();
+        return isComplete ? header : null;
+    }
+
+    /**
+     * Number of consecutive index entries, starting at the specified entry, that refer to the chunk at a position.
+     */
+    private static int countEntries(final ByteBuffer entries, final int firstEntry, final long chunkPosition) {
+        var count = 0;
+        var chunkPositionOffset = Long.BYTES;
+        for (int i = firstEntry * ArchiveFiles.INDEX_ENTRY_SIZE; i < entries.limit(); i += ArchiveFiles.INDEX_ENTRY_SIZE) {
+            if (entries.getLong(i + chunkPositionOffset) != chunkPosition) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private boolean isChecksumValid(final FileChannel channel, final long position, final ArchiveFiles.ChunkHeader header)
+            throws IOException {
+        var stored = ByteBuffer.allocate(header.getStoredLength());
+        readFully(channel, stored, position + ArchiveFiles.CHUNK_HEADER_SIZE);
+        crc.reset();
+        crc.update(stored);
+        return (int) crc.getValue() == header.getChecksum();
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        var offset = position;
+        while (buffer.hasRemaining()) {
+            var count = channel.read(buffer, offset);
+            if (count < 0) {
+                break;
+            }
+            offset += count;
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Number of the block following the last block in the archive, including blocks not yet written to a chunk.
+     * @return A block number, or zero if the archive is empty.
+     */
+    public synchronized long getNextBlockNumber() {
+        return nextBlockNumber;
+    }
+
+    /**
+     * Append a block to the archive. Blocks with a number lower than {@link #getNextBlockNumber()} are ignored.
+     * @param block A block.
+     * @throws IOException if an I/O error occurs writing a chunk.
+     */
+    public synchronized void append(final Block block) throws IOException {
+        var blockNumber = block.getHeader().getNumber();
+        if (blockNumber < nextBlockNumber) {
+            return;
+        }
+
+        if (pendingCount == pendingBlockNumbers.length) {
+            pendingBlockNumbers = Arrays.copyOf(pendingBlockNumbers, pendingCount * 2);
+            pendingOffsets = Arrays.copyOf(pendingOffsets, pendingCount * 2);
+        }
+        pendingBlockNumbers[pendingCount] = blockNumber;
+        pendingOffsets[pendingCount] = chunk.size();
+        pendingCount++;
+
+        block.writeDelimitedTo(chunk);
+        nextBlockNumber = blockNumber + 1;
+
+        if (chunk.size() >= chunkBytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Write any buffered blocks to the archive as a chunk.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void flush() throws IOException {
+        if (pendingCount == 0) {
+            return;
+        }
+
+        if (dataChannel == null || dataPosition >= MAX_FILE_BYTES) {
+            startFile(pendingBlockNumbers[0]);
+        }
+
+        var raw = chunk.asByteBuffer();
+        var stored = compression == Compression.DEFLATE ? deflate(raw) : raw;
+        var chunkCompression = compression;
+        if (stored.remaining() >= raw.remaining()) {
+            // Incompressible data, such as encrypted values, is stored as is
+            stored = raw;
+            chunkCompression = Compression.NONE;
+        }
+
+        crc.reset();
+        crc.update(stored.duplicate());
+        var header = ByteBuffer.allocate(ArchiveFiles.CHUNK_HEADER_SIZE);
+        new ArchiveFiles.ChunkHeader(stored.remaining(), raw.remaining(), pendingCount, (int) crc.getValue(), chunkCompression)
+                .writeTo(header);
+        var chunkPosition = dataPosition;
+        dataPosition += ArchiveFiles.CHUNK_HEADER_SIZE + stored.remaining();
+        writeFully(dataChannel, header.flip());
+        writeFully(dataChannel, stored);
+        if (sync) {
+            dataChannel.force(false);
+        }
+
+        var entries = ByteBuffer.allocate(pendingCount * ArchiveFiles.INDEX_ENTRY_SIZE);
+        for (int i = 0; i < pendingCount; i++) {
+            entries.putLong(pendingBlockNumbers[i]).putLong(chunkPosition).putInt(pendingOffsets[i]);
+        }
+        writeFully(indexChannel, entries.flip());
+        if (sync) {
+            indexChannel.force(false);
+        }
+
+        chunk.reset();
+        pendingCount = 0;
+    }
+
+    private ByteBuffer deflate(final ByteBuffer raw) {
+        deflater.reset();
+        deflater.setInput(raw.array(), raw.arrayOffset() + raw.position(), raw.remaining());
+        deflater.finish();
+
+        compressed.reset();
+        while (!deflater.finished()) {
+            var count = deflater.deflate(deflateBuffer);
+            compressed.write(deflateBuffer, 0, count);
+        }
+        return compressed.asByteBuffer();
+    }
+
+    private void startFile(final long firstBlockNumber) throws IOException {
+        closeFiles();
+
+        var file = ArchiveFiles.dataFile(directory, firstBlockNumber);
+        dataChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        indexChannel = FileChannel.open(ArchiveFiles.indexFile(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        dataPosition = 0;
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void closeFiles() throws IOException {
+        if (dataChannel == null) {
+            return;
+        }
+
+        try {
+            dataChannel.close();
+        } finally {
+            indexChannel.close();
+            dataChannel = null;
+            indexChannel = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            closeFiles();
+            deflater.end();
+        }
+    }
+
+    private static final class ChunkBuffer extends ByteArrayOutputStream {
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package blockarchive;
+
+import org.hyperledger.fabric.client.CloseableIterator;
+import org.hyperledger.fabric.protos.common.Block;
+import org.hyperledger.fabric.protos.common.BlockHeader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads blocks from files of length-delimited {@code common.Block} messages, as written by
+ * {@code Block.writeDelimitedTo()}, so that blocks can be processed from an archive instead of a live network. Files
+ * are read in name order and memory-mapped in large windows, so blocks are decoded directly from the page cache
+ * without copying. Blocks before the start block are skipped by decoding only their header.
+ */
+public final class BlockFileReader implements CloseableIterator<Block> {
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+    // Tag of the length-delimited header field, which protobuf serializes first within a block.
+    private static final int HEADER_FIELD_TAG = 0x0A;
+
+    private final List<Path> files;
+    private final long startBlock;
+    private int nextFileIndex;
+    private FileChannel channel;
+    private long fileSize;
+    private long position;
+    private ByteBuffer window;
+    private long windowStart;
+    private Block next;
+
+    /**
+     * Open an archive.
+     * @param path A block file, or a directory whose files are all block files.
+     * @param startBlock Number of the first block to return. Earlier blocks are skipped.
+     * @throws IOException if an I/O error occurs listing the archive files.
+     */
+    public BlockFileReader(final Path path, final long startBlock) throws IOException {
+        this.files = listFiles(path);
+        this.startBlock = startBlock;
+    }
+
+    private static List<Path> listFiles(final Path path) throws IOException {
+        var results = new ArrayList<Path>();
+        if (!Files.isDirectory(path)) {
+            results.add(path);
+            return results;
+        }
+
+        try (var stream = Files.newDirectoryStream(path, Files::isRegularFile)) {
+            stream.forEach(results::add);
+        }
+        results.sort(null);
+        return results;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (next == null) {
+                if (!nextMessage()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Block next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        var result = next;
+        next = null;
+        return result;
+    }
+
+    /**
+     * Read the next message, setting {@link #next} if it is at or after the start block.
+     * @return {@code false} if there are no more messages.
+     */
+    private boolean nextMessage() throws IOException {
+        while (channel == null || position >= fileSize) {
+            if (!openNextFile()) {
+                return false;
+            }
+        }
+
+        ensureMapped(Math.min(ArchiveFiles.MAX_VARINT_BYTES, fileSize - position));
+        var length = readVarint();
+        if (length < 0 || position + length > fileSize) {
+            throw new IOException("Truncated block in archive file: " + files.get(nextFileIndex - 1));
+        }
+
+        ensureMapped(length);
+        var offset = (int) (position - windowStart);
+        var message = window.duplicate().position(offset).limit(offset + length);
+        position += length;
+
+        if (startBlock <= 0 || readBlockNumber(message.duplicate()) >= startBlock) {
+            next = Block.parseFrom(message);
+        }
+        return true;
+    }
+
+    private boolean openNextFile() throws IOException {
+        close();
+        if (nextFileIndex >= files.size()) {
+            return false;
+        }
+
+        channel = FileChannel.open(files.get(nextFileIndex++), StandardOpenOption.READ);
+        fileSize = channel.size();
+        position = 0;
+        return true;
+    }
+
+    /**
+     * Make sure that the mapped window covers the specified number of bytes from the current position.
+     */
+    private void ensureMapped(final long length) throws IOException {
+        if (window != null && position >= windowStart && position + length <= windowStart + window.limit()) {
+            return;
+        }
+
+        var size = Math.min(Math.max(WINDOW_BYTES, length), fileSize - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        windowStart = position;
+    }
+
+    private int readVarint() throws IOException {
+        var prefix = window.duplicate().position((int) (position - windowStart));
+        var result = ArchiveFiles.readVarint(prefix);
+        position = windowStart + prefix.position();
+        return result;
+    }
+
+    /**
+     * Read the block number from the header field at the start of a serialized block, without decoding the rest of the
+     * block.
+     */
+    private static long readBlockNumber(final ByteBuffer message) throws IOException {
+        if (!message.hasRemaining() || message.get(message.position()) != HEADER_FIELD_TAG) {
+            return Block.parseFrom(message).getHeader().getNumber();
+        }
+
+        message.position(message.position() + 1);
+        var length = ArchiveFiles.readVarint(message);
+        return BlockHeader.parseFrom(message.limit(message.position() + length)).getNumber();
+    }
+
+    @Override
+    public void close() {
+        window = null;
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package blockarchive;
+
+/**
+ * Compression applied to each chunk of blocks written by a {@link BlockArchiveWriter}.
+ */
+public enum Compression {
+    /** Chunks are stored uncompressed, so blocks can be decoded directly from the memory-mapped archive file. */
+    NONE,
+    /** Chunks are compressed using deflate. */
+    DEFLATE
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package columnar;
+
+/**
+ * Columns stored in each row group of a columnar file, in the order they appear within the row group.
+ */
+public enum Column {
+    /** Channel name, dictionary encoded. */
+    CHANNEL,
+    /** Chaincode namespace, dictionary encoded. */
+    NAMESPACE,
+    /** Ledger key. */
+    KEY,
+    /** Whether the write deleted the key, as a bitmap. */
+    IS_DELETE,
+    /** Written value, which is empty for deletes. */
+    VALUE,
+    /** Block number, delta encoded. */
+    BLOCK_NUMBER,
+    /** Transaction ID, dictionary encoded. */
+    TRANSACTION_ID
+}
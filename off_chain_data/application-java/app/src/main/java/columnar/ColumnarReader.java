@@ -0,0 +1,136 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package columnar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads row groups from a columnar file written by {@link ColumnarWriter}. Only the row group headers are read when the
+ * file is opened. Column data is read, verified and decompressed only when requested, so a scan that needs only a few
+ * columns reads only those columns from disk.
+ */
+public final class ColumnarReader implements AutoCloseable {
+    private final FileChannel channel;
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+
+    /**
+     * Open a columnar file. Row groups appended after the file is opened are not visible to the reader.
+     * @param file A columnar file.
+     * @throws IOException if an I/O error occurs.
+     */
+    public ColumnarReader(final Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        var position = 0L;
+        for (var header = RowGroupHeader.read(channel, position); header != null; header = RowGroupHeader.read(channel, position)) {
+            rowGroups.add(new RowGroup(this, header));
+            position = header.getEnd();
+        }
+    }
+
+    /**
+     * All row groups in the file, in block number order.
+     * @return Row groups.
+     */
+    public List<RowGroup> getRowGroups() {
+        return Collections.unmodifiableList(rowGroups);
+    }
+
+    /**
+     * Row groups containing rows for the specified block number or later blocks. Rows for earlier blocks may be
+     * included in the first row group returned.
+     * @param startBlock Block number from which to read.
+     * @return Row groups.
+     */
+    public List<RowGroup> getRowGroups(final long startBlock) {
+        return rowGroups.stream()
+                .filter(rowGroup -> rowGroup.getLastBlockNumber() >= startBlock)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Whether the stored data for every column of a row group matches its checksum.
+     */
+    static boolean isValid(final FileChannel channel, final RowGroupHeader header) throws IOException {
+        for (var column : Column.values()) {
+            if (readStored(channel, header, column) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the stored data for a column.
+     * @return Column data, or null if it does not match its checksum.
+     */
+    private static ByteBuffer readStored(final FileChannel channel, final RowGroupHeader header, final Column column)
+            throws IOException {
+        var stored = ByteBuffer.allocate(header.getStoredLength(column));
+        var position = header.getColumnPosition(column);
+        while (stored.hasRemaining()) {
+            if (channel.read(stored, position + stored.position()) < 0) {
+                return null;
+            }
+        }
+
+        var crc = new CRC32C();
+        crc.update(stored.flip().duplicate());
+        return (int) crc.getValue() == header.getChecksum(column) ? stored : null;
+    }
+
+    /**
+     * Read and decompress the data for a column.
+     */
+    ByteBuffer readColumn(final RowGroupHeader header, final Column column) throws IOException {
+        var stored = readStored(channel, header, column);
+        if (stored == null) {
+            throw new IOException("Checksum mismatch in " + column + " column of row group at position " + header.getPosition());
+        }
+
+        var rawLength = header.getRawLength(column);
+        if (stored.remaining() == rawLength) {
+            return stored;
+        }
+
+        var raw = new byte[rawLength];
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            var count = 0;
+            while (count < rawLength) {
+                var inflated = inflater.inflate(raw, count, rawLength - count);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new DataFormatException("Expected " + rawLength + " bytes but inflated " + count);
+                }
+                count += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt " + column + " column in row group at position " + header.getPosition(), e);
+        } finally {
+            inflater.end();
+        }
+
+        return ByteBuffer.wrap(raw);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package columnar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Appends rows of ledger writes to a columnar file as a sequence of row groups, which can be read by
+ * {@link ColumnarReader}. Rows are buffered in memory, one buffer per {@link Column}, until {@link #writeRowGroup()}
+ * is called. Each column of the row group is then compressed and written separately, so that readers can decode only
+ * the columns they need.
+ * <p>Channel names, namespaces and transaction IDs are dictionary encoded within each row group, since few distinct
+ * values are repeated across many rows. Block numbers are delta encoded and delete flags are stored as a bitmap.</p>
+ * <p>When opened, the writer discards any incomplete row group at the end of the file.</p>
+ */
+public final class ColumnarWriter implements AutoCloseable {
+    private static final int BITS_PER_BYTE = 8;
+    private static final int DEFLATE_BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final boolean sync;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final byte[] deflateBuffer = new byte[DEFLATE_BUFFER_BYTES];
+    private final CRC32C crc = new CRC32C();
+    private final DictionaryColumn channelNames = new DictionaryColumn();
+    private final DictionaryColumn namespaces = new DictionaryColumn();
+    private final DictionaryColumn transactionIds = new DictionaryColumn();
+    private final ColumnBuffer keys = new ColumnBuffer();
+    private final ColumnBuffer values = new ColumnBuffer();
+    private final WritableByteChannel valuesChannel = Channels.newChannel(values);
+    private final ColumnBuffer blockNumbers = new ColumnBuffer();
+    private final ColumnBuffer deletes = new ColumnBuffer();
+    private int pendingDeleteBits;
+    private int rowCount;
+    private long firstBlockNumber;
+    private long lastBlockNumber = -1;
+    private long lastWrittenBlockNumber = -1;
+
+    /**
+     * Open a columnar file for appending, creating it if it does not exist and discarding any incomplete row group at
+     * its end.
+     * @param file A columnar file.
+     * @param sync Whether to fsync the file after each row group is written.
+     * @throws IOException if an I/O error occurs.
+     */
+    public ColumnarWriter(final Path file, final boolean sync) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.sync = sync;
+
+        recover();
+    }
+
+    private void recover() throws IOException {
+        var position = 0L;
+        RowGroupHeader previous = null;
+        RowGroupHeader last = null;
+        for (var header = RowGroupHeader.read(channel, position); header != null; header = RowGroupHeader.read(channel, position)) {
+            previous = last;
+            last = header;
+            position = header.getEnd();
+        }
+
+        // Pages of the last row group may not have reached disk, even though its header did
+        if (last != null && !ColumnarReader.isValid(channel, last)) {
+            position = last.getPosition();
+            last = previous;
+        }
+
+        channel.truncate(position);
+        channel.position(position);
+        if (last != null) {
+            lastWrittenBlockNumber = last.getLastBlockNumber();
+        }
+    }
+
+    /**
+     * Last block number in the row groups written to the file.
+     * @return A block number, or -1 if no row groups have been written.
+     */
+    public long getLastWrittenBlockNumber() {
+        return lastWrittenBlockNumber;
+    }
+
+    /**
+     * Number of rows buffered for the next row group.
+     * @return A row count.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * First block number of the rows buffered for the next row group.
+     * @return A block number, or -1 if no rows are buffered.
+     */
+    public long getFirstBlockNumber() {
+        return rowCount > 0 ? firstBlockNumber : -1;
+    }
+
+    /**
+     * Buffer a row for the next row group. Rows must be added in block number order.
+     * @param blockNumber Block containing the write.
+     * @param transactionId Transaction that made the write.
+     * @param channelName Channel name.
+     * @param namespace Chaincode namespace.
+     * @param key Ledger key.
+     * @param isDelete Whether the write deleted the key.
+     * @param value Written value, which is empty for deletes.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void add(final long blockNumber, final String transactionId, final String channelName, final String namespace,
+                    final String key, final boolean isDelete, final ByteBuffer value) throws IOException {
+        if (rowCount == 0) {
+            firstBlockNumber = blockNumber;
+            blockNumbers.data.writeLong(blockNumber);
+        } else {
+            blockNumbers.data.writeInt(Math.toIntExact(blockNumber - lastBlockNumber));
+        }
+        lastBlockNumber = blockNumber;
+
+        channelNames.add(channelName);
+        namespaces.add(namespace);
+        transactionIds.add(transactionId);
+        writeString(keys.data, key);
+
+        if (isDelete) {
+            pendingDeleteBits |= 1 << (rowCount % BITS_PER_BYTE);
+        }
+        if (rowCount % BITS_PER_BYTE == BITS_PER_BYTE - 1) {
+            flushDeleteBits();
+        }
+
+        values.data.writeInt(value.remaining());
+        valuesChannel.write(value.duplicate());
+
+        rowCount++;
+    }
+
+    private void flushDeleteBits() {
+        deletes.write(pendingDeleteBits);
+        pendingDeleteBits = 0;
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Write all buffered rows to the file as a row group.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void writeRowGroup() throws IOException {
+        if (rowCount == 0) {
+            return;
+        }
+        if (rowCount % BITS_PER_BYTE != 0) {
+            flushDeleteBits();
+        }
+
+        var columns = new ByteBuffer[Column.values().length];
+        columns[Column.CHANNEL.ordinal()] = channelNames.encode();
+        columns[Column.NAMESPACE.ordinal()] = namespaces.encode();
+        columns[Column.KEY.ordinal()] = keys.asByteBuffer();
+        columns[Column.IS_DELETE.ordinal()] = deletes.asByteBuffer();
+        columns[Column.VALUE.ordinal()] = values.asByteBuffer();
+        columns[Column.BLOCK_NUMBER.ordinal()] = blockNumbers.asByteBuffer();
+        columns[Column.TRANSACTION_ID.ordinal()] = transactionIds.encode();
+
+        var storedLengths = new int[columns.length];
+        var rawLengths = new int[columns.length];
+        var checksums = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            rawLengths[i] = columns[i].remaining();
+            columns[i] = compress(columns[i]);
+            storedLengths[i] = columns[i].remaining();
+            crc.reset();
+            crc.update(columns[i].duplicate());
+            checksums[i] = (int) crc.getValue();
+        }
+
+        var header = ByteBuffer.allocate(RowGroupHeader.SIZE);
+        new RowGroupHeader(channel.position(), firstBlockNumber, lastBlockNumber, rowCount, storedLengths, rawLengths, checksums)
+                .writeTo(header);
+        writeFully(header.flip());
+        for (var column : columns) {
+            writeFully(column);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+
+        lastWrittenBlockNumber = lastBlockNumber;
+        reset();
+    }
+
+    /**
+     * Compress column data, returning the original data if it does not compress.
+     */
+    private ByteBuffer compress(final ByteBuffer raw) {
+        var compressed = new ColumnBuffer();
+        deflater.reset();
+        deflater.setInput(raw.array(), raw.arrayOffset() + raw.position(), raw.remaining());
+        deflater.finish();
+        while (!deflater.finished() && compressed.size() < raw.remaining()) {
+            var count = deflater.deflate(deflateBuffer);
+            compressed.write(deflateBuffer, 0, count);
+        }
+
+        return deflater.finished() && compressed.size() < raw.remaining() ? compressed.asByteBuffer() : raw;
+    }
+
+    private void writeFully(final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void reset() {
+        channelNames.reset();
+        namespaces.reset();
+        transactionIds.reset();
+        keys.reset();
+        values.reset();
+        blockNumbers.reset();
+        deletes.reset();
+        pendingDeleteBits = 0;
+        rowCount = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeRowGroup();
+        } finally {
+            channel.close();
+            deflater.end();
+        }
+    }
+
+    /**
+     * Byte buffer whose content can be written to a channel without copying.
+     */
+    private static final class ColumnBuffer extends ByteArrayOutputStream {
+        private final DataOutputStream data = new DataOutputStream(this);
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    /**
+     * String column encoded as a dictionary of distinct values, in order of first appearance, followed by the
+     * dictionary index of each row.
+     */
+    private static final class DictionaryColumn {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final ColumnBuffer dictionary = new ColumnBuffer();
+        private final ColumnBuffer indexes = new ColumnBuffer();
+
+        void add(final String value) throws IOException {
+            var id = ids.get(value);
+            if (id == null) {
+                id = ids.size();
+                ids.put(value, id);
+                writeString(dictionary.data, value);
+            }
+            indexes.data.writeInt(id);
+        }
+
+        ByteBuffer encode() throws IOException {
+            var result = new ColumnBuffer();
+            result.data.writeInt(ids.size());
+            dictionary.writeTo(result);
+            indexes.writeTo(result);
+            return result.asByteBuffer();
+        }
+
+        void reset() {
+            ids.clear();
+            dictionary.reset();
+            indexes.reset();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package columnar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Row group within a columnar file. Each column is read from the file and decoded each time it is requested, with the
+ * value for a given row at the same array index in every column.
+ */
+public final class RowGroup {
+    private static final int BITS_PER_BYTE = 8;
+
+    private final ColumnarReader reader;
+    private final RowGroupHeader header;
+
+    RowGroup(final ColumnarReader reader, final RowGroupHeader header) {
+        this.reader = reader;
+        this.header = header;
+    }
+
+    /**
+     * Lowest block number of the rows in this row group.
+     * @return A block number.
+     */
+    public long getFirstBlockNumber() {
+        return header.getFirstBlockNumber();
+    }
+
+    /**
+     * Highest block number of the rows in this row group.
+     * @return A block number.
+     */
+    public long getLastBlockNumber() {
+        return header.getLastBlockNumber();
+    }
+
+    /**
+     * Number of rows in this row group.
+     * @return A row count.
+     */
+    public int getRowCount() {
+        return header.getRowCount();
+    }
+
+    /**
+     * Read the {@link Column#CHANNEL} column.
+     * @return Channel name of each row.
+     * @throws IOException if an I/O error occurs or the column data is corrupt.
+     */
+    public String[] getChannelNames() throws IOException {
+        return readDictionaryColumn(Column.CHANNEL);
+    }
+
+    /**
+     * Read the {@link Column#NAMESPACE} column.
+     * @return Namespace of each row.
+     * @throws IOException if an I/O error occurs or the column data is corrupt.
+     */
+    public String[] getNamespaces() throws IOException {
+        return readDictionaryColumn(Column.NAMESPACE);
+    }
+
+    /**
+     * Read the {@link Column#TRANSACTION_ID} column.
+     * @return Transaction ID of each row.
+     * @throws IOException if an I/O error occurs or the column data is corrupt.
+     */
+    public String[] getTransactionIds() throws IOException {
+        return readDictionaryColumn(Column.TRANSACTION_ID);
+    }
+
+    /**
+     * Read the {@link Column#KEY} column.
+     * @return Ledger key of each row.
+     * @throws IOException if an I/O error occurs or the column data is corrupt.
+     */
+    public String[] getKeys() throws IOException {
+        var data = reader.readColumn(header, Column.KEY);
+        var results = new String[getRowCount()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = readString(data);
+        }
+        return results;
+    }
+
+    /**
+     * Read the {@link Column#IS_DELETE} column.
+     * @return Whether each row is a delete.
+     * @throws IOException if an I/O error occurs or the column data is corrupt.
+     */
+    public boolean[] getDeletes() throws IOException {
+        var data = reader.readColumn(header, Column.IS_DELETE);
+        var results = new boolean[getRowCount()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = (data.get(i / BITS_PER_BYTE) & (1 << (i % BITS_PER_BYTE))) != 0;
+        }
+        return results;
+    }
+
+    /**
+     * Read the {@link Column#VALUE} column.
+     * @return Read-only view of the value of each row, which is empty for deletes.
+     * @throws IOException if an I/O error occurs or the column data is corrupt.
+     */
+    public ByteBuffer[] getValues() throws IOException {
+        var data = reader.readColumn(header, Column.VALUE);
+        var results = new ByteBuffer[getRowCount()];
+        for (int i = 0; i < results.length; i++) {
+            var length = data.getInt();
+            results[i] = data.slice().limit(length).asReadOnlyBuffer();
+            data.position(data.position() + length);
+        }
+        return results;
+    }
+
+    /**
+     * Read the {@link Column#BLOCK_NUMBER} column.
+     * @return Block number of each row.
+     * @throws IOException if an I/O error occurs or the column data is corrupt.
+     */
+    public long[] getBlockNumbers() throws IOException {
+        var data = reader.readColumn(header, Column.BLOCK_NUMBER);
+        var results = new long[getRowCount()];
+        if (results.length > 0) {
+            results[0] = data.getLong();
+        }
+        for (int i = 1; i < results.length; i++) {
+            results[i] = results[i - 1] + data.getInt();
+        }
+        return results;
+    }
+
+    private String[] readDictionaryColumn(final Column column) throws IOException {
+        var data = reader.readColumn(header, column);
+        var dictionary = new String[data.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(data);
+        }
+
+        var results = new String[getRowCount()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = dictionary[data.getInt()];
+        }
+        return results;
+    }
+
+    private static String readString(final ByteBuffer data) {
+        var length = data.getInt();
+        var result = new String(data.array(), data.arrayOffset() + data.position(), length, StandardCharsets.UTF_8);
+        data.position(data.position() + length);
+        return result;
+    }
+}
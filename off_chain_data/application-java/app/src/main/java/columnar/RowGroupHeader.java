@@ -0,0 +1,146 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package columnar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * Header at the start of each row group in a columnar file. The header records the range of block numbers and number
+ * of rows in the row group, then for each {@link Column} the stored length, uncompressed length and CRC32C checksum of
+ * the stored column data, and finally a CRC32C checksum of the header itself. The column data follows the header, in
+ * column order. Column data is deflate-compressed unless its stored length equals its uncompressed length.
+ */
+final class RowGroupHeader {
+    static final int SIZE = Long.BYTES * 2 + Integer.BYTES + Column.values().length * Integer.BYTES * 3 + Integer.BYTES;
+
+    private final long position;
+    private final long firstBlockNumber;
+    private final long lastBlockNumber;
+    private final int rowCount;
+    private final int[] storedLengths;
+    private final int[] rawLengths;
+    private final int[] checksums;
+
+    RowGroupHeader(final long position, final long firstBlockNumber, final long lastBlockNumber, final int rowCount,
+                   final int[] storedLengths, final int[] rawLengths, final int[] checksums) {
+        this.position = position;
+        this.firstBlockNumber = firstBlockNumber;
+        this.lastBlockNumber = lastBlockNumber;
+        this.rowCount = rowCount;
+        this.storedLengths = storedLengths;
+        this.rawLengths = rawLengths;
+        this.checksums = checksums;
+    }
+
+    /**
+     * Read the header of a row group.
+     * @return A header, or null if there is no complete row group with a valid header at the position.
+     */
+    static RowGroupHeader read(final FileChannel channel, final long position) throws IOException {
+        var buffer = ByteBuffer.allocate(SIZE);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+
+        var crc = new CRC32C();
+        crc.update(buffer.flip().limit(SIZE - Integer.BYTES));
+        if ((int) crc.getValue() != buffer.limit(SIZE).getInt(SIZE - Integer.BYTES)) {
+            return null;
+        }
+
+        buffer.position(0);
+        var firstBlockNumber = buffer.getLong();
+        var lastBlockNumber = buffer.getLong();
+        var rowCount = buffer.getInt();
+        var columnCount = Column.values().length;
+        var storedLengths = new int[columnCount];
+        var rawLengths = new int[columnCount];
+        var checksums = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            storedLengths[i] = buffer.getInt();
+            rawLengths[i] = buffer.getInt();
+            checksums[i] = buffer.getInt();
+        }
+
+        var header = new RowGroupHeader(position, firstBlockNumber, lastBlockNumber, rowCount, storedLengths, rawLengths, checksums);
+        return header.getEnd() <= channel.size() ? header : null;
+    }
+
+    void writeTo(final ByteBuffer buffer) {
+        var start = buffer.position();
+        buffer.putLong(firstBlockNumber)
+                .putLong(lastBlockNumber)
+                .putInt(rowCount);
+        for (int i = 0; i < storedLengths.length; i++) {
+            buffer.putInt(storedLengths[i])
+                    .putInt(rawLengths[i])
+                    .putInt(checksums[i]);
+        }
+
+        var crc = new CRC32C();
+        crc.update(buffer.duplicate().flip().position(start));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * File position of the start of the row group.
+     */
+    long getPosition() {
+        return position;
+    }
+
+    long getFirstBlockNumber() {
+        return firstBlockNumber;
+    }
+
+    long getLastBlockNumber() {
+        return lastBlockNumber;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    int getStoredLength(final Column column) {
+        return storedLengths[column.ordinal()];
+    }
+
+    int getRawLength(final Column column) {
+        return rawLengths[column.ordinal()];
+    }
+
+    int getChecksum(final Column column) {
+        return checksums[column.ordinal()];
+    }
+
+    /**
+     * File position of the stored data for a column.
+     */
+    long getColumnPosition(final Column column) {
+        var result = position + SIZE;
+        for (int i = 0; i < column.ordinal(); i++) {
+            result += storedLengths[i];
+        }
+        return result;
+    }
+
+    /**
+     * File position following the row group.
+     */
+    long getEnd() {
+        var result = position + SIZE;
+        for (var length : storedLengths) {
+            result += length;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package kvstore;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Map;
+
+/**
+ * Binary encoding of key/value entries, shared by the write-ahead log and sorted tables. Each entry is the key's
+ * channel name, namespace and key as length-prefixed UTF-8 strings, followed by the length-prefixed value. A value
+ * length of -1 marks a deleted key.
+ */
+final class Entries {
+    static final int TOMBSTONE_LENGTH = -1;
+
+    static void writeKey(final DataOutput out, final StateKey key) throws IOException {
+        writeString(out, key.getChannelName());
+        writeString(out, key.getNamespace());
+        writeString(out, key.getKey());
+    }
+
+    static void writeEntry(final DataOutput out, final StateKey key, final byte[] value) throws IOException {
+        writeKey(out, key);
+        if (value == null) {
+            out.writeInt(TOMBSTONE_LENGTH);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static void writeString(final DataOutput out, final String value) throws IOException {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static StateKey readKey(final ByteBuffer in) {
+        return new StateKey(readString(in), readString(in), readString(in));
+    }
+
+    /**
+     * Read an entry whose value is {@code null} if the key was deleted.
+     */
+    static Map.Entry<StateKey, byte[]> readEntry(final ByteBuffer in) {
+        var key = readKey(in);
+        var length = in.getInt();
+        if (length == TOMBSTONE_LENGTH) {
+            return new AbstractMap.SimpleImmutableEntry<>(key, null);
+        }
+
+        var value = new byte[length];
+        in.get(value);
+        return new AbstractMap.SimpleImmutableEntry<>(key, value);
+    }
+
+    private static String readString(final ByteBuffer in) {
+        var length = in.getInt();
+        var bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Approximate memory used by an entry, for deciding when to flush in-memory data to disk.
+     */
+    static long sizeOf(final StateKey key, final byte[] value) {
+        return (long) key.getChannelName().length() + key.getNamespace().length() + key.getKey().length()
+                + (value != null ? value.length : 0);
+    }
+
+    private Entries() { }
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package kvstore;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded, log-structured key-value database holding the current value of each {@link StateKey}.
+ * <p>Batches of updates are appended to a write-ahead log and applied to an in-memory sorted table. When the in-memory
+ * table grows beyond a size threshold, it is written to an immutable sorted table file and the log is cleared. Once
+ * several sorted tables have accumulated, a background thread merges them into a single run of non-overlapping tables,
+ * rewriting only the existing merged tables whose key ranges overlap them and discarding overwritten values and deleted
+ * keys. Writes continue while the merge runs, and only stall if too many unmerged tables accumulate. The set of live
+ * table files is recorded in a manifest file that is replaced atomically, so the database recovers to a consistent
+ * state after a crash at any point.</p>
+ */
+public final class KeyValueDatabase implements AutoCloseable {
+    private static final String MANIFEST_FILE = "MANIFEST";
+    private static final String LOG_FILE = "wal.log";
+    private static final String TABLE_FILE_FORMAT = "table-%08d.sst";
+    private static final String TABLE_FILE_PREFIX = "table-";
+    private static final String TABLE_FILE_SUFFIX = ".sst";
+    private static final String NEW_TABLE_LEVEL = "new";
+    private static final String MERGED_TABLE_LEVEL = "merged";
+    private static final int COMPACTION_TRIGGER = 4;
+    private static final int MAX_NEW_TABLES = COMPACTION_TRIGGER * 3;
+    private static final long MAX_TABLE_BYTES = 64L * 1024 * 1024;
+
+    private final Path directory;
+    private final long memtableLimitBytes;
+    private final WriteAheadLog log;
+    // Tables written from the in-memory table, oldest first; key ranges may overlap.
+    private final List<SortedTable> newTables = new ArrayList<>();
+    // Tables produced by merging, in key order; key ranges do not overlap.
+    private final List<SortedTable> mergedTables = new ArrayList<>();
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "kvstore-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private NavigableMap<StateKey, byte[]> memtable = new TreeMap<>();
+    private long memtableBytes;
+    private int nextTableNumber;
+    private boolean compacting;
+    private Exception compactionFailure;
+
+    /**
+     * Open a database, creating it if it does not exist and recovering any updates not yet written to sorted tables.
+     * @param directory Directory holding the database files.
+     * @param memtableLimitBytes Approximate size of in-memory data at which it is written to a sorted table.
+     * @param sync Whether to fsync the write-ahead log on each batch. If {@code false}, the most recent batches may be
+     *             lost if the host crashes, but not if only the process fails.
+     * @throws IOException if an I/O error occurs.
+     */
+    public KeyValueDatabase(final Path directory, final long memtableLimitBytes, final boolean sync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.memtableLimitBytes = memtableLimitBytes;
+
+        loadManifest();
+        deleteUnreferencedTables();
+
+        this.log = new WriteAheadLog(directory.resolve(LOG_FILE), sync);
+        log.replay(this::applyToMemtable);
+    }
+
+    private void loadManifest() throws IOException {
+        var manifest = directory.resolve(MANIFEST_FILE);
+        if (!Files.exists(manifest)) {
+            return;
+        }
+
+        for (var line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            var fields = line.split(" ");
+            var table = new SortedTable(directory.resolve(fields[1]));
+            if (NEW_TABLE_LEVEL.equals(fields[0])) {
+                newTables.add(table);
+            } else {
+                mergedTables.add(table);
+            }
+            nextTableNumber = Math.max(nextTableNumber, parseTableNumber(fields[1]) + 1);
+        }
+    }
+
+    private static int parseTableNumber(final String fileName) {
+        return Integer.parseInt(fileName.substring(TABLE_FILE_PREFIX.length(), fileName.length() - TABLE_FILE_SUFFIX.length()));
+    }
+
+    /**
+     * Remove table files left behind by a flush or merge that did not complete.
+     */
+    private void deleteUnreferencedTables() throws IOException {
+        var liveFiles = allTables().stream()
+                .map(SortedTable::getFile)
+                .collect(Collectors.toSet());
+
+        try (var files = Files.newDirectoryStream(directory, TABLE_FILE_PREFIX + "*" + TABLE_FILE_SUFFIX)) {
+            for (var file : files) {
+                if (!liveFiles.contains(file)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private List<SortedTable> allTables() {
+        var tables = new ArrayList<>(mergedTables);
+        tables.addAll(newTables);
+        return tables;
+    }
+
+    /**
+     * Atomically apply a batch of updates.
+     * @param batch Updates to apply.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void write(final Batch batch) throws IOException {
+        if (batch.updates.isEmpty()) {
+            return;
+        }
+
+        log.append(batch.updates);
+        batch.updates.forEach(update -> applyToMemtable(update.getKey(), update.getValue()));
+
+        if (memtableBytes >= memtableLimitBytes) {
+            flush();
+        }
+    }
+
+    private void applyToMemtable(final StateKey key, final byte[] value) {
+        memtable.put(key, value);
+        memtableBytes += Entries.sizeOf(key, value);
+    }
+
+    /**
+     * Get the current value of a key.
+     * @param key A key.
+     * @return The value, or empty if the key does not exist or has been deleted.
+     */
+    public synchronized Optional<byte[]> get(final StateKey key) {
+        if (memtable.containsKey(key)) {
+            return Optional.ofNullable(memtable.get(key));
+        }
+
+        for (int i = newTables.size() - 1; i >= 0; i--) {
+            var entry = newTables.get(i).get(key);
+            if (entry != null) {
+                return Optional.ofNullable(entry.getValue());
+            }
+        }
+
+        for (var table : mergedTables) {
+            var entry = table.get(key);
+            if (entry != null) {
+                return Optional.ofNullable(entry.getValue());
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Get the current values of all keys in a range.
+     * @param start First key in the range (inclusive).
+     * @param end End of the range (exclusive).
+     * @return Existing keys and their values, in key order.
+     */
+    public synchronized NavigableMap<StateKey, byte[]> getRange(final StateKey start, final StateKey end) {
+        // Apply sources from oldest to newest so that newer values and tombstones replace older ones.
+        var results = new TreeMap<StateKey, byte[]>();
+        for (var table : allTables()) {
+            table.scan(start, end, results::put);
+        }
+        results.putAll(memtable.subMap(start, true, end, false));
+
+        results.values().removeIf(value -> value == null);
+        return results;
+    }
+
+    /**
+     * Write all in-memory data to a sorted table, so it no longer needs to be recovered from the write-ahead log.
+     * @throws IOException if an I/O error occurs, or if a background compaction failed.
+     */
+    public synchronized void flush() throws IOException {
+        checkCompactionFailure();
+        if (memtable.isEmpty()) {
+            return;
+        }
+
+        var file = newTableFile();
+        SortedTable.write(file, memtable.entrySet().iterator(), Long.MAX_VALUE);
+        newTables.add(new SortedTable(file));
+        writeManifest();
+
+        log.reset();
+        memtable = new TreeMap<>();
+        memtableBytes = 0;
+
+        // Stall writes if compaction is falling behind, so that lookups do not have to search too many tables.
+        while (compacting && newTables.size() >= MAX_NEW_TABLES) {
+            awaitCompaction();
+        }
+        checkCompactionFailure();
+
+        if (!compacting && newTables.size() >= COMPACTION_TRIGGER) {
+            startCompaction();
+        }
+    }
+
+    private void checkCompactionFailure() throws IOException {
+        if (compactionFailure != null) {
+            throw new IOException("Background compaction failed", compactionFailure);
+        }
+    }
+
+    private void awaitCompaction() throws IOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for compaction");
+        }
+    }
+
+    /**
+     * Start merging the current new tables into the merged tables whose key ranges overlap them, on the compaction
+     * thread. Merged tables outside the key range of the new tables are left untouched, so keys that are not being
+     * updated are not rewritten. Since no older table can hold a key in the merged range, deleted keys are discarded.
+     */
+    private void startCompaction() {
+        var sources = List.copyOf(newTables);
+        var first = sources.stream().map(SortedTable::getFirstKey).min(StateKey::compareTo).orElseThrow();
+        var last = sources.stream().map(SortedTable::getLastKey).max(StateKey::compareTo).orElseThrow();
+
+        var start = 0;
+        while (start < mergedTables.size() && mergedTables.get(start).getLastKey().compareTo(first) < 0) {
+            start++;
+        }
+        var end = start;
+        while (end < mergedTables.size() && mergedTables.get(end).getFirstKey().compareTo(last) <= 0) {
+            end++;
+        }
+        var overlapping = List.copyOf(mergedTables.subList(start, end));
+        var mergedIndex = start;
+
+        compacting = true;
+        compactor.execute(() -> {
+            try {
+                var merged = merge(overlapping, sources);
+                installCompaction(mergedIndex, overlapping, sources, merged);
+            } catch (IOException | RuntimeException e) {
+                failCompaction(e);
+            }
+        });
+    }
+
+    /**
+     * Merge tables, oldest first, into a run of non-overlapping tables containing only the current value of each
+     * existing key. Called on the compaction thread without holding the database lock.
+     */
+    private List<SortedTable> merge(final List<SortedTable> overlapping, final List<SortedTable> sources)
+            throws IOException {
+        var iterators = new ArrayList<Iterator<Map.Entry<StateKey, byte[]>>>();
+        overlapping.forEach(table -> iterators.add(table.iterator()));
+        sources.forEach(table -> iterators.add(table.iterator()));
+        var entries = new MergingIterator(iterators);
+
+        var merged = new ArrayList<SortedTable>();
+        while (entries.hasNext()) {
+            var file = newTableFile();
+            SortedTable.write(file, entries, MAX_TABLE_BYTES);
+            merged.add(new SortedTable(file));
+        }
+        return merged;
+    }
+
+    /**
+     * Replace the compacted tables with the merge output. Tables flushed while the merge was running are newer than
+     * the compacted tables, so they are kept.
+     */
+    private synchronized void installCompaction(final int mergedIndex, final List<SortedTable> overlapping,
+            final List<SortedTable> sources, final List<SortedTable> merged) throws IOException {
+        newTables.subList(0, sources.size()).clear();
+        var replaced = mergedTables.subList(mergedIndex, mergedIndex + overlapping.size());
+        replaced.clear();
+        replaced.addAll(merged);
+        writeManifest();
+
+        compacting = false;
+        notifyAll();
+
+        for (var table : overlapping) {
+            Files.delete(table.getFile());
+        }
+        for (var table : sources) {
+            Files.delete(table.getFile());
+        }
+    }
+
+    private synchronized void failCompaction(final Exception e) {
+        if (compactionFailure == null) {
+            compactionFailure = e;
+        }
+        compacting = false;
+        notifyAll();
+    }
+
+    private synchronized Path newTableFile() {
+        return directory.resolve(String.format(TABLE_FILE_FORMAT, nextTableNumber++));
+    }
+
+    private void writeManifest() throws IOException {
+        var lines = new ArrayList<String>();
+        mergedTables.forEach(table -> lines.add(MERGED_TABLE_LEVEL + " " + table.getFile().getFileName()));
+        newTables.forEach(table -> lines.add(NEW_TABLE_LEVEL + " " + table.getFile().getFileName()));
+
+        var manifest = directory.resolve(MANIFEST_FILE);
+        var tempFile = directory.resolve(MANIFEST_FILE + ".tmp");
+        Files.write(tempFile, lines, StandardCharsets.UTF_8);
+        try (var channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tempFile, manifest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+            while (compacting) {
+                awaitCompaction();
+            }
+            checkCompactionFailure();
+        } finally {
+            compactor.shutdown();
+            log.close();
+        }
+    }
+
+    /**
+     * Set of updates applied atomically by {@link #write(Batch)}. Later updates to a key replace earlier ones.
+     */
+    public static final class Batch {
+        private final List<Map.Entry<StateKey, byte[]>> updates = new ArrayList<>();
+
+        /**
+         * Set the value of a key. The value array is retained by the batch and must not be modified afterwards.
+         * @param key A key.
+         * @param value New value.
+         * @return This batch.
+         */
+        public Batch put(final StateKey key, final byte[] value) {
+            updates.add(new AbstractMap.SimpleImmutableEntry<>(key, value));
+            return this;
+        }
+
+        /**
+         * Delete a key.
+         * @param key A key.
+         * @return This batch.
+         */
+        public Batch delete(final StateKey key) {
+            updates.add(new AbstractMap.SimpleImmutableEntry<>(key, null));
+            return this;
+        }
+
+        /**
+         * Number of updates in the batch.
+         * @return An update count.
+         */
+        public int size() {
+            return updates.size();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package kvstore;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges several key-ordered entry sources into a single key-ordered sequence containing only the newest entry for
+ * each key. Sources are supplied oldest first. Keys whose newest entry is a tombstone are omitted.
+ */
+final class MergingIterator implements Iterator<Map.Entry<StateKey, byte[]>> {
+    private final PriorityQueue<Source> queue = new PriorityQueue<>(Comparator.comparing((Source source) -> source.current.getKey())
+            .thenComparing(source -> -source.age));
+    private Map.Entry<StateKey, byte[]> next;
+
+    MergingIterator(final List<Iterator<Map.Entry<StateKey, byte[]>>> sources) {
+        for (int i = 0; i < sources.size(); i++) {
+            var source = new Source(sources.get(i), i);
+            if (source.advance()) {
+                queue.add(source);
+            }
+        }
+        next = findNext();
+    }
+
+    private Map.Entry<StateKey, byte[]> findNext() {
+        while (!queue.isEmpty()) {
+            var newest = queue.poll();
+            var entry = newest.current;
+
+            // Skip older entries for the same key.
+            while (!queue.isEmpty() && queue.peek().current.getKey().equals(entry.getKey())) {
+                requeue(queue.poll());
+            }
+            requeue(newest);
+
+            if (entry.getValue() != null) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void requeue(final Source source) {
+        if (source.advance()) {
+            queue.add(source);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map.Entry<StateKey, byte[]> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+
+        var result = next;
+        next = findNext();
+        return result;
+    }
+
+    private static final class Source {
+        private final Iterator<Map.Entry<StateKey, byte[]>> entries;
+        private final int age;
+        private Map.Entry<StateKey, byte[]> current;
+
+        Source(final Iterator<Map.Entry<StateKey, byte[]>> entries, final int age) {
+            this.entries = entries;
+            this.age = age;
+        }
+
+        boolean advance() {
+            current = entries.hasNext() ? entries.next() : null;
+            return current != null;
+        }
+    }
+}
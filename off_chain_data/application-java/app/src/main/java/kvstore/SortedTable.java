@@ -0,0 +1,189 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package kvstore;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable file of entries sorted by key, including tombstones for deleted keys. The file is memory-mapped for reads.
+ * Every {@value #INDEX_INTERVAL}th entry is recorded in a sparse index held in memory, so a lookup is a binary search
+ * of the index followed by a short scan of the mapped data.
+ * <p>File layout: entries, index (count then key and offset pairs), last key, index offset, magic number.</p>
+ */
+final class SortedTable {
+    private static final int MAGIC = 0x4F434B56;
+    private static final int INDEX_INTERVAL = 16;
+    private static final int TRAILER_SIZE = Integer.BYTES * 2;
+
+    private final Path file;
+    private final ByteBuffer data;
+    private final int dataEnd;
+    private final StateKey[] indexKeys;
+    private final int[] indexOffsets;
+    private final StateKey lastKey;
+
+    /**
+     * Write entries to a new table file, stopping once the file reaches the maximum size. Entries must be supplied in
+     * key order, and at least one entry must be available.
+     */
+    static void write(final Path file, final Iterator<Map.Entry<StateKey, byte[]>> entries, final long maxBytes)
+            throws IOException {
+        var index = new ArrayList<Map.Entry<StateKey, Integer>>();
+        StateKey lastKey = null;
+
+        try (var fileOut = new FileOutputStream(file.toFile());
+             var out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            var count = 0;
+            while (entries.hasNext() && out.size() < maxBytes) {
+                var entry = entries.next();
+                if (count++ % INDEX_INTERVAL == 0) {
+                    index.add(Map.entry(entry.getKey(), out.size()));
+                }
+                Entries.writeEntry(out, entry.getKey(), entry.getValue());
+                lastKey = entry.getKey();
+            }
+
+            var indexOffset = out.size();
+            out.writeInt(index.size());
+            for (var entry : index) {
+                Entries.writeKey(out, entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+            Entries.writeKey(out, lastKey);
+            out.writeInt(indexOffset);
+            out.writeInt(MAGIC);
+
+            out.flush();
+            fileOut.getFD().sync();
+        }
+    }
+
+    SortedTable(final Path file) throws IOException {
+        this.file = file;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        var trailer = data.duplicate().position(data.limit() - TRAILER_SIZE);
+        this.dataEnd = trailer.getInt();
+        if (trailer.getInt() != MAGIC) {
+            throw new IOException("Not a sorted table: " + file);
+        }
+
+        var in = data.duplicate().position(dataEnd);
+        var indexSize = in.getInt();
+        this.indexKeys = new StateKey[indexSize];
+        this.indexOffsets = new int[indexSize];
+        for (int i = 0; i < indexSize; i++) {
+            indexKeys[i] = Entries.readKey(in);
+            indexOffsets[i] = in.getInt();
+        }
+        this.lastKey = Entries.readKey(in);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    StateKey getFirstKey() {
+        return indexKeys[0];
+    }
+
+    StateKey getLastKey() {
+        return lastKey;
+    }
+
+    /**
+     * Find the entry for a key.
+     * @return The entry, whose value is {@code null} if the key was deleted, or {@code null} if the table does not
+     * contain the key.
+     */
+    Map.Entry<StateKey, byte[]> get(final StateKey key) {
+        if (key.compareTo(lastKey) > 0) {
+            return null;
+        }
+
+        var indexPosition = floorIndex(key);
+        if (indexPosition < 0) {
+            return null;
+        }
+
+        var in = data.duplicate().position(indexOffsets[indexPosition]).limit(dataEnd);
+        while (in.hasRemaining()) {
+            var entry = Entries.readEntry(in);
+            var order = entry.getKey().compareTo(key);
+            if (order == 0) {
+                return entry;
+            }
+            if (order > 0) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pass each entry with a key from {@code start} (inclusive) to {@code end} (exclusive) to the consumer in key
+     * order, including tombstones with a {@code null} value.
+     */
+    void scan(final StateKey start, final StateKey end, final BiConsumer<StateKey, byte[]> consumer) {
+        if (start.compareTo(lastKey) > 0) {
+            return;
+        }
+
+        var indexPosition = Math.max(floorIndex(start), 0);
+        var in = data.duplicate().position(indexOffsets[indexPosition]).limit(dataEnd);
+        while (in.hasRemaining()) {
+            var entry = Entries.readEntry(in);
+            if (entry.getKey().compareTo(end) >= 0) {
+                return;
+            }
+            if (entry.getKey().compareTo(start) >= 0) {
+                consumer.accept(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Iterate over all entries in key order, including tombstones with a {@code null} value.
+     */
+    Iterator<Map.Entry<StateKey, byte[]>> iterator() {
+        var in = data.duplicate().position(0).limit(dataEnd);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return in.hasRemaining();
+            }
+
+            @Override
+            public Map.Entry<StateKey, byte[]> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return Entries.readEntry(in);
+            }
+        };
+    }
+
+    private int floorIndex(final StateKey key) {
+        var position = Arrays.binarySearch(indexKeys, key);
+        return position >= 0 ? position : -position - 2;
+    }
+}
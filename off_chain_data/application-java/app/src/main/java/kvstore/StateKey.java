@@ -0,0 +1,82 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package kvstore;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Identifies a ledger key within a channel and chaincode namespace. Keys are ordered by channel name, then namespace,
+ * then key.
+ */
+public final class StateKey implements Comparable<StateKey> {
+    private static final Comparator<StateKey> ORDER = Comparator.comparing(StateKey::getChannelName)
+            .thenComparing(StateKey::getNamespace)
+            .thenComparing(StateKey::getKey);
+
+    private final String channelName;
+    private final String namespace;
+    private final String key;
+
+    public StateKey(final String channelName, final String namespace, final String key) {
+        this.channelName = Objects.requireNonNull(channelName, "channelName");
+        this.namespace = Objects.requireNonNull(namespace, "namespace");
+        this.key = Objects.requireNonNull(key, "key");
+    }
+
+    /**
+     * Channel whose ledger holds the key.
+     * @return A channel name.
+     */
+    public String getChannelName() {
+        return channelName;
+    }
+
+    /**
+     * Namespace within the ledger.
+     * @return A ledger namespace.
+     */
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * Key name within the ledger namespace.
+     * @return A ledger key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public int compareTo(final StateKey other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof StateKey)) {
+            return false;
+        }
+
+        var that = (StateKey) other;
+        return channelName.equals(that.channelName) && namespace.equals(that.namespace) && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(channelName, namespace, key);
+    }
+
+    @Override
+    public String toString() {
+        return channelName + "/" + namespace + "/" + key;
+    }
+}
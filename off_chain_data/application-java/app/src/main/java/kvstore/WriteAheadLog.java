@@ -0,0 +1,114 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package kvstore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Log of batches applied to the in-memory table but not yet written to a sorted table. Each record holds one batch,
+ * so a batch is recovered either completely or not at all. Records are framed as length, CRC32 checksum, then the
+ * entry count and entries. Recovery stops at the first incomplete or corrupt record, which is discarded.
+ */
+final class WriteAheadLog implements AutoCloseable {
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final FileChannel channel;
+    private final boolean sync;
+
+    WriteAheadLog(final Path file, final boolean sync) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.sync = sync;
+    }
+
+    /**
+     * Pass all recovered entries to the consumer, in the order they were written, and position the log for appending
+     * after the last complete record.
+     */
+    void replay(final BiConsumer<StateKey, byte[]> consumer) throws IOException {
+        var size = channel.size();
+        var data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        var crc = new CRC32();
+
+        long validEnd = 0;
+        while (data.remaining() >= HEADER_SIZE) {
+            var length = data.getInt();
+            var checksum = data.getInt();
+            if (length < 0 || length > data.remaining()) {
+                break;
+            }
+
+            var record = data.slice().limit(length);
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            var count = record.getInt();
+            for (int i = 0; i < count; i++) {
+                var entry = Entries.readEntry(record);
+                consumer.accept(entry.getKey(), entry.getValue());
+            }
+
+            data.position(data.position() + length);
+            validEnd = data.position();
+        }
+
+        channel.truncate(validEnd);
+        channel.position(validEnd);
+    }
+
+    void append(final Collection<Map.Entry<StateKey, byte[]>> entries) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        out.writeInt(entries.size());
+        for (var entry : entries) {
+            Entries.writeEntry(out, entry.getKey(), entry.getValue());
+        }
+        out.flush();
+
+        var payload = bytes.toByteArray();
+        var crc = new CRC32();
+        crc.update(payload);
+
+        var record = ByteBuffer.allocate(HEADER_SIZE + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Discard all records, once their entries have been written to a sorted table.
+     */
+    void reset() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -13,5 +13,11 @@ import java.util.List;
 public interface Block {
     long getNumber();
     List<Transaction> getTransactions() throws InvalidProtocolBufferException;
+
+    /**
+     * Transactions whose index within the block data is at least {@code startIndex}. Earlier envelopes are not decoded.
+     */
+    List<Transaction> getTransactions(int startIndex) throws InvalidProtocolBufferException;
+    FilterStats getFilterStats();
     org.hyperledger.fabric.protos.common.Block toProto();
 }
@@ -6,9 +6,28 @@
 
 package parser;
 
+import org.hyperledger.fabric.protos.peer.BlockAndPrivateData;
+
+import java.util.Map;
+
 public final class BlockParser {
     public static Block parseBlock(final org.hyperledger.fabric.protos.common.Block block) {
-        return new ParsedBlock(block);
+        return parseBlock(block, ParserOptions.DEFAULT);
+    }
+
+    public static Block parseBlock(final org.hyperledger.fabric.protos.common.Block block, final ParserOptions options) {
+        return new ParsedBlock(block, Map.of(), options);
+    }
+
+    /**
+     * Parse a block together with the private data for its transactions that is available to the client's organization.
+     * Private data is exposed through the collection read/write sets of each namespace.
+     * @param blockAndPrivateData A block and its private data.
+     * @param options Parser options.
+     * @return A parsed block.
+     */
+    public static Block parseBlock(final BlockAndPrivateData blockAndPrivateData, final ParserOptions options) {
+        return new ParsedBlock(blockAndPrivateData.getBlock(), blockAndPrivateData.getPrivateDataMapMap(), options);
     }
 
     private BlockParser() { }
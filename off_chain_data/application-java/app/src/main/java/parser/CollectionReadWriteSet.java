@@ -0,0 +1,42 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package parser;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.hyperledger.fabric.protos.ledger.rwset.CollectionHashedReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.HashedRWSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVRWSet;
+
+import java.util.Optional;
+
+/**
+ * Reads and writes of a private data collection within a namespace. The block contains only hashes of the keys and
+ * values; the private data itself is available only if it was supplied when the block was parsed, which requires the
+ * client's organization to be a member of the collection.
+ */
+public interface CollectionReadWriteSet {
+    String getCollectionName();
+
+    /**
+     * Hashes of the keys read and of the keys and values written. Decoded on first access.
+     */
+    HashedRWSet getHashedReadWriteSet() throws InvalidProtocolBufferException;
+
+    /**
+     * Hash of the serialized private read/write set, which can be used to verify private data obtained separately.
+     */
+    ByteString getPrivateReadWriteSetHash();
+
+    /**
+     * Private reads and writes, if private data for this collection was supplied when the block was parsed. Decoded on
+     * first access.
+     */
+    Optional<KVRWSet> getPrivateReadWriteSet() throws InvalidProtocolBufferException;
+
+    CollectionHashedReadWriteSet toProto();
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package parser;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts of read/write set content within a block discarded by a {@link ReadWriteSetFilter}. Counts include only
+ * transactions whose read/write sets have been accessed.
+ */
+public final class FilterStats {
+    private final AtomicLong skippedNamespaceCount = new AtomicLong();
+    private final AtomicLong skippedBytes = new AtomicLong();
+    private final AtomicLong skippedKeyCount = new AtomicLong();
+
+    void recordSkippedNamespace(final long bytes) {
+        skippedNamespaceCount.incrementAndGet();
+        skippedBytes.addAndGet(bytes);
+    }
+
+    void recordSkippedKeys(final long count) {
+        skippedKeyCount.addAndGet(count);
+    }
+
+    /**
+     * Number of namespace read/write sets that were not decoded.
+     * @return A namespace count.
+     */
+    public long getSkippedNamespaceCount() {
+        return skippedNamespaceCount.get();
+    }
+
+    /**
+     * Size of the namespace read/write sets that were not decoded.
+     * @return A size in bytes.
+     */
+    public long getSkippedBytes() {
+        return skippedBytes.get();
+    }
+
+    /**
+     * Number of reads and writes removed from decoded read/write sets.
+     * @return A key count.
+     */
+    public long getSkippedKeyCount() {
+        return skippedKeyCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "skippedNamespaces=" + getSkippedNamespaceCount()
+                + ", skippedBytes=" + getSkippedBytes()
+                + ", skippedKeys=" + getSkippedKeyCount();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package parser;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.Callable;
+
+/**
+ * Single-assignment holder for a lazily decoded value. The value is computed at most once, on first access, and the
+ * initializer is then released. Once computed, reading the value is a single acquire load, which on common hardware
+ * is as cheap as a plain field read. If the initializer fails, the exception is cached and rethrown by every
+ * subsequent access rather than decoding again.
+ */
+final class Lazy<T> {
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Lazy.class, "state", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Initializer that decodes protobuf content.
+     * @param <T> Decoded value type.
+     */
+    interface ProtoCall<T> extends Callable<T> {
+        @Override
+        T call() throws InvalidProtocolBufferException;
+    }
+
+    private ProtoCall<T> initializer;
+    // The computed value, a Failure if the initializer threw, or null if not yet computed.
+    @SuppressWarnings("unused") // Accessed through STATE
+    private Object state;
+
+    Lazy(final ProtoCall<T> initializer) {
+        this.initializer = initializer;
+    }
+
+    /**
+     * Get the value, computing it if this is the first access.
+     */
+    T get() throws InvalidProtocolBufferException {
+        var current = STATE.getAcquire(this);
+        if (current == null) {
+            current = compute();
+        }
+
+        return unwrap(current);
+    }
+
+    /**
+     * Whether the value has been computed, successfully or not.
+     */
+    boolean isDone() {
+        return STATE.getAcquire(this) != null;
+    }
+
+    private synchronized Object compute() {
+        var current = STATE.getAcquire(this);
+        if (current != null) {
+            return current;
+        }
+
+        try {
+            current = initializer.call();
+        } catch (InvalidProtocolBufferException | RuntimeException e) {
+            current = new Failure(e);
+        }
+
+        initializer = null;
+        STATE.setRelease(this, current);
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T unwrap(final Object current) throws InvalidProtocolBufferException {
+        if (current instanceof Failure) {
+            var cause = ((Failure) current).cause;
+            if (cause instanceof InvalidProtocolBufferException) {
+                throw (InvalidProtocolBufferException) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+
+        return (T) current;
+    }
+
+    private static final class Failure {
+        private final Exception cause;
+
+        Failure(final Exception cause) {
+            this.cause = cause;
+        }
+    }
+}
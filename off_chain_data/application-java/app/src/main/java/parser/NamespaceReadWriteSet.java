@@ -10,8 +10,16 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import org.hyperledger.fabric.protos.ledger.rwset.NsReadWriteSet;
 import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVRWSet;
 
+import java.util.List;
+
 public interface NamespaceReadWriteSet {
     String getNamespace();
     KVRWSet getReadWriteSet() throws InvalidProtocolBufferException;
+
+    /**
+     * Hashed read/write sets for private data collections written by the transaction in this namespace.
+     */
+    List<CollectionReadWriteSet> getCollectionReadWriteSets() throws InvalidProtocolBufferException;
+
     NsReadWriteSet toProto();
 }
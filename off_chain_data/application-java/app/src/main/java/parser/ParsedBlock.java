@@ -6,24 +6,50 @@
 
 package parser;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import org.hyperledger.fabric.protos.common.BlockMetadataIndex;
 import org.hyperledger.fabric.protos.common.Envelope;
 import org.hyperledger.fabric.protos.common.Payload;
+import org.hyperledger.fabric.protos.ledger.rwset.TxPvtReadWriteSet;
 import org.hyperledger.fabric.protos.peer.TxValidationCode;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.StreamSupport;
 
 class ParsedBlock implements Block {
+    // Below this many transactions, the overhead of parallel decoding outweighs the benefit.
+    private static final int MIN_PARALLEL_TRANSACTIONS = 8;
+
     private final org.hyperledger.fabric.protos.common.Block block;
-    private final AtomicReference<List<Transaction>> cachedTransactions = new AtomicReference<>();
+    private final Map<Long, TxPvtReadWriteSet> privateData;
+    private final ParserOptions options;
+    private final FilterStats filterStats = new FilterStats();
+    private final Lazy<List<Transaction>> cachedTransactions;
 
-    ParsedBlock(final org.hyperledger.fabric.protos.common.Block block) {
+    /**
+     * @param privateData Private data for transactions in the block, keyed by the index of the transaction envelope.
+     */
+    ParsedBlock(final org.hyperledger.fabric.protos.common.Block block, final Map<Long, TxPvtReadWriteSet> privateData,
+                final ParserOptions options) {
         this.block = block;
+        this.privateData = privateData;
+        this.options = options;
+        this.cachedTransactions = new Lazy<>(() -> {
+            var pool = options.getDecodePool();
+            if (pool.isPresent() && block.getData().getDataCount() >= MIN_PARALLEL_TRANSACTIONS) {
+                return decodeTransactionsInParallel(pool.get());
+            }
+
+            return decodeTransactions(0);
+        });
     }
 
     @Override
@@ -33,20 +59,38 @@ class ParsedBlock implements Block {
 
     @Override
     public List<Transaction> getTransactions() throws InvalidProtocolBufferException {
-        return Utils.getCachedProto(cachedTransactions, () -> {
-            var validationCodes = getTransactionValidationCodes();
-            var payloads = getPayloads();
-
-            var transactions = new ArrayList<Transaction>();
-            for (int i = 0; i < payloads.size(); i++) {
-                var payload = new ParsedPayload(payloads.get(i), validationCodes.get(i));
-                if (payload.isEndorserTransaction()) {
-                    transactions.add(new ParsedTransaction(payload));
-                }
+        return cachedTransactions.get();
+    }
+
+    @Override
+    public List<Transaction> getTransactions(final int startIndex) throws InvalidProtocolBufferException {
+        if (startIndex <= 0 || cachedTransactions.isDone()) {
+            return getTransactions().stream()
+                    .filter(transaction -> transaction.getIndex() >= startIndex)
+                    .collect(Collectors.toList());
+        }
+
+        return decodeTransactions(startIndex);
+    }
+
+    private List<Transaction> decodeTransactions(final int startIndex) throws InvalidProtocolBufferException {
+        var validationCodes = getTransactionValidationCodes();
+        var envelopes = block.getData().getDataList();
+
+        var transactions = new ArrayList<Transaction>();
+        for (int i = startIndex; i < envelopes.size(); i++) {
+            var payload = new ParsedPayload(parsePayload(envelopes.get(i)), validationCodes.get(i));
+            if (payload.isEndorserTransaction()) {
+                transactions.add(new ParsedTransaction(i, payload, getPrivateData(i), options.getFilter(), filterStats));
             }
+        }
 
-            return transactions;
-        });
+        return transactions;
+    }
+
+    @Override
+    public FilterStats getFilterStats() {
+        return filterStats;
     }
 
     @Override
@@ -54,16 +98,64 @@ class ParsedBlock implements Block {
         return block;
     }
 
-    private List<Payload> getPayloads() throws InvalidProtocolBufferException {
-        var payloads = new ArrayList<Payload>();
+    private static Payload parsePayload(final ByteString envelopeBytes) throws InvalidProtocolBufferException {
+        var envelope = Envelope.parseFrom(envelopeBytes);
+        return Payload.parseFrom(envelope.getPayload());
+    }
+
+    private List<Transaction> decodeTransactionsInParallel(final ForkJoinPool pool) throws InvalidProtocolBufferException {
+        var validationCodes = getTransactionValidationCodes();
+        var envelopes = block.getData().getDataList();
+        var failure = new AtomicReference<InvalidProtocolBufferException>();
 
-        for (var envelopeBytes : block.getData().getDataList()) {
-            var envelope = Envelope.parseFrom(envelopeBytes);
-            var payload = Payload.parseFrom(envelope.getPayload());
-            payloads.add(payload);
+        var transactions = pool.submit(() -> IntStream.range(0, envelopes.size())
+                .parallel()
+                .mapToObj(i -> {
+                    try {
+                        return decodeTransaction(i, envelopes.get(i), validationCodes.get(i));
+                    } catch (InvalidProtocolBufferException e) {
+                        failure.compareAndSet(null, e);
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList())
+        ).join();
+
+        if (failure.get() != null) {
+            throw failure.get();
         }
 
-        return payloads;
+        return transactions;
+    }
+
+    /**
+     * Fully decode a transaction so that no further decoding is required when its content is accessed. As when decoding
+     * sequentially, the read/write sets of invalid transactions are not decoded, so content that cannot be decoded in a
+     * transaction that is never processed does not cause the block to fail.
+     * @return A transaction, or {@code null} if the envelope does not contain an endorser transaction.
+     */
+    private Transaction decodeTransaction(final int index, final ByteString envelopeBytes, final TxValidationCode validationCode)
+            throws InvalidProtocolBufferException {
+        var payload = new ParsedPayload(parsePayload(envelopeBytes), validationCode);
+        if (!payload.isEndorserTransaction()) {
+            return null;
+        }
+
+        var transaction = new ParsedTransaction(index, payload, getPrivateData(index), options.getFilter(), filterStats);
+        if (!payload.isValid()) {
+            return transaction;
+        }
+
+        for (var readWriteSet : transaction.getNamespaceReadWriteSets()) {
+            readWriteSet.getReadWriteSet();
+        }
+
+        return transaction;
+    }
+
+    private TxPvtReadWriteSet getPrivateData(final int index) {
+        return privateData.getOrDefault((long) index, TxPvtReadWriteSet.getDefaultInstance());
     }
 
     private List<TxValidationCode> getTransactionValidationCodes() {
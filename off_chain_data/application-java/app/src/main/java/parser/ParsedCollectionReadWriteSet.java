@@ -0,0 +1,70 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package parser;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.hyperledger.fabric.protos.ledger.rwset.CollectionHashedReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.CollectionPvtReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.NsPvtReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.HashedRWSet;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVRWSet;
+
+import java.util.Optional;
+
+final class ParsedCollectionReadWriteSet implements CollectionReadWriteSet {
+    private final CollectionHashedReadWriteSet readWriteSet;
+    private final Lazy<HashedRWSet> cachedHashedReadWriteSet;
+    private final Lazy<Optional<KVRWSet>> cachedPrivateReadWriteSet;
+
+    /**
+     * @param readWriteSet Hashed read/write set from the block.
+     * @param privateReadWriteSet Private data for the namespace, which may not include this collection.
+     */
+    ParsedCollectionReadWriteSet(final CollectionHashedReadWriteSet readWriteSet, final NsPvtReadWriteSet privateReadWriteSet) {
+        this.readWriteSet = readWriteSet;
+        this.cachedHashedReadWriteSet = new Lazy<>(() -> HashedRWSet.parseFrom(readWriteSet.getHashedRwset()));
+        this.cachedPrivateReadWriteSet = new Lazy<>(() -> {
+            var privateCollection = findCollection(privateReadWriteSet, readWriteSet.getCollectionName());
+            return privateCollection.isPresent()
+                    ? Optional.of(KVRWSet.parseFrom(privateCollection.get().getRwset()))
+                    : Optional.empty();
+        });
+    }
+
+    private static Optional<CollectionPvtReadWriteSet> findCollection(final NsPvtReadWriteSet privateReadWriteSet,
+                                                                      final String collectionName) {
+        return privateReadWriteSet.getCollectionPvtRwsetList().stream()
+                .filter(collection -> collection.getCollectionName().equals(collectionName))
+                .findFirst();
+    }
+
+    @Override
+    public String getCollectionName() {
+        return readWriteSet.getCollectionName();
+    }
+
+    @Override
+    public HashedRWSet getHashedReadWriteSet() throws InvalidProtocolBufferException {
+        return cachedHashedReadWriteSet.get();
+    }
+
+    @Override
+    public ByteString getPrivateReadWriteSetHash() {
+        return readWriteSet.getPvtRwsetHash();
+    }
+
+    @Override
+    public Optional<KVRWSet> getPrivateReadWriteSet() throws InvalidProtocolBufferException {
+        return cachedPrivateReadWriteSet.get();
+    }
+
+    @Override
+    public CollectionHashedReadWriteSet toProto() {
+        return readWriteSet;
+    }
+}
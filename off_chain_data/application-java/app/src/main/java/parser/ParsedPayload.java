@@ -13,25 +13,25 @@ import org.hyperledger.fabric.protos.common.Payload;
 import org.hyperledger.fabric.protos.common.SignatureHeader;
 import org.hyperledger.fabric.protos.peer.TxValidationCode;
 
-import java.util.concurrent.atomic.AtomicReference;
-
 class ParsedPayload {
     private final Payload payload;
     private final TxValidationCode statusCode;
-    private final AtomicReference<ChannelHeader> cachedChannelHeader = new AtomicReference<>();
-    private final AtomicReference<SignatureHeader> cachedSignatureHeader = new AtomicReference<>();
+    private final Lazy<ChannelHeader> cachedChannelHeader;
+    private final Lazy<SignatureHeader> cachedSignatureHeader;
 
     ParsedPayload(final Payload payload, final TxValidationCode statusCode) {
         this.payload = payload;
         this.statusCode = statusCode;
+        this.cachedChannelHeader = new Lazy<>(() -> ChannelHeader.parseFrom(payload.getHeader().getChannelHeader()));
+        this.cachedSignatureHeader = new Lazy<>(() -> SignatureHeader.parseFrom(payload.getHeader().getSignatureHeader()));
     }
 
     public ChannelHeader getChannelHeader() throws InvalidProtocolBufferException {
-        return Utils.getCachedProto(cachedChannelHeader, () -> ChannelHeader.parseFrom(payload.getHeader().getChannelHeader()));
+        return cachedChannelHeader.get();
     }
 
     public SignatureHeader getSignatureHeader() throws InvalidProtocolBufferException {
-        return Utils.getCachedProto(cachedSignatureHeader, () -> SignatureHeader.parseFrom(payload.getHeader().getSignatureHeader()));
+        return cachedSignatureHeader.get();
     }
 
     public TxValidationCode getValidationCode() {
@@ -7,31 +7,61 @@
 package parser;
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import org.hyperledger.fabric.protos.ledger.rwset.NsPvtReadWriteSet;
 import org.hyperledger.fabric.protos.ledger.rwset.NsReadWriteSet;
+import org.hyperledger.fabric.protos.ledger.rwset.TxPvtReadWriteSet;
 import org.hyperledger.fabric.protos.ledger.rwset.TxReadWriteSet;
 import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVRWSet;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 class ParsedReadWriteSet implements NamespaceReadWriteSet {
     private final NsReadWriteSet readWriteSet;
-    private final AtomicReference<KVRWSet> cachedReadWriteSet = new AtomicReference<>();
+    private final NsPvtReadWriteSet privateReadWriteSet;
+    private final ReadWriteSetFilter filter;
+    private final FilterStats filterStats;
+    private final Lazy<KVRWSet> cachedReadWriteSet;
+    private final Lazy<List<CollectionReadWriteSet>> cachedCollectionReadWriteSets;
 
-    static List<ParsedReadWriteSet> fromTxReadWriteSet(final TxReadWriteSet readWriteSet) {
+    static List<ParsedReadWriteSet> fromTxReadWriteSet(final TxReadWriteSet readWriteSet, final TxPvtReadWriteSet privateData,
+                                                       final ReadWriteSetFilter filter, final FilterStats filterStats) {
         var dataModel = readWriteSet.getDataModel();
         if (dataModel != TxReadWriteSet.DataModel.KV) {
             throw new IllegalArgumentException("Unexpected read/write set data model: " + dataModel.name());
         }
 
-        return readWriteSet.getNsRwsetList().stream()
-                .map(ParsedReadWriteSet::new)
-                .collect(Collectors.toList());
+        var results = new ArrayList<ParsedReadWriteSet>();
+        for (var namespaceReadWriteSet : readWriteSet.getNsRwsetList()) {
+            if (filter.isNamespaceSelected(namespaceReadWriteSet.getNamespace())) {
+                var privateReadWriteSet = findNamespace(privateData, namespaceReadWriteSet.getNamespace());
+                results.add(new ParsedReadWriteSet(namespaceReadWriteSet, privateReadWriteSet, filter, filterStats));
+            } else {
+                filterStats.recordSkippedNamespace(namespaceReadWriteSet.getRwset().size());
+            }
+        }
+
+        return results;
+    }
+
+    private static NsPvtReadWriteSet findNamespace(final TxPvtReadWriteSet privateData, final String namespace) {
+        return privateData.getNsPvtRwsetList().stream()
+                .filter(namespacePrivateData -> namespacePrivateData.getNamespace().equals(namespace))
+                .findFirst()
+                .orElse(NsPvtReadWriteSet.getDefaultInstance());
     }
 
-    ParsedReadWriteSet(final NsReadWriteSet readWriteSet) {
+    ParsedReadWriteSet(final NsReadWriteSet readWriteSet, final NsPvtReadWriteSet privateReadWriteSet, final ReadWriteSetFilter filter,
+                       final FilterStats filterStats) {
         this.readWriteSet = readWriteSet;
+        this.privateReadWriteSet = privateReadWriteSet;
+        this.filter = filter;
+        this.filterStats = filterStats;
+        this.cachedReadWriteSet = new Lazy<>(() -> applyKeyFilter(KVRWSet.parseFrom(readWriteSet.getRwset())));
+        this.cachedCollectionReadWriteSets = new Lazy<>(() -> readWriteSet.getCollectionHashedRwsetList().stream()
+                .map(collection -> new ParsedCollectionReadWriteSet(collection, privateReadWriteSet))
+                .collect(Collectors.toList()));
     }
 
     @Override
@@ -41,7 +71,38 @@ class ParsedReadWriteSet implements NamespaceReadWriteSet {
 
     @Override
     public KVRWSet getReadWriteSet() throws InvalidProtocolBufferException {
-        return Utils.getCachedProto(cachedReadWriteSet, () -> KVRWSet.parseFrom(readWriteSet.getRwset()));
+        return cachedReadWriteSet.get();
+    }
+
+    @Override
+    public List<CollectionReadWriteSet> getCollectionReadWriteSets() throws InvalidProtocolBufferException {
+        return cachedCollectionReadWriteSets.get();
+    }
+
+    private KVRWSet applyKeyFilter(final KVRWSet kvReadWriteSet) {
+        if (!filter.hasKeyFilter()) {
+            return kvReadWriteSet;
+        }
+
+        var reads = kvReadWriteSet.getReadsList().stream()
+                .filter(read -> filter.isKeySelected(read.getKey()))
+                .collect(Collectors.toList());
+        var writes = kvReadWriteSet.getWritesList().stream()
+                .filter(write -> filter.isKeySelected(write.getKey()))
+                .collect(Collectors.toList());
+
+        var skippedCount = kvReadWriteSet.getReadsCount() + kvReadWriteSet.getWritesCount() - reads.size() - writes.size();
+        if (skippedCount == 0) {
+            return kvReadWriteSet;
+        }
+
+        filterStats.recordSkippedKeys(skippedCount);
+        return kvReadWriteSet.toBuilder()
+                .clearReads()
+                .addAllReads(reads)
+                .clearWrites()
+                .addAllWrites(writes)
+                .build();
     }
 
     @Override
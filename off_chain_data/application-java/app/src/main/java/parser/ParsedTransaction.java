@@ -10,20 +10,35 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import org.hyperledger.fabric.client.identity.Identity;
 import org.hyperledger.fabric.protos.common.ChannelHeader;
 import org.hyperledger.fabric.protos.common.Payload;
+import org.hyperledger.fabric.protos.ledger.rwset.TxPvtReadWriteSet;
 import org.hyperledger.fabric.protos.msp.SerializedIdentity;
 import org.hyperledger.fabric.protos.peer.TxValidationCode;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 final class ParsedTransaction implements Transaction {
+    private final int index;
     private final ParsedPayload payload;
-    private final AtomicReference<List<NamespaceReadWriteSet>> cachedNamespaceReadWriteSets = new AtomicReference<>();
-
-    ParsedTransaction(final ParsedPayload payload) {
+    private final TxPvtReadWriteSet privateData;
+    private final ReadWriteSetFilter filter;
+    private final FilterStats filterStats;
+    private final Lazy<List<NamespaceReadWriteSet>> cachedNamespaceReadWriteSets;
+
+    ParsedTransaction(final int index, final ParsedPayload payload, final TxPvtReadWriteSet privateData, final ReadWriteSetFilter filter,
+                      final FilterStats filterStats) {
+        this.index = index;
         this.payload = payload;
+        this.privateData = privateData;
+        this.filter = filter;
+        this.filterStats = filterStats;
+        this.cachedNamespaceReadWriteSets = new Lazy<>(() -> new ArrayList<>(getReadWriteSets()));
+    }
+
+    @Override
+    public int getIndex() {
+        return index;
     }
 
     @Override
@@ -60,7 +75,7 @@ final class ParsedTransaction implements Transaction {
 
     @Override
     public List<NamespaceReadWriteSet> getNamespaceReadWriteSets() throws InvalidProtocolBufferException {
-        return Utils.getCachedProto(cachedNamespaceReadWriteSets, () -> new ArrayList<>(getReadWriteSets()));
+        return cachedNamespaceReadWriteSets.get();
     }
 
     @Override
@@ -71,7 +86,7 @@ final class ParsedTransaction implements Transaction {
     private List<ParsedReadWriteSet> getReadWriteSets() throws InvalidProtocolBufferException {
         var results = new ArrayList<ParsedReadWriteSet>();
         for (var action : getTransactionActions()) {
-            results.addAll(action.getReadWriteSets());
+            results.addAll(action.getReadWriteSets(privateData, filter, filterStats));
         }
 
         return results;
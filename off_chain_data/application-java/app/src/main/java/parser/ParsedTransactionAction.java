@@ -7,6 +7,7 @@
 package parser;
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import org.hyperledger.fabric.protos.ledger.rwset.TxPvtReadWriteSet;
 import org.hyperledger.fabric.protos.ledger.rwset.TxReadWriteSet;
 import org.hyperledger.fabric.protos.peer.ChaincodeAction;
 import org.hyperledger.fabric.protos.peer.ChaincodeActionPayload;
@@ -22,8 +23,9 @@ final class ParsedTransactionAction {
         this.transactionAction = transactionAction;
     }
 
-    public List<ParsedReadWriteSet> getReadWriteSets() throws InvalidProtocolBufferException {
-        return ParsedReadWriteSet.fromTxReadWriteSet(getTxReadWriteSet());
+    public List<ParsedReadWriteSet> getReadWriteSets(final TxPvtReadWriteSet privateData, final ReadWriteSetFilter filter,
+                                                     final FilterStats filterStats) throws InvalidProtocolBufferException {
+        return ParsedReadWriteSet.fromTxReadWriteSet(getTxReadWriteSet(), privateData, filter, filterStats);
     }
 
     private TxReadWriteSet getTxReadWriteSet() throws InvalidProtocolBufferException {
@@ -0,0 +1,90 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package parser;
+
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options that control how blocks are parsed. Create instances using {@link #newBuilder()}.
+ */
+public final class ParserOptions {
+    /** Options used when none are specified: all decoding is done lazily on the calling thread. */
+    public static final ParserOptions DEFAULT = newBuilder().build();
+
+    private final ForkJoinPool decodePool;
+    private final ReadWriteSetFilter filter;
+
+    private ParserOptions(final Builder builder) {
+        this.decodePool = builder.decodePool;
+        this.filter = builder.filter;
+    }
+
+    /**
+     * Create a builder for parser options.
+     * @return A builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Pool used to decode the transactions within a block in parallel, if parallel decoding is enabled.
+     * @return A fork/join pool.
+     */
+    public Optional<ForkJoinPool> getDecodePool() {
+        return Optional.ofNullable(decodePool);
+    }
+
+    /**
+     * Filter applied to transaction read/write sets.
+     * @return A read/write set filter.
+     */
+    public ReadWriteSetFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Builder used to create parser options.
+     */
+    public static final class Builder {
+        private ForkJoinPool decodePool;
+        private ReadWriteSetFilter filter = ReadWriteSetFilter.ALL;
+
+        private Builder() { }
+
+        /**
+         * Decode the envelopes, channel headers and read/write sets of all transactions within a block in parallel on
+         * the specified pool when the block's transactions are first accessed. Transaction order is preserved.
+         * @param pool A fork/join pool.
+         * @return This builder.
+         */
+        public Builder parallelDecode(final ForkJoinPool pool) {
+            this.decodePool = pool;
+            return this;
+        }
+
+        /**
+         * Discard read/write set content not selected by a filter. Namespace read/write sets that are not selected
+         * are never decoded.
+         * @param readWriteSetFilter A read/write set filter.
+         * @return This builder.
+         */
+        public Builder filter(final ReadWriteSetFilter readWriteSetFilter) {
+            this.filter = readWriteSetFilter;
+            return this;
+        }
+
+        /**
+         * Create parser options.
+         * @return Parser options.
+         */
+        public ParserOptions build() {
+            return new ParserOptions(this);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package parser;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Selects the namespaces and keys of interest within transaction read/write sets. Namespaces that are not selected
+ * are discarded before their read/write set bytes are decoded. Create instances using {@link #newBuilder()}.
+ */
+public final class ReadWriteSetFilter {
+    /** Filter that selects all namespaces and keys. */
+    public static final ReadWriteSetFilter ALL = newBuilder().build();
+
+    private final Set<String> includedNamespaces;
+    private final Set<String> excludedNamespaces;
+    private final Predicate<String> keyFilter;
+
+    private ReadWriteSetFilter(final Builder builder) {
+        this.includedNamespaces = Set.copyOf(builder.includedNamespaces);
+        this.excludedNamespaces = Set.copyOf(builder.excludedNamespaces);
+        this.keyFilter = builder.keyFilter;
+    }
+
+    /**
+     * Create a builder for a read/write set filter.
+     * @return A builder.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Whether the read/write set for a namespace is of interest.
+     * @param namespace A ledger namespace.
+     * @return {@code true} if the namespace is selected; otherwise {@code false}.
+     */
+    public boolean isNamespaceSelected(final String namespace) {
+        return (includedNamespaces.isEmpty() || includedNamespaces.contains(namespace)) && !excludedNamespaces.contains(namespace);
+    }
+
+    /**
+     * Whether reads and writes for a key are of interest.
+     * @param key A ledger key.
+     * @return {@code true} if the key is selected; otherwise {@code false}.
+     */
+    public boolean isKeySelected(final String key) {
+        return keyFilter == null || keyFilter.test(key);
+    }
+
+    boolean hasKeyFilter() {
+        return keyFilter != null;
+    }
+
+    /**
+     * Builder used to create a read/write set filter.
+     */
+    public static final class Builder {
+        private final Set<String> includedNamespaces = new HashSet<>();
+        private final Set<String> excludedNamespaces = new HashSet<>();
+        private Predicate<String> keyFilter;
+
+        private Builder() { }
+
+        /**
+         * Select only the specified namespaces. If not specified, all namespaces not explicitly excluded are selected.
+         * @param namespaces Ledger namespaces.
+         * @return This builder.
+         */
+        public Builder includeNamespaces(final Collection<String> namespaces) {
+            includedNamespaces.addAll(namespaces);
+            return this;
+        }
+
+        /**
+         * Exclude the specified namespaces.
+         * @param namespaces Ledger namespaces.
+         * @return This builder.
+         */
+        public Builder excludeNamespaces(final Collection<String> namespaces) {
+            excludedNamespaces.addAll(namespaces);
+            return this;
+        }
+
+        /**
+         * Select only keys that match the specified predicate.
+         * @param filter Key predicate.
+         * @return This builder.
+         */
+        public Builder keyFilter(final Predicate<String> filter) {
+            keyFilter = keyFilter != null ? keyFilter.and(filter) : filter;
+            return this;
+        }
+
+        /**
+         * Select only keys that start with the specified prefix.
+         * @param prefix Key prefix.
+         * @return This builder.
+         */
+        public Builder keyPrefix(final String prefix) {
+            return keyFilter(key -> key.startsWith(prefix));
+        }
+
+        /**
+         * Create a read/write set filter.
+         * @return A read/write set filter.
+         */
+        public ReadWriteSetFilter build() {
+            return new ReadWriteSetFilter(this);
+        }
+    }
+}
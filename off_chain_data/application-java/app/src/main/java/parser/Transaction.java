@@ -15,6 +15,11 @@ import org.hyperledger.fabric.protos.peer.TxValidationCode;
 import java.util.List;
 
 public interface Transaction {
+    /**
+     * Index of the transaction envelope within the block data, which is also its index in the block's transaction
+     * validation codes.
+     */
+    int getIndex();
     ChannelHeader getChannelHeader() throws InvalidProtocolBufferException;
     Identity getCreator() throws InvalidProtocolBufferException;
     TxValidationCode getValidationCode();
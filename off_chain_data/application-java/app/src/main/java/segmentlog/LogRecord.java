@@ -0,0 +1,177 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package segmentlog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A ledger write recorded in a {@link SegmentedLog}. Records read from the log hold their value as a read-only slice
+ * of the memory-mapped segment, so the value is not copied unless the reader chooses to copy it.
+ * <p>Encoded payload: block number, then transaction ID, channel name, namespace and key as length-prefixed UTF-8
+ * strings, a delete flag, and the length-prefixed value.</p>
+ */
+public final class LogRecord {
+    private final long blockNumber;
+    private final String transactionId;
+    private final String channelName;
+    private final String namespace;
+    private final String key;
+    private final boolean isDelete;
+    private final ByteBuffer value;
+
+    /**
+     * Create a record.
+     * @param blockNumber Block containing the transaction.
+     * @param transactionId Transaction that made the write.
+     * @param channelName Channel whose ledger is being updated.
+     * @param namespace Namespace within the ledger.
+     * @param key Key name within the ledger namespace.
+     * @param isDelete Whether the key is being deleted.
+     * @param value Value written to the key; read from its position to its limit.
+     */
+    public LogRecord(final long blockNumber, final String transactionId, final String channelName, final String namespace,
+                     final String key, final boolean isDelete, final ByteBuffer value) {
+        this.blockNumber = blockNumber;
+        this.transactionId = transactionId;
+        this.channelName = channelName;
+        this.namespace = namespace;
+        this.key = key;
+        this.isDelete = isDelete;
+        this.value = value.asReadOnlyBuffer();
+    }
+
+    /**
+     * Block containing the transaction that made the write.
+     * @return A block number.
+     */
+    public long getBlockNumber() {
+        return blockNumber;
+    }
+
+    /**
+     * Transaction that made the write.
+     * @return A transaction ID.
+     */
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * Channel whose ledger is being updated.
+     * @return A channel name.
+     */
+    public String getChannelName() {
+        return channelName;
+    }
+
+    /**
+     * Namespace within the ledger.
+     * @return A ledger namespace.
+     */
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * Key name within the ledger namespace.
+     * @return A ledger key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Whether the key and associated value are being deleted.
+     * @return {@code true} if the ledger key is being deleted; otherwise {@code false}.
+     */
+    public boolean isDelete() {
+        return isDelete;
+    }
+
+    /**
+     * Value written to the key, without copying.
+     * @return A read-only buffer positioned at the start of the value.
+     */
+    public ByteBuffer getValue() {
+        return value.duplicate();
+    }
+
+    /**
+     * Encode this record.
+     */
+    Encoded encode() {
+        return new Encoded(this);
+    }
+
+    static LogRecord decode(final ByteBuffer payload) {
+        var blockNumber = payload.getLong();
+        var transactionId = readString(payload);
+        var channelName = readString(payload);
+        var namespace = readString(payload);
+        var key = readString(payload);
+        var isDelete = payload.get() != 0;
+        var valueLength = payload.getInt();
+        var value = payload.slice().limit(valueLength);
+        payload.position(payload.position() + valueLength);
+
+        return new LogRecord(blockNumber, transactionId, channelName, namespace, key, isDelete, value);
+    }
+
+    private static String readString(final ByteBuffer in) {
+        var length = in.getInt();
+        var bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Record with its strings converted to UTF-8, so its encoded size is known before it is written.
+     */
+    static final class Encoded {
+        private static final int FIXED_SIZE = Long.BYTES + Integer.BYTES * 5 + 1;
+
+        private final LogRecord record;
+        private final byte[] transactionId;
+        private final byte[] channelName;
+        private final byte[] namespace;
+        private final byte[] key;
+
+        private Encoded(final LogRecord record) {
+            this.record = record;
+            this.transactionId = record.transactionId.getBytes(StandardCharsets.UTF_8);
+            this.channelName = record.channelName.getBytes(StandardCharsets.UTF_8);
+            this.namespace = record.namespace.getBytes(StandardCharsets.UTF_8);
+            this.key = record.key.getBytes(StandardCharsets.UTF_8);
+        }
+
+        long getBlockNumber() {
+            return record.blockNumber;
+        }
+
+        int size() {
+            return FIXED_SIZE + transactionId.length + channelName.length + namespace.length + key.length
+                    + record.value.remaining();
+        }
+
+        void writeTo(final ByteBuffer out) {
+            out.putLong(record.blockNumber);
+            writeBytes(out, transactionId);
+            writeBytes(out, channelName);
+            writeBytes(out, namespace);
+            writeBytes(out, key);
+            out.put((byte) (record.isDelete ? 1 : 0));
+            out.putInt(record.value.remaining());
+            out.put(record.value.duplicate());
+        }
+
+        private static void writeBytes(final ByteBuffer out, final byte[] bytes) {
+            out.putInt(bytes.length);
+            out.put(bytes);
+        }
+    }
+}
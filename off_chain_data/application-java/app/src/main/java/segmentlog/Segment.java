@@ -0,0 +1,239 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package segmentlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed-size, memory-mapped log file holding a contiguous run of records. Each record is framed as payload length,
+ * CRC32C checksum of the payload, then the payload. Unused space at the end of the segment is zero-filled, and a zero
+ * length marks the end of the records.
+ * <p>The segment keeps an index of the position of the first record for each block number. The index is held in
+ * memory and written to a companion index file when the segment is sealed, together with the end position of the
+ * records. A segment that was not sealed, such as the one being written when the process stopped, is recovered by
+ * scanning and verifying its records.</p>
+ */
+final class Segment {
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final String INDEX_FILE_SUFFIX = ".index";
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+    private static final long SEALED_MARKER = -1;
+    private static final int INITIAL_INDEX_CAPACITY = 1024;
+
+    private final Path file;
+    private final Path indexFile;
+    private final MappedByteBuffer buffer;
+    private long[] indexBlockNumbers = new long[INITIAL_INDEX_CAPACITY];
+    private int[] indexPositions = new int[INITIAL_INDEX_CAPACITY];
+    private int indexSize;
+    private volatile int limit;
+
+    private Segment(final Path file, final MappedByteBuffer buffer) {
+        this.file = file;
+        this.indexFile = file.resolveSibling(file.getFileName() + INDEX_FILE_SUFFIX);
+        this.buffer = buffer;
+    }
+
+    /**
+     * Open a segment for appending, creating it if it does not exist and discarding any incomplete or corrupt records
+     * at its end.
+     */
+    static Segment openForAppend(final Path file, final int capacity) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var size = Math.max(capacity, channel.size());
+            var segment = new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            segment.recover();
+            segment.clearTail();
+            Files.deleteIfExists(segment.indexFile);
+            return segment;
+        }
+    }
+
+    /**
+     * Open a sealed segment, which is only read.
+     */
+    static Segment openSealed(final Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var segment = new Segment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            if (!segment.loadIndex()) {
+                segment.recover();
+                segment.writeIndex();
+            }
+            return segment;
+        }
+    }
+
+    private boolean loadIndex() throws IOException {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+
+        var index = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        while (index.remaining() >= INDEX_ENTRY_SIZE) {
+            var blockNumber = index.getLong();
+            var position = index.getInt();
+            if (blockNumber == SEALED_MARKER) {
+                limit = position;
+                return true;
+            }
+            addIndexEntry(blockNumber, position);
+        }
+
+        indexSize = 0;
+        return false;
+    }
+
+    private void writeIndex() throws IOException {
+        var index = ByteBuffer.allocate((indexSize + 1) * INDEX_ENTRY_SIZE);
+        for (int i = 0; i < indexSize; i++) {
+            index.putLong(indexBlockNumbers[i]).putInt(indexPositions[i]);
+        }
+        index.putLong(SEALED_MARKER).putInt(limit).flip();
+
+        try (var channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (index.hasRemaining()) {
+                channel.write(index);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Scan records from the start of the segment, stopping at the first record that is incomplete or fails its
+     * checksum, and rebuilding the block number index.
+     */
+    private void recover() {
+        var crc = new CRC32C();
+        var position = 0;
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            var length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.capacity() - position - HEADER_SIZE) {
+                break;
+            }
+
+            var payload = buffer.duplicate().position(position + HEADER_SIZE).limit(position + HEADER_SIZE + length);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+
+            indexRecord(buffer.getLong(position + HEADER_SIZE), position);
+            position += HEADER_SIZE + length;
+        }
+
+        limit = position;
+    }
+
+    /**
+     * Zero any bytes after the last valid record. Pages of a memory-mapped file can reach disk in any order, so data
+     * from later records may have been persisted even though an earlier record was not.
+     */
+    private void clearTail() {
+        for (int i = limit; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Position after the last record. Records before this position are complete and visible to readers.
+     */
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * View of the segment content, for reading records.
+     */
+    ByteBuffer getBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    boolean hasRoomFor(final int payloadSize) {
+        return (long) limit + HEADER_SIZE + payloadSize <= buffer.capacity();
+    }
+
+    /**
+     * Write a record directly into the mapped segment.
+     */
+    void append(final LogRecord.Encoded record) {
+        var payloadSize = record.size();
+        var payloadStart = limit + HEADER_SIZE;
+        var payload = buffer.duplicate().position(payloadStart).limit(payloadStart + payloadSize);
+        record.writeTo(payload);
+
+        var crc = new CRC32C();
+        crc.update(payload.flip().position(payloadStart));
+        buffer.putInt(limit, payloadSize);
+        buffer.putInt(limit + Integer.BYTES, (int) crc.getValue());
+
+        indexRecord(record.getBlockNumber(), limit);
+        limit = payloadStart + payloadSize;
+    }
+
+    private synchronized void indexRecord(final long blockNumber, final int position) {
+        if (indexSize == 0 || indexBlockNumbers[indexSize - 1] != blockNumber) {
+            addIndexEntry(blockNumber, position);
+        }
+    }
+
+    private void addIndexEntry(final long blockNumber, final int position) {
+        if (indexSize == indexBlockNumbers.length) {
+            indexBlockNumbers = Arrays.copyOf(indexBlockNumbers, indexSize * 2);
+            indexPositions = Arrays.copyOf(indexPositions, indexSize * 2);
+        }
+        indexBlockNumbers[indexSize] = blockNumber;
+        indexPositions[indexSize] = position;
+        indexSize++;
+    }
+
+    /**
+     * Last block number with records in this segment.
+     * @return A block number, or -1 if the segment is empty.
+     */
+    synchronized long getLastBlockNumber() {
+        return indexSize > 0 ? indexBlockNumbers[indexSize - 1] : -1;
+    }
+
+    /**
+     * Position of the first record with a block number greater than or equal to the specified block number.
+     * @return A record position, or the segment limit if there are no such records.
+     */
+    synchronized int findPosition(final long blockNumber) {
+        var index = Arrays.binarySearch(indexBlockNumbers, 0, indexSize, blockNumber);
+        var entry = index >= 0 ? index : -index - 1;
+        return entry < indexSize ? indexPositions[entry] : limit;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Force the segment to disk and write its index, after which no more records will be appended.
+     */
+    void seal() throws IOException {
+        force();
+        writeIndex();
+    }
+}
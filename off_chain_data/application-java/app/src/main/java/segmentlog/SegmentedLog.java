@@ -0,0 +1,204 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package segmentlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only log of {@link LogRecord} entries, split across a sequence of fixed-size, memory-mapped segment files.
+ * When a record does not fit in the current segment, the segment is sealed and a new one started. Each segment indexes
+ * the position of the first record for each block number, so readers can start from any block without scanning
+ * earlier records.
+ * <p>Records are visible to readers as soon as they are appended, and are durable once {@link #commit()} returns if
+ * the log was opened with sync enabled. Readers may run concurrently with a single writer.</p>
+ */
+public final class SegmentedLog implements AutoCloseable {
+    private static final String SEGMENT_FILE_FORMAT = "%020d.segment";
+    private static final String SEGMENT_FILE_GLOB = "*.segment";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean sync;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private long nextSegmentNumber;
+
+    /**
+     * Open a log, creating it if it does not exist and discarding any incomplete records at its end.
+     * @param directory Directory holding the segment files.
+     * @param segmentBytes Size of each segment file.
+     * @param sync Whether {@link #commit()} forces appended records to disk.
+     * @throws IOException if an I/O error occurs.
+     */
+    public SegmentedLog(final Path directory, final int segmentBytes, final boolean sync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.sync = sync;
+
+        var files = new ArrayList<Path>();
+        try (var stream = Files.newDirectoryStream(directory, SEGMENT_FILE_GLOB)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+
+        for (int i = 0; i < files.size() - 1; i++) {
+            segments.add(Segment.openSealed(files.get(i)));
+        }
+        if (files.isEmpty()) {
+            segments.add(Segment.openForAppend(newSegmentFile(), segmentBytes));
+        } else {
+            var lastFile = files.get(files.size() - 1);
+            nextSegmentNumber = parseSegmentNumber(lastFile) + 1;
+            segments.add(Segment.openForAppend(lastFile, segmentBytes));
+        }
+    }
+
+    private static long parseSegmentNumber(final Path file) {
+        var name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+
+    private Path newSegmentFile() {
+        return directory.resolve(String.format(SEGMENT_FILE_FORMAT, nextSegmentNumber++));
+    }
+
+    /**
+     * Append a record to the log. Records must be appended in block number order, since the block index of each
+     * segment is searched by block number.
+     * @param record A record.
+     * @throws IOException if an I/O error occurs starting a new segment.
+     * @throws IllegalArgumentException if the record's block number is lower than that of the last record.
+     */
+    public synchronized void append(final LogRecord record) throws IOException {
+        var lastBlockNumber = getLastBlockNumber();
+        if (lastBlockNumber >= 0 && record.getBlockNumber() < lastBlockNumber) {
+            throw new IllegalArgumentException("Record for block " + record.getBlockNumber()
+                    + " cannot be appended after block " + lastBlockNumber);
+        }
+
+        var encoded = record.encode();
+        var size = encoded.size();
+
+        var segment = getActiveSegment();
+        if (!segment.hasRoomFor(size)) {
+            segment.seal();
+            segment = Segment.openForAppend(newSegmentFile(), Math.max(segmentBytes, size + Segment.HEADER_SIZE));
+            segments.add(segment);
+        }
+
+        segment.append(encoded);
+    }
+
+    /**
+     * Make all appended records durable, if the log was opened with sync enabled.
+     */
+    public synchronized void commit() {
+        if (sync) {
+            getActiveSegment().force();
+        }
+    }
+
+    /**
+     * Block number of the last record in the log.
+     * @return A block number, or -1 if the log is empty.
+     */
+    public long getLastBlockNumber() {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            var blockNumber = segments.get(i).getLastBlockNumber();
+            if (blockNumber >= 0) {
+                return blockNumber;
+            }
+        }
+        return -1;
+    }
+
+    private Segment getActiveSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Read records starting from the first record for the specified block number, or the next block number present in
+     * the log. The returned iterator also returns records appended after it was created, until it reaches the end of
+     * the log.
+     * @param startBlock Block number from which to read.
+     * @return Records in the order they were appended.
+     */
+    public Iterator<LogRecord> read(final long startBlock) {
+        var snapshot = List.copyOf(segments);
+        var segmentIndex = 0;
+        while (segmentIndex < snapshot.size() - 1 && snapshot.get(segmentIndex).getLastBlockNumber() < startBlock) {
+            segmentIndex++;
+        }
+
+        var segment = snapshot.get(segmentIndex);
+        return new Reader(segmentIndex, segment.findPosition(startBlock));
+    }
+
+    /**
+     * Paths of the segment files, oldest first.
+     * @return Segment file paths.
+     */
+    public List<Path> getSegmentFiles() {
+        return segments.stream()
+                .map(Segment::getFile)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized void close() {
+        getActiveSegment().force();
+    }
+
+    private final class Reader implements Iterator<LogRecord> {
+        private int segmentIndex;
+        private ByteBuffer buffer;
+        private int position;
+
+        Reader(final int segmentIndex, final int position) {
+            this.segmentIndex = segmentIndex;
+            this.buffer = segments.get(segmentIndex).getBuffer();
+            this.position = position;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position >= segments.get(segmentIndex).getLimit()) {
+                if (segmentIndex >= segments.size() - 1) {
+                    return false;
+                }
+
+                segmentIndex++;
+                buffer = segments.get(segmentIndex).getBuffer();
+                position = 0;
+            }
+
+            return true;
+        }
+
+        @Override
+        public LogRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            var length = buffer.getInt(position);
+            var payloadStart = position + Segment.HEADER_SIZE;
+            var payload = buffer.duplicate().position(payloadStart).limit(payloadStart + length);
+            position = payloadStart + length;
+
+            return LogRecord.decode(payload);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright IBM Corp. All Rights Reserved.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+import com.google.gson.Gson;
+import com.google.protobuf.ByteString;
+import org.hyperledger.fabric.protos.ledger.rwset.kvrwset.KVWrite;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link WriteJsonEncoder} produces exactly the same {@code store.log} lines as serializing writes with
+ * Gson after decoding each value to a String, as the log store did previously, for keys and values that need
+ * escaping, including HTML-sensitive characters, control characters, U+2028 and U+2029, and malformed UTF-8 values.
+ */
+public final class WriteJsonEncoderTest {
+    private static final Gson GSON = new Gson();
+
+    private static final List<String> AWKWARD_KEYS = List.of(
+            "",
+            "asset1",
+            "<script>alert('x&y=z')</script>",
+            "quote\" backslash\\ slash/",
+            "\u0000\u0001\u001f\u007f\t\b\n\r\f",
+            "line\u2028paragraph\u2029",
+            "caf\u00e9 \u4e2d\u6587 \ud83d\ude00"
+    );
+    private static final List<byte[]> AWKWARD_VALUES = List.of(
+            new byte[0],
+            utf8("{\"ID\":\"asset1\",\"Color\":\"blue\",\"Size\":5,\"Owner\":\"<Tom & Jerry>\"}"),
+            utf8("\u2028\u2029\u2027\u202a"),
+            utf8("\ud83d\ude00 \u00e9"),
+            bytes(0xC3, 0x28),             // Invalid continuation byte
+            bytes(0x61, 0xE2, 0x80),       // Truncated U+2028
+            bytes(0x80, 0x3C),             // Lone continuation byte
+            bytes(0xC0, 0xAF),             // Overlong encoding
+            bytes(0xED, 0xA0, 0x80),       // Encoded surrogate
+            bytes(0xF4, 0x90, 0x80, 0x80)  // Beyond U+10FFFF
+    );
+
+    static Stream<Arguments> awkwardWrites() {
+        return AWKWARD_KEYS.stream()
+                .flatMap(key -> AWKWARD_VALUES.stream()
+                        .flatMap(value -> Stream.of(false, true)
+                                .map(isDelete -> Arguments.of(key, value, isDelete))));
+    }
+
+    @ParameterizedTest
+    @MethodSource("awkwardWrites")
+    void encodesSameBytesAsGson(final String key, final byte[] value, final boolean isDelete) throws IOException {
+        var write = new Write("mychannel", "basic", KVWrite.newBuilder()
+                .setKey(key)
+                .setValue(ByteString.copyFrom(value))
+                .setIsDelete(isDelete)
+                .build());
+
+        var actual = new ByteArrayOutputStream();
+        WriteJsonEncoder.encodeLine(write, actual);
+
+        var expected = encodeWithGson(write);
+        assertThat(actual.toByteArray())
+                .as("Expected %s but was %s", new String(expected, StandardCharsets.UTF_8), actual.toString(StandardCharsets.UTF_8))
+                .isEqualTo(expected);
+    }
+
+    private static byte[] encodeWithGson(final Write write) throws IOException {
+        var result = new ByteArrayOutputStream();
+        var writer = new OutputStreamWriter(result, StandardCharsets.UTF_8);
+        GSON.toJson(new StringValueWrite(write), writer);
+        writer.write('\n');
+        writer.flush();
+        return result.toByteArray();
+    }
+
+    private static byte[] utf8(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(final int... values) {
+        var result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    /**
+     * Previous form of {@link Write}, whose value was decoded to a String and serialized by Gson using reflection.
+     */
+    @SuppressWarnings("unused") // Fields are read by Gson
+    private static final class StringValueWrite {
+        private final String channelName;
+        private final String namespace;
+        private final String key;
+        private final boolean isDelete;
+        private final String value;
+
+        StringValueWrite(final Write write) {
+            this.channelName = write.getChannelName();
+            this.namespace = write.getNamespace();
+            this.key = write.getKey();
+            this.isDelete = write.isDelete();
+            this.value = write.getValueBytes().toString(StandardCharsets.UTF_8);
+        }
+    }
+}